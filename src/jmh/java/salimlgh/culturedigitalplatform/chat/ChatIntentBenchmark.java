@@ -0,0 +1,110 @@
+package salimlgh.culturedigitalplatform.chat;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classement d'une question : automate d'Aho-Corasick ({@link ChatIntentClassifier}) contre
+ * les chaînes de contains() qu'il a remplacées. {@code extraKeywords} ajoute des mots-clés
+ * factices à chaque intention, pour mesurer l'effet de la taille des dictionnaires.
+ * Lancement : {@code mvn -P jmh verify -DskipTests} (voir le profil jmh du pom).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChatIntentBenchmark {
+
+    private static final String[] QUESTIONS = {
+            "Bonjour !",
+            "Quels cours sont disponibles ?",
+            "liste des formations",
+            "bonjour, quels sont les quiz",
+            "Y a-t-il une évaluation à la fin du parcours ?",
+            "Qui a peint la Joconde et pourquoi est-elle si célèbre ?",
+            "Pouvez-vous m'expliquer l'architecture gothique des cathédrales françaises du XIIIe siècle ?",
+            "Montre moi le programme"};
+
+    @Param({"0", "50"})
+    public int extraKeywords;
+
+    private ChatIntentClassifier classifier;
+    private List<String> greeting;
+    private List<String> courseList;
+    private List<String> formationList;
+    private List<String> quiz;
+
+    @Setup
+    public void setUp() {
+        greeting = withExtra(List.of("bonjour", "salut", "hello", "bonsoir", "coucou"), "sal");
+        courseList = withExtra(List.of("cours", "disponibles", "liste", "quels sont", "montre moi"), "cou");
+        formationList = withExtra(List.of("formation", "parcours", "programme"), "for");
+        quiz = withExtra(List.of("quiz", "questionnaire", "évaluation", "test"), "qui");
+        classifier = new ChatIntentClassifier(greeting, courseList, formationList, quiz);
+    }
+
+    @Benchmark
+    public void automaton(Blackhole blackhole) {
+        for (String question : QUESTIONS) {
+            blackhole.consume(classifier.classify(question));
+        }
+    }
+
+    @Benchmark
+    public void containsChains(Blackhole blackhole) {
+        for (String question : QUESTIONS) {
+            blackhole.consume(classifyWithContains(question));
+        }
+    }
+
+    // Ancien ChatService : une mise en minuscules et une chaîne de contains() par intention, dans l'ordre
+    private ChatIntent classifyWithContains(String question) {
+        if (containsAny(question.toLowerCase(), greeting)) {
+            return ChatIntent.GREETING;
+        }
+        if (containsAny(question.toLowerCase(), courseList)) {
+            return ChatIntent.COURSE_LIST;
+        }
+        if (containsAny(question.toLowerCase(), formationList)) {
+            return ChatIntent.FORMATION_LIST;
+        }
+        if (containsAny(question.toLowerCase(), quiz)) {
+            return ChatIntent.QUIZ;
+        }
+        return null;
+    }
+
+    private static boolean containsAny(String text, List<String> keywords) {
+        for (String keyword : keywords) {
+            if (text.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Mots-clés factices partageant un préfixe réel : le cas défavorable pour les deux versions
+    private List<String> withExtra(List<String> keywords, String prefix) {
+        List<String> result = new ArrayList<>(keywords);
+        for (int i = 0; i < extraKeywords; i++) {
+            result.add(prefix + (char) ('a' + i % 26) + (char) ('a' + i / 26) + "xw");
+        }
+        return result;
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.function.context.config.ContextFunctionCatalogAutoConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import salimlgh.culturedigitalplatform.repository.CourseRepository;
 import salimlgh.culturedigitalplatform.repository.FormationRepository;
@@ -12,6 +13,7 @@ import salimlgh.culturedigitalplatform.repository.FormationRepository;
 @SpringBootApplication(exclude = {
     ContextFunctionCatalogAutoConfiguration.class
 })
+@EnableScheduling
 public class CultureDigitalPlatformApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,118 @@
+package salimlgh.culturedigitalplatform.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import salimlgh.culturedigitalplatform.entities.Course;
+import salimlgh.culturedigitalplatform.entities.Formation;
+import salimlgh.culturedigitalplatform.entities.Quiz;
+import salimlgh.culturedigitalplatform.event.CatalogChangeEvent;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Évictions du cache de second niveau que Hibernate ne fait pas seul.
+ * Les entités, leurs collections propres (tags, answers) et les requêtes en cache sont
+ * invalidées par Hibernate à chaque écriture ; en revanche les collections inverses
+ * (Formation.courses, Course.quizzes) ne le sont pas quand seul le côté propriétaire change
+ * (cours rattaché à une autre formation, quiz ajouté). Elles sont donc vidées après commit.
+ * Une écriture faite sur un autre nœud n'a rien invalidé ici : l'entité, ses collections et les
+ * requêtes en cache sont vidées, avant que les autres écouteurs ne relisent l'entité.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CatalogCacheEvictor {
+
+    private static final String FORMATION_COURSES = Formation.class.getName() + ".courses";
+    private static final String COURSE_QUIZZES = Course.class.getName() + ".quizzes";
+    private static final String FORMATION_TAGS = Formation.class.getName() + ".tags";
+    private static final String QUIZ_ANSWERS = Quiz.class.getName() + ".answers";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        if (event.isRemote()) {
+            evictRemote(event);
+        }
+        switch (event.getEntityType()) {
+            // Le cours a pu changer de formation : l'ancienne n'est pas connue ici
+            case COURSE -> cache().evictCollectionData(FORMATION_COURSES);
+            case QUIZ -> cache().evictCollectionData(COURSE_QUIZZES);
+            default -> {
+                // Formation : collections propres, gérées par Hibernate
+            }
+        }
+    }
+
+    private void evictRemote(CatalogChangeEvent event) {
+        Cache cache = cache();
+        Long id = event.getEntityId();
+        switch (event.getEntityType()) {
+            case FORMATION -> {
+                cache.evictEntityData(Formation.class, id);
+                cache.evictCollectionData(FORMATION_COURSES, id);
+                cache.evictCollectionData(FORMATION_TAGS, id);
+            }
+            case COURSE -> {
+                cache.evictEntityData(Course.class, id);
+                cache.evictCollectionData(COURSE_QUIZZES, id);
+            }
+            case QUIZ -> {
+                cache.evictEntityData(Quiz.class, id);
+                cache.evictCollectionData(QUIZ_ANSWERS, id);
+            }
+        }
+        cache.evictQueryRegions();
+    }
+
+    /** Vide tout le cache, après une écriture faite hors Hibernate (JDBC, migration). */
+    public void evictAll() {
+        cache().evictAllRegions();
+        log.info("Cache de second niveau vidé");
+    }
+
+    /** Compteurs du cache de second niveau et du cache de requêtes, globaux puis par région. */
+    public Map<String, Object> statistics() {
+        Statistics statistics = sessionFactory().getStatistics();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", statistics.isStatisticsEnabled());
+        result.put("secondLevel", Map.of(
+                "hits", statistics.getSecondLevelCacheHitCount(),
+                "misses", statistics.getSecondLevelCacheMissCount(),
+                "puts", statistics.getSecondLevelCachePutCount()));
+        result.put("queries", Map.of(
+                "hits", statistics.getQueryCacheHitCount(),
+                "misses", statistics.getQueryCacheMissCount(),
+                "puts", statistics.getQueryCachePutCount()));
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+            regions.put(region, Map.of(
+                    "hits", regionStatistics.getHitCount(),
+                    "misses", regionStatistics.getMissCount(),
+                    "puts", regionStatistics.getPutCount()));
+        }
+        result.put("regions", regions);
+        return result;
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    private Cache cache() {
+        return sessionFactory().getCache();
+    }
+}
@@ -0,0 +1,42 @@
+package salimlgh.culturedigitalplatform.catalog;
+
+import salimlgh.culturedigitalplatform.entities.Course;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Cours actif du catalogue avec ses quiz, copié depuis l'entité. Le titre de la formation
+ * est recopié ici pour que les listes de cours n'aient rien à joindre.
+ */
+public record CatalogCourse(Long id, String title, String description, Long formationId, String formationTitle,
+                            Integer duration, String status, LocalDateTime createdAt,
+                            String pdfBlobRef, String pdfContentType, Long pdfSize, LocalDateTime pdfUpdatedAt,
+                            String youtubeLink, List<CatalogQuiz> quizzes) {
+
+    /** À appeler dans une transaction : la formation et les quiz sont lus à la demande. */
+    public static CatalogCourse of(Course course) {
+        return of(course, course.getQuizzes() == null ? List.of() : course.getQuizzes().stream()
+                .map(quiz -> CatalogQuiz.of(quiz, course.getId()))
+                .toList());
+    }
+
+    /** Quiz déjà lus à part (construction complète du snapshot). */
+    public static CatalogCourse of(Course course, List<CatalogQuiz> quizzes) {
+        return new CatalogCourse(course.getId(), course.getTitle(), course.getDescription(),
+                course.getFormation() != null ? course.getFormation().getId() : null,
+                course.getFormation() != null ? course.getFormation().getTitle() : null,
+                course.getDuration(), course.getStatus(), course.getCreatedAt(),
+                course.getPdfBlobRef(), course.getPdfContentType(), course.getPdfSize(), course.getPdfUpdatedAt(),
+                course.getYoutubeLink(), List.copyOf(quizzes));
+    }
+
+    public boolean hasPdf() {
+        return pdfBlobRef != null;
+    }
+
+    public CatalogCourse withFormationTitle(String newFormationTitle) {
+        return new CatalogCourse(id, title, description, formationId, newFormationTitle, duration, status, createdAt,
+                pdfBlobRef, pdfContentType, pdfSize, pdfUpdatedAt, youtubeLink, quizzes);
+    }
+}
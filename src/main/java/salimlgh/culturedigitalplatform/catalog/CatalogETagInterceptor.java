@@ -0,0 +1,61 @@
+package salimlgh.culturedigitalplatform.catalog;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.List;
+
+/**
+ * ETag faible des endpoints publics de liste et de détail, dérivé de la version du catalogue.
+ * Un If-None-Match égal à la version courante reçoit 304 avant l'appel du contrôleur :
+ * ni snapshot parcouru, ni mapping, ni sérialisation.
+ * La version est lue avant le contrôleur ; si le catalogue change entre-temps, l'ETag est
+ * plus ancien que le corps et le client refait simplement un aller-retour complet.
+ * Le même ETag sert pour tous les paramètres d'une URL : les caches HTTP les distinguent
+ * déjà par l'URL complète.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogETagInterceptor implements HandlerInterceptor {
+
+    /** Listes et détails publics servis par le snapshot. */
+    public static final List<String> PATHS = List.of(
+            "/api/formations", "/api/formations/{id}", "/api/formations/latest",
+            "/api/formations/difficulty/*", "/api/formations/category/*",
+            "/api/courses", "/api/courses/{id}", "/api/courses/formation/*");
+
+    /** La recherche et les facettes dépendent d'autres index ; le PDF a son propre ETag. */
+    public static final List<String> EXCLUDED_PATHS = List.of(
+            "/api/formations/search", "/api/formations/facets", "/api/courses/search");
+
+    private final CatalogSnapshotStore catalogSnapshotStore;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return true;
+        }
+        return !checkNotModified(request, response, catalogSnapshotStore.snapshot().version());
+    }
+
+    /**
+     * Pose l'ETag et un Cache-Control "no-cache" (conserver mais revalider, à la place du
+     * "no-store" par défaut de Spring Security), puis le statut 304 si le client a déjà
+     * cette version.
+     */
+    static boolean checkNotModified(HttpServletRequest request, HttpServletResponse response, long version) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        return new ServletWebRequest(request, response).checkNotModified(etag(version));
+    }
+
+    static String etag(long version) {
+        return "W/\"" + version + "\"";
+    }
+}
@@ -0,0 +1,21 @@
+package salimlgh.culturedigitalplatform.catalog;
+
+import salimlgh.culturedigitalplatform.entities.DifficultyLevel;
+import salimlgh.culturedigitalplatform.entities.Formation;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** Formation publiée, copiée depuis l'entité ; ses cours sont indexés à part dans le snapshot. */
+public record CatalogFormation(Long id, String title, String subtitle, String description, String imageUrl,
+                               DifficultyLevel difficulty, String category, Integer durationHours,
+                               LocalDateTime createdAt, List<String> tags) {
+
+    /** À appeler dans une transaction : les tags sont lus à la demande. */
+    public static CatalogFormation of(Formation formation) {
+        return new CatalogFormation(formation.getId(), formation.getTitle(), formation.getSubtitle(),
+                formation.getDescription(), formation.getImageUrl(), formation.getDifficulty(),
+                formation.getCategory(), formation.getDurationHours(), formation.getCreatedAt(),
+                CatalogSnapshot.copy(formation.getTags()));
+    }
+}
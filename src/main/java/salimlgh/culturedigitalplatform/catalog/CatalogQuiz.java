@@ -0,0 +1,14 @@
+package salimlgh.culturedigitalplatform.catalog;
+
+import salimlgh.culturedigitalplatform.entities.Quiz;
+
+import java.util.List;
+
+/** Quiz d'un cours actif, copié depuis l'entité : immuable et détaché de la session. */
+public record CatalogQuiz(Long id, String question, List<String> answers, Integer correctAnswerIndex, Long courseId) {
+
+    public static CatalogQuiz of(Quiz quiz, Long courseId) {
+        return new CatalogQuiz(quiz.getId(), quiz.getQuestion(), CatalogSnapshot.copy(quiz.getAnswers()),
+                quiz.getCorrectAnswerIndex(), courseId);
+    }
+}
@@ -0,0 +1,182 @@
+package salimlgh.culturedigitalplatform.catalog;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import salimlgh.culturedigitalplatform.pagination.CursorPage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache des réponses JSON des endpoints publics du catalogue, sous forme d'octets déjà
+ * encodés, avec une variante gzip calculée une fois pour toutes.
+ * La clé est la version du catalogue, le chemin et la chaîne de requête : une réponse en
+ * cache est écrite telle quelle sur le flux de sortie, sans contrôleur, mapping ni Jackson.
+ * Le cache est vidé dès que la version avance ; la version est lue avant de produire la
+ * réponse, si bien qu'une entrée ne peut pas être plus ancienne que sa clé. Une requête
+ * partie avec une version plus ancienne ne vide pas le cache et n'y écrit pas.
+ */
+@Component
+public class CatalogResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final String JSON = MediaType.APPLICATION_JSON_VALUE;
+    // En dessous, la compression ne fait pas gagner grand-chose
+    private static final int GZIP_MIN_SIZE = 512;
+
+    private record CachedResponse(byte[] json, byte[] gzip, String nextCursor, String totalCount) {
+        int weight() {
+            return json.length + (gzip == null ? 0 : gzip.length);
+        }
+    }
+
+    private final CatalogSnapshotStore catalogSnapshotStore;
+    private final boolean enabled;
+    private final List<PathPattern> paths;
+    private final List<PathPattern> excludedPaths;
+    private final Cache<String, CachedResponse> cache;
+    private final AtomicLong cachedVersion = new AtomicLong(-1);
+
+    public CatalogResponseCacheFilter(CatalogSnapshotStore catalogSnapshotStore,
+                                      @Value("${catalog.response-cache.enabled:true}") boolean enabled,
+                                      @Value("${catalog.response-cache.max-bytes:16000000}") long maxBytes) {
+        this.catalogSnapshotStore = catalogSnapshotStore;
+        this.enabled = enabled;
+        this.paths = CatalogETagInterceptor.PATHS.stream().map(PathPatternParser.defaultInstance::parse).toList();
+        this.excludedPaths = CatalogETagInterceptor.EXCLUDED_PATHS.stream().map(PathPatternParser.defaultInstance::parse).toList();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .<String, CachedResponse>weigher((key, response) -> key.length() + response.weight())
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || !HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        return excludedPaths.stream().anyMatch(pattern -> pattern.matches(path))
+                || paths.stream().noneMatch(pattern -> pattern.matches(path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long version = catalogSnapshotStore.snapshot().version();
+        long previous = cachedVersion.getAndAccumulate(version, Math::max);
+        if (version > previous) {
+            cache.invalidateAll();
+        }
+        // Sur toutes les réponses : un cache HTTP ne doit pas resservir la variante gzip à un autre client
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (CatalogETagInterceptor.checkNotModified(request, response, version)) {
+            return;
+        }
+
+        String query = request.getQueryString();
+        String key = query == null ? version + request.getRequestURI() : version + request.getRequestURI() + '?' + query;
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            write(cached, request, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(request, wrapper);
+            if (version == cachedVersion.get() && wrapper.getStatus() == HttpServletResponse.SC_OK
+                    && wrapper.getContentType() != null && wrapper.getContentType().startsWith(JSON)) {
+                byte[] json = wrapper.getContentAsByteArray();
+                cache.put(key, new CachedResponse(json, json.length >= GZIP_MIN_SIZE ? gzip(json) : null,
+                        wrapper.getHeader(CursorPage.NEXT_CURSOR_HEADER), wrapper.getHeader(CursorPage.TOTAL_COUNT_HEADER)));
+            }
+        } finally {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private static void write(CachedResponse cached, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(JSON);
+        if (cached.nextCursor() != null) {
+            response.setHeader(CursorPage.NEXT_CURSOR_HEADER, cached.nextCursor());
+        }
+        if (cached.totalCount() != null) {
+            response.setHeader(CursorPage.TOTAL_COUNT_HEADER, cached.totalCount());
+        }
+        byte[] body = cached.json();
+        if (cached.gzip() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            body = cached.gzip();
+        }
+        response.setContentLength(body.length);
+        ServletOutputStream out = response.getOutputStream();
+        out.write(body);
+        out.flush();
+    }
+
+    /**
+     * Vrai si Accept-Encoding admet gzip avec une qualité non nulle ("gzip", "gzip;q=0.5",
+     * ou "*" quand gzip n'est pas cité). "gzip;q=0", "gzip; q=0.0" ou "gzip;q=0.000" le refusent.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].strip().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                int separator = parts[i].indexOf('=');
+                if (separator > 0 && parts[i].substring(0, separator).strip().equalsIgnoreCase("q")) {
+                    try {
+                        quality = Double.parseDouble(parts[i].substring(separator + 1).strip());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = quality;
+            } else if (coding.equals("*")) {
+                any = quality;
+            }
+        }
+        double quality = gzip != null ? gzip : any != null ? any : 0;
+        return quality > 0;
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,290 @@
+package salimlgh.culturedigitalplatform.catalog;
+
+import salimlgh.culturedigitalplatform.entities.DifficultyLevel;
+import salimlgh.culturedigitalplatform.pagination.CursorPage;
+import salimlgh.culturedigitalplatform.pagination.KeysetCursor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Catalogue publié à un instant donné : formations publiées, cours actifs et leurs quiz,
+ * avec les index dont ont besoin les endpoints publics (par id, par date, par formation,
+ * par difficulté, par catégorie).
+ * Le snapshot est immuable : il est partagé sans verrou entre les requêtes et remplacé
+ * d'un bloc par {@link CatalogSnapshotStore} à chaque écriture. Sa version est celle du
+ * l'écriture qu'il applique ({@link CatalogVersionCounter}), la même sur tous les nœuds ;
+ * elle augmente strictement dès que le contenu change (voir {@link CatalogETagInterceptor}). Une mise à jour ne relit en
+ * base que l'entité modifiée ; les listes triées du snapshot précédent sont recopiées avec
+ * l'élément remplacé à sa place (O(n), sans nouveau tri), les index recalculés en un passage.
+ */
+public final class CatalogSnapshot {
+
+    // Plus récent d'abord, puis id décroissant : l'ordre de la pagination par clé
+    private static final Comparator<LocalDateTime> NEWEST_FIRST = Comparator.nullsLast(Comparator.reverseOrder());
+    private static final Comparator<CatalogFormation> FORMATIONS_BY_ID = Comparator.comparing(CatalogFormation::id);
+    private static final Comparator<CatalogCourse> COURSES_BY_ID = Comparator.comparing(CatalogCourse::id);
+    private static final Comparator<CatalogFormation> LATEST_FORMATIONS =
+            Comparator.comparing(CatalogFormation::createdAt, NEWEST_FIRST)
+                    .thenComparing(CatalogFormation::id, Comparator.reverseOrder());
+    private static final Comparator<CatalogCourse> LATEST_COURSES =
+            Comparator.comparing(CatalogCourse::createdAt, NEWEST_FIRST)
+                    .thenComparing(CatalogCourse::id, Comparator.reverseOrder());
+
+    // Déclaré après les comparateurs, qu'il utilise. Sa version ne désigne aucun état de la base
+    public static final CatalogSnapshot EMPTY = new CatalogSnapshot(-1, List.of(), List.of(), Set.of());
+
+    private final long version;
+    private final Map<Long, CatalogFormation> formationsById;
+    private final List<CatalogFormation> formations;
+    private final List<CatalogFormation> latestFormations;
+    private final Map<DifficultyLevel, List<CatalogFormation>> formationsByDifficulty;
+    private final Map<String, List<CatalogFormation>> formationsByCategory;
+    private final Map<Long, CatalogCourse> coursesById;
+    private final List<CatalogCourse> courses;
+    private final List<CatalogCourse> latestCourses;
+    private final Map<Long, List<CatalogCourse>> coursesByFormation;
+    private final Map<Long, Long> courseIdByQuiz;
+    private final Set<Long> existingFormationIds;
+
+    /**
+     * @param existingFormationIds toutes les formations, publiées ou non : un cours actif peut
+     *                             appartenir à une formation non publiée
+     */
+    CatalogSnapshot(long version, Collection<CatalogFormation> formations, Collection<CatalogCourse> courses,
+                    Set<Long> existingFormationIds) {
+        this(version,
+                formations.stream().sorted(FORMATIONS_BY_ID).toList(),
+                formations.stream().sorted(LATEST_FORMATIONS).toList(),
+                courses.stream().sorted(COURSES_BY_ID).toList(),
+                courses.stream().sorted(LATEST_COURSES).toList(),
+                Set.copyOf(existingFormationIds));
+    }
+
+    // Listes déjà triées, utilisées telles quelles
+    private CatalogSnapshot(long version, List<CatalogFormation> formations, List<CatalogFormation> latestFormations,
+                            List<CatalogCourse> courses, List<CatalogCourse> latestCourses,
+                            Set<Long> existingFormationIds) {
+        this.version = version;
+        this.formations = formations;
+        this.formationsById = index(formations, CatalogFormation::id);
+        this.latestFormations = latestFormations;
+        this.formationsByDifficulty = group(formations.stream()
+                .filter(formation -> formation.difficulty() != null).toList(), CatalogFormation::difficulty);
+        this.formationsByCategory = group(formations.stream()
+                .filter(formation -> formation.category() != null).toList(), CatalogFormation::category);
+
+        this.courses = courses;
+        this.coursesById = index(courses, CatalogCourse::id);
+        this.latestCourses = latestCourses;
+        this.coursesByFormation = group(courses.stream()
+                .filter(course -> course.formationId() != null).toList(), CatalogCourse::formationId);
+        Map<Long, Long> quizzes = new HashMap<>();
+        courses.forEach(course -> course.quizzes().forEach(quiz -> quizzes.put(quiz.id(), course.id())));
+        this.courseIdByQuiz = Map.copyOf(quizzes);
+        this.existingFormationIds = existingFormationIds;
+    }
+
+    // ---- Lectures ----
+
+    /** Version du catalogue partagée par les nœuds, augmentée à chaque écriture d'administration. */
+    public long version() {
+        return version;
+    }
+
+    /** Formations publiées par id croissant. */
+    public List<CatalogFormation> formations() {
+        return formations;
+    }
+
+    /** Formations publiées, les plus récentes d'abord. */
+    public List<CatalogFormation> latestFormations() {
+        return latestFormations;
+    }
+
+    public CatalogFormation formation(Long id) {
+        return formationsById.get(id);
+    }
+
+    /** Formations publiées parmi ces ids, dans l'ordre des ids (classement d'une recherche). */
+    public List<CatalogFormation> formations(List<Long> ids) {
+        return ids.stream().map(formationsById::get).filter(Objects::nonNull).toList();
+    }
+
+    /** Formations publiées parmi ces ids, les plus récentes d'abord. */
+    public List<CatalogFormation> latestFormationsAmong(Collection<Long> ids) {
+        Set<Long> wanted = new HashSet<>(ids);
+        return latestFormations.stream().filter(formation -> wanted.contains(formation.id())).toList();
+    }
+
+    public List<CatalogFormation> formationsByDifficulty(DifficultyLevel difficulty) {
+        return formationsByDifficulty.getOrDefault(difficulty, List.of());
+    }
+
+    public List<CatalogFormation> formationsByCategory(String category) {
+        return formationsByCategory.getOrDefault(category, List.of());
+    }
+
+    public CursorPage<CatalogFormation> latestFormationsPage(String cursor, Integer size, boolean withTotal) {
+        return page(latestFormations, cursor, size, withTotal, CatalogFormation::createdAt, CatalogFormation::id);
+    }
+
+    /** Cours actifs par id croissant. */
+    public List<CatalogCourse> courses() {
+        return courses;
+    }
+
+    public CatalogCourse course(Long id) {
+        return coursesById.get(id);
+    }
+
+    /** Cours actifs parmi ces ids, dans l'ordre des ids. */
+    public List<CatalogCourse> courses(List<Long> ids) {
+        return ids.stream().map(coursesById::get).filter(Objects::nonNull).toList();
+    }
+
+    /** Cours actifs de la formation (publiée ou non), par id croissant. */
+    public List<CatalogCourse> coursesOf(Long formationId) {
+        return coursesByFormation.getOrDefault(formationId, List.of());
+    }
+
+    public boolean formationExists(Long formationId) {
+        return existingFormationIds.contains(formationId);
+    }
+
+    public CursorPage<CatalogCourse> latestCoursesPage(String cursor, Integer size, boolean withTotal) {
+        return page(latestCourses, cursor, size, withTotal, CatalogCourse::createdAt, CatalogCourse::id);
+    }
+
+    /** Cours qui porte ce quiz, ou null si le quiz n'est pas au catalogue. */
+    public Long courseIdOfQuiz(Long quizId) {
+        return courseIdByQuiz.get(quizId);
+    }
+
+    // ---- Mises à jour : chacune renvoie un nouveau snapshot ----
+
+    /**
+     * Remplace la formation. {@code published} vaut null si elle n'est pas (ou plus) publiée ;
+     * {@code exists} est faux si elle a été supprimée, ses cours disparaissent alors avec elle.
+     */
+    CatalogSnapshot withFormation(long newVersion, Long id, CatalogFormation published, boolean exists, String title) {
+        Set<Long> newIds = new HashSet<>(existingFormationIds);
+        Function<List<CatalogCourse>, List<CatalogCourse>> updateCourses;
+        if (exists) {
+            newIds.add(id);
+            // Le titre de la formation est recopié dans ses cours, qui gardent leur place
+            updateCourses = list -> list.stream()
+                    .map(course -> id.equals(course.formationId()) ? course.withFormationTitle(title) : course)
+                    .toList();
+        } else {
+            newIds.remove(id);
+            updateCourses = list -> list.stream().filter(course -> !id.equals(course.formationId())).toList();
+        }
+        return new CatalogSnapshot(newVersion,
+                replace(formations, CatalogFormation::id, id, published, FORMATIONS_BY_ID),
+                replace(latestFormations, CatalogFormation::id, id, published, LATEST_FORMATIONS),
+                updateCourses.apply(courses), updateCourses.apply(latestCourses), Set.copyOf(newIds));
+    }
+
+    /** Remplace le cours, ou le retire si {@code active} vaut null (inactif ou supprimé). */
+    CatalogSnapshot withCourse(long newVersion, Long id, CatalogCourse active) {
+        return new CatalogSnapshot(newVersion, formations, latestFormations,
+                replace(courses, CatalogCourse::id, id, active, COURSES_BY_ID),
+                replace(latestCourses, CatalogCourse::id, id, active, LATEST_COURSES),
+                existingFormationIds);
+    }
+
+    /** Même contenu sous une autre version. */
+    CatalogSnapshot withVersion(long newVersion) {
+        return new CatalogSnapshot(newVersion, formations, latestFormations, courses, latestCourses,
+                existingFormationIds);
+    }
+
+    /** Vrai si les deux snapshots servent le même catalogue, quelle que soit leur version. */
+    boolean sameContentAs(CatalogSnapshot other) {
+        return formations.equals(other.formations) && courses.equals(other.courses)
+                && existingFormationIds.equals(other.existingFormationIds);
+    }
+
+    public int formationCount() {
+        return formations.size();
+    }
+
+    public int courseCount() {
+        return courses.size();
+    }
+
+    // Même contrat que la pagination SQL : tri (createdAt, id) décroissant, size + 1 éléments lus
+    private static <T> CursorPage<T> page(List<T> sorted, String cursor, Integer size, boolean withTotal,
+                                          Function<T, LocalDateTime> createdAt, Function<T, Long> id) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        int pageSize = KeysetCursor.pageSize(size);
+        // Sans date : après toutes les lignes datées (NULLS LAST), puis par id décroissant
+        Predicate<T> after = item -> {
+            LocalDateTime date = createdAt.apply(item);
+            if (position.getCreatedAt() == null) {
+                return date == null && id.apply(item) < position.getId();
+            }
+            if (date == null) {
+                return true;
+            }
+            int compare = date.compareTo(position.getCreatedAt());
+            return compare < 0 || (compare == 0 && id.apply(item) < position.getId());
+        };
+        // Premier élément après le curseur, par dichotomie sur la liste triée
+        int low = 0;
+        int high = sorted.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (after.test(sorted.get(middle))) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        List<T> fetched = sorted.subList(low, Math.min(sorted.size(), low + pageSize + 1));
+        return CursorPage.of(fetched, pageSize, item -> KeysetCursor.encode(createdAt.apply(item), id.apply(item)),
+                withTotal ? (long) sorted.size() : null);
+    }
+
+    // Copie de la liste triée sans l'élément d'id donné, le remplaçant (s'il y en a un) inséré à sa place
+    private static <T> List<T> replace(List<T> sorted, Function<T, Long> id, Long replacedId, T replacement,
+                                       Comparator<T> order) {
+        List<T> result = new ArrayList<>(sorted.size() + 1);
+        for (T item : sorted) {
+            if (!id.apply(item).equals(replacedId)) {
+                result.add(item);
+            }
+        }
+        if (replacement != null) {
+            int position = Collections.binarySearch(result, replacement, order);
+            result.add(position >= 0 ? position : -position - 1, replacement);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static <T> Map<Long, T> index(List<T> items, Function<T, Long> id) {
+        return items.stream().collect(Collectors.toUnmodifiableMap(id, Function.identity()));
+    }
+
+    private static <K, T> Map<K, List<T>> group(List<T> items, Function<T, K> key) {
+        return items.stream().collect(Collectors.collectingAndThen(
+                Collectors.groupingBy(key, Collectors.toUnmodifiableList()), Collections::unmodifiableMap));
+    }
+
+    static List<String> copy(List<String> values) {
+        return values == null ? List.of() : Collections.unmodifiableList(new ArrayList<>(values));
+    }
+}
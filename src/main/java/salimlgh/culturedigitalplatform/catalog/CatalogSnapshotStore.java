@@ -0,0 +1,175 @@
+package salimlgh.culturedigitalplatform.catalog;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import salimlgh.culturedigitalplatform.entities.Course;
+import salimlgh.culturedigitalplatform.entities.Quiz;
+import salimlgh.culturedigitalplatform.event.CatalogChangeEvent;
+import salimlgh.culturedigitalplatform.repository.CourseRepository;
+import salimlgh.culturedigitalplatform.repository.FormationRepository;
+import salimlgh.culturedigitalplatform.repository.QuizRepository;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Détient le {@link CatalogSnapshot} courant. Les lectures ne prennent aucun verrou et
+ * n'émettent aucune requête SQL : elles lisent la référence atomique.
+ * Le snapshot est construit au démarrage, avant que le serveur web n'accepte des requêtes :
+ * les endpoints publics ne servent jamais le catalogue vide. Il est ensuite mis à jour après
+ * chaque commit d'une écriture d'administration : un unique thread de fond relit l'entité
+ * modifiée et publie un nouveau snapshot, si bien que les mises à jour s'appliquent dans
+ * l'ordre et sans se concurrencer.
+ * Les reconstructions complètes passent par ce même thread : une reconstruction ne peut pas
+ * publier un état lu avant une mise à jour et écraser celle-ci.
+ */
+@Component
+@Slf4j
+public class CatalogSnapshotStore implements SmartInitializingSingleton {
+
+    private final FormationRepository formationRepository;
+    private final CourseRepository courseRepository;
+    private final QuizRepository quizRepository;
+    private final CatalogVersionCounter catalogVersionCounter;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>(CatalogSnapshot.EMPTY);
+    private final ExecutorService updater = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CatalogSnapshotStore(FormationRepository formationRepository, CourseRepository courseRepository,
+                                QuizRepository quizRepository, CatalogVersionCounter catalogVersionCounter,
+                                PlatformTransactionManager transactionManager) {
+        this.formationRepository = formationRepository;
+        this.courseRepository = courseRepository;
+        this.quizRepository = quizRepository;
+        this.catalogVersionCounter = catalogVersionCounter;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /** Snapshot courant ; à lire une fois par requête pour une vue cohérente. */
+    public CatalogSnapshot snapshot() {
+        return current.get();
+    }
+
+    // Tous les singletons sont prêts, le serveur web ne démarre qu'à la fin du rafraîchissement du contexte
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /** Reconstruit le snapshot depuis la base ; rend la main une fois le nouveau snapshot publié. */
+    public void rebuild() {
+        Future<CatalogSnapshot> rebuilt = updater.submit(() -> {
+            CatalogSnapshot snapshot = readOnlyTransaction.execute(status -> load());
+            current.set(snapshot);
+            return snapshot;
+        });
+        CatalogSnapshot snapshot;
+        try {
+            snapshot = rebuilt.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconstruction du snapshot du catalogue interrompue", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Reconstruction du snapshot du catalogue impossible", e.getCause());
+        }
+        log.info("Snapshot du catalogue construit : {} formations publiées, {} cours actifs (version {})",
+                snapshot.formationCount(), snapshot.courseCount(), snapshot.version());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        updater.execute(() -> {
+            try {
+                readOnlyTransaction.executeWithoutResult(status -> apply(event));
+            } catch (RuntimeException e) {
+                // Le snapshot précédent reste servi ; la prochaine reconstruction rattrapera l'écart
+                log.error("Mise à jour du snapshot du catalogue impossible pour {}", event, e);
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        updater.shutdownNow();
+    }
+
+    // Trois requêtes, plus les réponses des quiz par lots
+    private CatalogSnapshot load() {
+        // Lue avant les données : le snapshot contient au moins les écritures qu'elle compte
+        long version = catalogVersionCounter.current();
+        List<CatalogFormation> formations = formationRepository.findPublishedFormations().stream()
+                .map(CatalogFormation::of)
+                .toList();
+        Map<Long, List<CatalogQuiz>> quizzes = quizRepository.findActiveCourseQuizzes().stream()
+                .collect(Collectors.groupingBy(quiz -> quiz.getCourse().getId(),
+                        Collectors.mapping(quiz -> CatalogQuiz.of(quiz, quiz.getCourse().getId()), Collectors.toList())));
+        List<CatalogCourse> courses = courseRepository.findActiveCoursesWithFormation().stream()
+                .map(course -> CatalogCourse.of(course, quizzes.getOrDefault(course.getId(), List.of())))
+                .toList();
+        return publishable(current.get(), new CatalogSnapshot(version, formations, courses,
+                new HashSet<>(formationRepository.findAllIds())));
+    }
+
+    private void apply(CatalogChangeEvent event) {
+        CatalogSnapshot snapshot = current.get();
+        long version = event.getVersion();
+        Long id = event.getEntityId();
+        CatalogSnapshot updated = switch (event.getEntityType()) {
+            case FORMATION -> formationRepository.findById(id)
+                    .map(formation -> snapshot.withFormation(version, id,
+                            formation.isPublished() ? CatalogFormation.of(formation) : null, true, formation.getTitle()))
+                    .orElseGet(() -> snapshot.withFormation(version, id, null, false, null));
+            case COURSE -> snapshot.withCourse(version, id, loadActiveCourse(id));
+            case QUIZ -> {
+                // Quiz supprimé : son cours n'est plus connu que du snapshot
+                Long courseId = quizRepository.findById(id)
+                        .map(Quiz::getCourse)
+                        .map(Course::getId)
+                        .orElseGet(() -> snapshot.courseIdOfQuiz(id));
+                yield courseId == null ? snapshot : snapshot.withCourse(version, courseId, loadActiveCourse(courseId));
+            }
+        };
+        current.set(publishable(snapshot, updated));
+    }
+
+    /*
+     * Un snapshot prend la version de l'écriture qu'il applique. Un contenu modifié sans version
+     * plus haute que la précédente (écriture distante rejouée après une écriture locale plus
+     * récente, reconstruction) reçoit une version neuve : un ETag ne désigne jamais deux contenus.
+     * Un contenu inchangé garde le snapshot précédent.
+     */
+    private CatalogSnapshot publishable(CatalogSnapshot previous, CatalogSnapshot updated) {
+        if (updated.version() > previous.version()) {
+            return updated;
+        }
+        if (updated.sameContentAs(previous)) {
+            return previous;
+        }
+        return updated.withVersion(catalogVersionCounter.allocate());
+    }
+
+    private CatalogCourse loadActiveCourse(Long id) {
+        return courseRepository.findById(id)
+                .filter(course -> "active".equals(course.getStatus()))
+                .map(CatalogCourse::of)
+                .orElse(null);
+    }
+}
@@ -0,0 +1,84 @@
+package salimlgh.culturedigitalplatform.catalog;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import salimlgh.culturedigitalplatform.entities.CatalogVersion;
+import salimlgh.culturedigitalplatform.event.CatalogChangeEvent;
+import salimlgh.culturedigitalplatform.repository.CatalogVersionRepository;
+
+/**
+ * Version du catalogue tenue en base (table catalog_version) et non par chaque nœud :
+ * chaque écriture locale l'incrémente dans sa propre transaction et relit la valeur obtenue,
+ * qui part avec l'événement (et la ligne du journal) jusqu'au snapshot. Deux nœuds qui ont
+ * appliqué les mêmes écritures dans le même ordre donnent donc le même ETag, y compris d'un
+ * redémarrage à l'autre. La première version est 1 : 0 et moins ne désignent jamais un
+ * catalogue chargé depuis la base.
+ */
+@Component
+@Slf4j
+public class CatalogVersionCounter {
+
+    static final long FIRST_VERSION = 1;
+
+    private final CatalogVersionRepository catalogVersionRepository;
+    private final TransactionTemplate writeTransaction;
+    private final TransactionTemplate ownTransaction;
+
+    public CatalogVersionCounter(CatalogVersionRepository catalogVersionRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.catalogVersionRepository = catalogVersionRepository;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    void init() {
+        if (catalogVersionRepository.findCurrent().isPresent()) {
+            return;
+        }
+        try {
+            catalogVersionRepository.save(new CatalogVersion(CatalogVersion.ID, FIRST_VERSION));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Version du catalogue créée par un autre nœud");
+        }
+    }
+
+    // Avant les autres écouteurs BEFORE_COMMIT : le journal enregistre la version de l'écriture.
+    // Les écritures distantes ont déjà été comptées par le nœud qui les a faites.
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void increment(CatalogChangeEvent event) {
+        if (!event.isRemote()) {
+            // Dans la transaction de l'écriture : la ligne reste verrouillée jusqu'à son commit
+            event.setVersion(writeTransaction.execute(status -> next()));
+        }
+    }
+
+    /**
+     * Nouvelle version, réservée dans sa propre transaction : aucune écriture ne la portera.
+     * Sert au snapshot quand son contenu change sans version plus haute à reprendre.
+     */
+    public long allocate() {
+        return ownTransaction.execute(status -> next());
+    }
+
+    /** Version validée en base ; à lire avant les données dans la même transaction. */
+    public long current() {
+        return catalogVersionRepository.findCurrent().orElse(0L);
+    }
+
+    private long next() {
+        catalogVersionRepository.increment();
+        return catalogVersionRepository.findCurrent().orElseThrow();
+    }
+}
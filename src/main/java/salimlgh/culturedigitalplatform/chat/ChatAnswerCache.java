@@ -0,0 +1,122 @@
+package salimlgh.culturedigitalplatform.chat;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import salimlgh.culturedigitalplatform.dtos.ChatResponse;
+import salimlgh.culturedigitalplatform.search.TextAnalyzer;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.regex.Pattern;
+
+/**
+ * Réponses du modèle déjà obtenues, par question normalisée et version du catalogue.
+ * La normalisation ignore la casse, les accents, la ponctuation, les élisions et les mots
+ * vides : « Qu'est-ce que la peinture flamande ? » et « qu est ce que la Peinture Flamande »
+ * partagent la même entrée. Elle garde les chiffres et les lettres isolées (« niveau 1 » et
+ * « niveau 2 » restent distincts), et un mot vide n'est reconnu qu'avec ses accents : « où »
+ * n'est pas « ou ». Le cache est borné en octets, chaque entrée expire après
+ * {@code ttl}, et tout est vidé dès que la version du catalogue change.
+ * Métriques : cache.* (tag cache=chat.answers, taux de succès compris) et chat.answer.cache.bytes.
+ */
+@Component
+public class ChatAnswerCache {
+
+    private static final String NAME = "chat.answers";
+    private static final Pattern ELISIONS = Pattern.compile("\\b(?:qu|jusqu|lorsqu|puisqu|[cdjlmnst])['’]");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "le", "la", "les", "un", "une", "des", "de", "du", "au", "aux", "et", "ou", "est", "ce", "ces",
+            "cet", "cette", "que", "qui", "qu", "the", "an", "of", "and");
+
+    private record CachedAnswer(String answer, String context) {
+        int weight() {
+            return 2 * (answer.length() + (context == null ? 0 : context.length()));
+        }
+    }
+
+    private final boolean enabled;
+    private final Cache<String, CachedAnswer> cache;
+    private volatile long cachedVersion = -1;
+
+    public ChatAnswerCache(MeterRegistry meterRegistry,
+                           @Value("${chat.answer-cache.enabled:true}") boolean enabled,
+                           @Value("${chat.answer-cache.ttl:1h}") Duration ttl,
+                           @Value("${chat.answer-cache.max-bytes:8000000}") long maxBytes) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .<String, CachedAnswer>weigher((key, answer) -> 2 * key.length() + answer.weight())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+        Gauge.builder("chat.answer.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Part des questions servies par le cache des réponses")
+                .register(meterRegistry);
+        Gauge.builder("chat.answer.cache.bytes", cache,
+                        c -> c.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L))
+                .description("Taille estimée des réponses en cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /** Forme normalisée d'une question ; vide si elle ne contient aucun terme significatif. */
+    public static String normalize(String question) {
+        if (question == null) {
+            return "";
+        }
+        String lower = ELISIONS.matcher(question.toLowerCase(Locale.ROOT)).replaceAll(" ");
+        StringJoiner normalized = new StringJoiner(" ");
+        for (String token : SEPARATORS.split(lower)) {
+            if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+                normalized.add(TextAnalyzer.fold(token));
+            }
+        }
+        return normalized.toString();
+    }
+
+    public ChatResponse get(long version, String question) {
+        String key = key(version, question);
+        if (key == null) {
+            return null;
+        }
+        CachedAnswer cached = cache.getIfPresent(key);
+        return cached == null ? null : new ChatResponse(cached.answer(), cached.context(), true, null);
+    }
+
+    /** Seules les réponses réussies du modèle sont conservées, jamais les réponses de secours. */
+    public void put(long version, String question, ChatResponse response) {
+        String key = key(version, question);
+        if (key != null && response.isSuccess() && response.getAnswer() != null) {
+            cache.put(key, new CachedAnswer(response.getAnswer(), response.getContext()));
+        }
+    }
+
+    private String key(long version, String question) {
+        if (!enabled) {
+            return null;
+        }
+        // Une question commencée avant la modification ne doit pas vider le cache de la nouvelle version
+        if (version < cachedVersion) {
+            return null;
+        }
+        if (version > cachedVersion) {
+            synchronized (this) {
+                if (version > cachedVersion) {
+                    cache.invalidateAll();
+                    cachedVersion = version;
+                }
+            }
+        }
+        String normalized = normalize(question);
+        return normalized.isEmpty() ? null : version + ":" + normalized;
+    }
+}
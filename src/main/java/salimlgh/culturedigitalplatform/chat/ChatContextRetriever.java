@@ -0,0 +1,74 @@
+package salimlgh.culturedigitalplatform.chat;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import salimlgh.culturedigitalplatform.search.InvertedIndex;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Choisit les éléments du catalogue envoyés au modèle avec la question.
+ * Les éléments sont classés par BM25 (avec tolérance aux fautes de frappe) sur leurs titres
+ * et descriptions ; les {@code top-k} premiers sont retenus tant que leur coût cumulé reste
+ * sous {@code max-tokens}. Sans terme exploitable dans la question, un aperçu des formations
+ * puis des cours remplit le même budget. La taille du prompt ne dépend donc pas de celle du
+ * catalogue.
+ */
+@Component
+@Slf4j
+public class ChatContextRetriever {
+
+    private final int topK;
+    private final int maxTokens;
+
+    public ChatContextRetriever(@Value("${chat.context.top-k:15}") int topK,
+                                @Value("${chat.context.max-tokens:1200}") int maxTokens) {
+        this.topK = topK;
+        this.maxTokens = maxTokens;
+    }
+
+    public String select(ChatKnowledge knowledge, String question) {
+        List<ChatDocument> documents = knowledge.documents();
+        List<ChatDocument> ranked = new ArrayList<>();
+        for (InvertedIndex.Hit hit : knowledge.index().search(question, topK, true)) {
+            ranked.add(documents.get((int) hit.id()));
+        }
+        if (ranked.isEmpty()) {
+            List<ChatDocument> overview = knowledge.overview();
+            ranked = overview.subList(0, Math.min(topK, overview.size()));
+        }
+
+        Map<ChatDocument.Kind, List<ChatDocument>> sections = new EnumMap<>(ChatDocument.Kind.class);
+        int used = 0;
+        int kept = 0;
+        for (ChatDocument document : ranked) {
+            int cost = document.tokens() + (sections.containsKey(document.kind())
+                    ? 0 : TokenEstimator.estimate(document.kind().heading()));
+            // Un élément trop long est sauté : un suivant plus court peut encore tenir
+            if (used + cost > maxTokens) {
+                continue;
+            }
+            sections.computeIfAbsent(document.kind(), kind -> new ArrayList<>()).add(document);
+            used += cost;
+            kept++;
+        }
+        log.debug("Contexte de l'assistant : {} éléments sur {} candidats, ~{} tokens", kept, ranked.size(), used);
+        return render(sections);
+    }
+
+    private static String render(Map<ChatDocument.Kind, List<ChatDocument>> sections) {
+        StringBuilder contextBuilder = new StringBuilder();
+        sections.forEach((kind, documents) -> {
+            if (!contextBuilder.isEmpty()) {
+                contextBuilder.append("\n");
+            }
+            contextBuilder.append(kind.heading()).append("\n");
+            documents.forEach(document -> contextBuilder.append(document.line()).append("\n"));
+        });
+        return contextBuilder.toString();
+    }
+}
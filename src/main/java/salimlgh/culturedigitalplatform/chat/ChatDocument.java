@@ -0,0 +1,29 @@
+package salimlgh.culturedigitalplatform.chat;
+
+/**
+ * Élément du catalogue tel qu'il apparaît dans le contexte du modèle : une ligne déjà
+ * formatée et son coût estimé en tokens.
+ */
+public record ChatDocument(Kind kind, String line, int tokens) {
+
+    /** Ordre des sections du contexte. */
+    public enum Kind {
+        COURSE("Cours disponibles :"),
+        FORMATION("Formations disponibles :"),
+        QUIZ("Quiz disponibles :");
+
+        private final String heading;
+
+        Kind(String heading) {
+            this.heading = heading;
+        }
+
+        public String heading() {
+            return heading;
+        }
+    }
+
+    static ChatDocument of(Kind kind, String line) {
+        return new ChatDocument(kind, line, TokenEstimator.estimate(line));
+    }
+}
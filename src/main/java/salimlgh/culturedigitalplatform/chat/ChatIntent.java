@@ -0,0 +1,9 @@
+package salimlgh.culturedigitalplatform.chat;
+
+/** Intentions reconnues sans le modèle ; en cas d'égalité, la première déclarée l'emporte. */
+public enum ChatIntent {
+    GREETING,
+    COURSE_LIST,
+    FORMATION_LIST,
+    QUIZ
+}
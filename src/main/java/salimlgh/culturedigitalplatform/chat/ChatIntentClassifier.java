@@ -0,0 +1,102 @@
+package salimlgh.culturedigitalplatform.chat;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import salimlgh.culturedigitalplatform.search.KeywordAutomaton;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reconnaît l'intention d'une question à partir de mots-clés configurés ({@code chat.intents.*}),
+ * toutes intentions confondues, en un seul passage sur la question (automate d'Aho-Corasick,
+ * insensible à la casse et aux accents).
+ * Chaque mot-clé trouvé rapporte à son intention son poids, une seule fois quelle que soit sa
+ * fréquence. Le poids vaut par défaut la longueur du mot-clé, ou est donné après deux-points
+ * ("liste:1") pour les mots peu spécifiques : quand plusieurs intentions correspondent, la plus
+ * spécifique l'emporte ("liste des formations" est une demande de formations, pas de cours ;
+ * "bonjour, quels sont les quiz" une demande de quiz).
+ */
+@Component
+public class ChatIntentClassifier {
+
+    private static final ChatIntent[] INTENTS = ChatIntent.values();
+
+    private final KeywordAutomaton automaton;
+    private final ChatIntent[] intentOf;
+    private final int[] weightOf;
+
+    public ChatIntentClassifier(
+            @Value("${chat.intents.greeting:bonjour:1,salut:1,hello:1,bonsoir:1,coucou:1}") List<String> greeting,
+            @Value("${chat.intents.course-list:cours,disponibles:1,liste:1,quels sont:1,montre moi:1}") List<String> courseList,
+            @Value("${chat.intents.formation-list:formation,parcours,programme}") List<String> formationList,
+            @Value("${chat.intents.quiz:quiz,questionnaire,évaluation,test}") List<String> quiz) {
+        Map<ChatIntent, List<String>> dictionaries = new EnumMap<>(ChatIntent.class);
+        dictionaries.put(ChatIntent.GREETING, greeting);
+        dictionaries.put(ChatIntent.COURSE_LIST, courseList);
+        dictionaries.put(ChatIntent.FORMATION_LIST, formationList);
+        dictionaries.put(ChatIntent.QUIZ, quiz);
+
+        List<String> keywords = new ArrayList<>();
+        List<ChatIntent> intents = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        dictionaries.forEach((intent, entries) -> entries.forEach(entry -> {
+            int colon = entry.lastIndexOf(':');
+            String keyword = colon < 0 ? entry : entry.substring(0, colon);
+            keywords.add(keyword);
+            intents.add(intent);
+            weights.add(colon < 0 ? KeywordAutomaton.fold(keyword).strip().length() : weight(entry, colon));
+        }));
+        this.automaton = KeywordAutomaton.compile(keywords);
+        this.intentOf = intents.toArray(new ChatIntent[0]);
+        this.weightOf = weights.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int weight(String entry, int colon) {
+        try {
+            return Integer.parseInt(entry.substring(colon + 1).strip());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Poids invalide pour le mot-clé d'intention : " + entry, e);
+        }
+    }
+
+    /** Intention la mieux notée, ou null si aucun mot-clé n'est présent. */
+    public ChatIntent classify(String question) {
+        int[] scores = score(question);
+        ChatIntent best = null;
+        int bestScore = 0;
+        for (ChatIntent intent : INTENTS) {
+            if (scores[intent.ordinal()] > bestScore) {
+                best = intent;
+                bestScore = scores[intent.ordinal()];
+            }
+        }
+        return best;
+    }
+
+    /** Score de chaque intention présente, pour le diagnostic. */
+    public Map<ChatIntent, Integer> scores(String question) {
+        int[] scores = score(question);
+        Map<ChatIntent, Integer> result = new EnumMap<>(ChatIntent.class);
+        for (ChatIntent intent : INTENTS) {
+            if (scores[intent.ordinal()] > 0) {
+                result.put(intent, scores[intent.ordinal()]);
+            }
+        }
+        return result;
+    }
+
+    private int[] score(String question) {
+        int[] scores = new int[INTENTS.length];
+        boolean[] found = new boolean[intentOf.length];
+        automaton.scan(question, keyword -> {
+            if (!found[keyword]) {
+                found[keyword] = true;
+                scores[intentOf[keyword].ordinal()] += weightOf[keyword];
+            }
+        });
+        return scores;
+    }
+}
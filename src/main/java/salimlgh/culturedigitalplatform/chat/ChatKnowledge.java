@@ -0,0 +1,129 @@
+package salimlgh.culturedigitalplatform.chat;
+
+import salimlgh.culturedigitalplatform.catalog.CatalogCourse;
+import salimlgh.culturedigitalplatform.catalog.CatalogFormation;
+import salimlgh.culturedigitalplatform.catalog.CatalogQuiz;
+import salimlgh.culturedigitalplatform.catalog.CatalogSnapshot;
+import salimlgh.culturedigitalplatform.search.InvertedIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Textes servis par l'assistant pour une version du catalogue : listes formatées des cours,
+ * formations et quiz, aperçu de secours, et éléments candidats au contexte du modèle avec
+ * leur index BM25 (l'id d'un document indexé est sa position dans {@code documents}).
+ * Tout est calculé une fois par version ; une question ne fait que lire ces données.
+ */
+public record ChatKnowledge(long version, int courseCount, int formationCount, int quizCount,
+                            String courses, String formations, String quizzes, String fallbackOverview,
+                            List<ChatDocument> documents, List<ChatDocument> overview, InvertedIndex index) {
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    // Une description très longue ne doit pas occuper tout le budget du contexte
+    private static final int MAX_DESCRIPTION_CHARS = 300;
+
+    static final ChatKnowledge EMPTY = of(CatalogSnapshot.EMPTY);
+
+    static ChatKnowledge of(CatalogSnapshot snapshot) {
+        List<CatalogCourse> courses = snapshot.courses();
+        List<CatalogFormation> formations = snapshot.formations();
+        int quizCount = courses.stream().mapToInt(course -> course.quizzes().size()).sum();
+
+        String coursesText = formatCourses(courses);
+        String formationsText = formatFormations(formations);
+        String quizzesText = formatQuizzes(courses, quizCount);
+        String fallbackOverview = "1. Cours disponibles :\n" + coursesText + "\n\n" +
+                "2. Formations disponibles :\n" + formationsText + "\n\n" +
+                "3. Quiz disponibles :\n" + quizzesText;
+
+        List<ChatDocument> documents = new ArrayList<>();
+        InvertedIndex index = new InvertedIndex();
+        for (CatalogCourse course : courses) {
+            index.put(new InvertedIndex.Document(documents.size())
+                    .field(course.title(), TITLE_WEIGHT)
+                    .field(course.formationTitle(), 1)
+                    .field(course.description(), 1));
+            documents.add(ChatDocument.of(ChatDocument.Kind.COURSE,
+                    "- " + course.title() + " : " + shorten(course.description())));
+        }
+        for (CatalogFormation formation : formations) {
+            index.put(new InvertedIndex.Document(documents.size())
+                    .field(formation.title(), TITLE_WEIGHT)
+                    .field(formation.category(), CATEGORY_WEIGHT)
+                    .field(String.join(" ", formation.tags()), 1)
+                    .field(formation.description(), 1));
+            documents.add(ChatDocument.of(ChatDocument.Kind.FORMATION,
+                    "- " + formation.title() + " : " + shorten(formation.description())));
+        }
+        for (CatalogCourse course : courses) {
+            for (CatalogQuiz quiz : course.quizzes()) {
+                index.put(new InvertedIndex.Document(documents.size())
+                        .field(quiz.question(), 1)
+                        .field(course.title(), 1));
+                documents.add(ChatDocument.of(ChatDocument.Kind.QUIZ,
+                        "- " + quiz.question() + " (Cours: " + course.title() + ")"));
+            }
+        }
+        // Sans correspondance, les formations puis les cours donnent un aperçu du catalogue
+        List<ChatDocument> overviewDocuments = new ArrayList<>();
+        documents.stream().filter(document -> document.kind() == ChatDocument.Kind.FORMATION).forEach(overviewDocuments::add);
+        documents.stream().filter(document -> document.kind() == ChatDocument.Kind.COURSE).forEach(overviewDocuments::add);
+
+        return new ChatKnowledge(snapshot.version(), courses.size(), formations.size(), quizCount,
+                coursesText, formationsText, quizzesText, fallbackOverview,
+                List.copyOf(documents), List.copyOf(overviewDocuments), index);
+    }
+
+    private static String shorten(String text) {
+        if (text == null || text.length() <= MAX_DESCRIPTION_CHARS) {
+            return text;
+        }
+        return text.substring(0, MAX_DESCRIPTION_CHARS) + "…";
+    }
+
+    private static String formatCourses(List<CatalogCourse> courses) {
+        if (courses.isEmpty()) {
+            return "Aucun cours n'est disponible pour le moment.";
+        }
+
+        return courses.stream()
+                .map(course -> String.format("- %s\n  Description: %s\n  Durée: %d minutes\n  Statut: %s",
+                        course.title(),
+                        course.description(),
+                        course.duration(),
+                        course.status()))
+                .collect(Collectors.joining("\n\n"));
+    }
+
+    private static String formatFormations(List<CatalogFormation> formations) {
+        if (formations.isEmpty()) {
+            return "Aucune formation n'est disponible pour le moment.";
+        }
+
+        return formations.stream()
+                .map(formation -> String.format("- %s\n  Description: %s\n  Catégorie: %s\n  Difficulté: %s\n  Durée: %d heures",
+                        formation.title(),
+                        formation.description(),
+                        formation.category(),
+                        formation.difficulty(),
+                        formation.durationHours()))
+                .collect(Collectors.joining("\n\n"));
+    }
+
+    private static String formatQuizzes(List<CatalogCourse> courses, int quizCount) {
+        if (quizCount == 0) {
+            return "Aucun quiz n'est disponible pour le moment.";
+        }
+
+        return courses.stream()
+                .flatMap(course -> course.quizzes().stream()
+                        .map(quiz -> String.format("- Question: %s\n  Cours: %s\n  Réponses possibles: %s",
+                                quiz.question(),
+                                course.title(),
+                                String.join(", ", quiz.answers()))))
+                .collect(Collectors.joining("\n\n"));
+    }
+}
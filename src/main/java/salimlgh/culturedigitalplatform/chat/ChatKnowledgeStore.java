@@ -0,0 +1,43 @@
+package salimlgh.culturedigitalplatform.chat;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import salimlgh.culturedigitalplatform.catalog.CatalogSnapshot;
+import salimlgh.culturedigitalplatform.catalog.CatalogSnapshotStore;
+
+/**
+ * Connaissances de l'assistant, dérivées du snapshot du catalogue et recalculées seulement
+ * quand sa version change. Hors appel au modèle, une question coûte une comparaison de
+ * versions, quelle que soit la taille du catalogue.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ChatKnowledgeStore {
+
+    private final CatalogSnapshotStore catalogSnapshotStore;
+
+    private volatile ChatKnowledge current = ChatKnowledge.EMPTY;
+
+    public ChatKnowledge knowledge() {
+        ChatKnowledge knowledge = current;
+        CatalogSnapshot snapshot = catalogSnapshotStore.snapshot();
+        if (knowledge.version() == snapshot.version()) {
+            return knowledge;
+        }
+        return refresh();
+    }
+
+    // Une seule reconstruction par version, même si plusieurs questions arrivent ensemble ;
+    // le snapshot est relu sous le verrou pour ne jamais revenir à une version déjà remplacée
+    private synchronized ChatKnowledge refresh() {
+        CatalogSnapshot snapshot = catalogSnapshotStore.snapshot();
+        if (current.version() != snapshot.version()) {
+            current = ChatKnowledge.of(snapshot);
+            log.debug("Connaissances de l'assistant recalculées (version {}) : {} cours, {} formations, {} quiz",
+                    current.version(), current.courseCount(), current.formationCount(), current.quizCount());
+        }
+        return current;
+    }
+}
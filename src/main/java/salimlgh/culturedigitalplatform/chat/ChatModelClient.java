@@ -0,0 +1,16 @@
+package salimlgh.culturedigitalplatform.chat;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Modèle de langage interrogé par l'assistant, choisi par {@code chat.model} :
+ * {@code openai} (par défaut) ou {@code fake}, un modèle local déterministe pour les tests.
+ */
+public interface ChatModelClient {
+
+    /** Réponse complète ; bloque jusqu'à la fin de la génération. */
+    String call(String prompt);
+
+    /** Réponse émise token par token, sans occuper de thread pendant la génération. */
+    Flux<String> stream(String prompt);
+}
@@ -0,0 +1,187 @@
+package salimlgh.culturedigitalplatform.chat;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Isole les appels au modèle du reste de l'application.
+ * <ul>
+ *   <li>Cloison : au plus {@code max-concurrent} appels en cours, sur un pool de threads dédié ;
+ *   au-delà, l'appel est refusé immédiatement au lieu d'attendre.</li>
+ *   <li>Délai : un appel complet qui dépasse {@code timeout} échoue (et son thread est
+ *   interrompu) ; en flux, l'attente de chaque token est bornée par {@code timeout} et la
+ *   réponse entière par {@code stream-timeout}, un modèle qui égrène ses tokens ne pouvant
+ *   pas occuper un permis indéfiniment.</li>
+ *   <li>Disjoncteur : après {@code failure-threshold} échecs consécutifs, plus aucun appel
+ *   n'est tenté pendant {@code open-duration}.</li>
+ * </ul>
+ * Un refus échoue avec {@link ChatModelUnavailableException} ; l'appelant sert alors sa réponse
+ * de secours. Métriques : chat.model.rejected (tag reason), chat.model.timeouts,
+ * chat.model.in_flight, chat.model.circuit.open et chat.model.circuit.opened.
+ */
+@Component
+@Slf4j
+public class ChatModelGuard {
+
+    private final ChatModelClient chatModelClient;
+    private final int maxConcurrent;
+    private final Duration timeout;
+    private final Duration streamTimeout;
+    private final Semaphore permits;
+    private final CircuitBreaker circuitBreaker;
+    private final ExecutorService executor;
+
+    private final Counter rejectedBulkhead;
+    private final Counter rejectedOpen;
+    private final Counter timeouts;
+    private final Counter opened;
+
+    public ChatModelGuard(ChatModelClient chatModelClient, MeterRegistry meterRegistry,
+                          @Value("${chat.model.max-concurrent:8}") int maxConcurrent,
+                          @Value("${chat.model.timeout:20s}") Duration timeout,
+                          @Value("${chat.model.stream-timeout:60s}") Duration streamTimeout,
+                          @Value("${chat.model.circuit.failure-threshold:5}") int failureThreshold,
+                          @Value("${chat.model.circuit.open-duration:30s}") Duration openDuration) {
+        this.chatModelClient = chatModelClient;
+        this.maxConcurrent = maxConcurrent;
+        this.timeout = timeout;
+        this.streamTimeout = streamTimeout;
+        this.permits = new Semaphore(maxConcurrent);
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openDuration);
+        AtomicInteger threadNumber = new AtomicInteger();
+        // Les permis bornent les tâches soumises au nombre de threads : la file reste vide
+        this.executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "chat-model-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.rejectedBulkhead = rejected(meterRegistry, "bulkhead");
+        this.rejectedOpen = rejected(meterRegistry, "circuit_open");
+        this.timeouts = Counter.builder("chat.model.timeouts")
+                .description("Appels au modèle abandonnés faute de réponse à temps")
+                .register(meterRegistry);
+        this.opened = Counter.builder("chat.model.circuit.opened")
+                .description("Ouvertures du disjoncteur du modèle")
+                .register(meterRegistry);
+        Gauge.builder("chat.model.in_flight", permits, p -> this.maxConcurrent - p.availablePermits())
+                .description("Appels au modèle en cours")
+                .register(meterRegistry);
+        Gauge.builder("chat.model.circuit.open", circuitBreaker, b -> b.state() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .description("1 quand le disjoncteur du modèle est ouvert ou en essai")
+                .register(meterRegistry);
+    }
+
+    /** Réponse complète, calculée sur le pool du modèle ; ne bloque pas l'appelant. */
+    public CompletableFuture<String> call(String prompt) {
+        ChatModelUnavailableException refusal = acquire();
+        if (refusal != null) {
+            return CompletableFuture.failedFuture(refusal);
+        }
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            try {
+                result.complete(chatModelClient.call(prompt));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                // Le permis suit le thread : un appel abandonné l'occupe jusqu'à son interruption
+                permits.release();
+            }
+        });
+        return result.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS).whenComplete((answer, e) -> {
+            if (e instanceof TimeoutException) {
+                timeouts.increment();
+                task.cancel(true);
+            }
+            record(e);
+        });
+    }
+
+    /** Réponse en flux ; le permis est rendu à la fin, à l'erreur ou à l'abandon du flux. */
+    public Flux<String> stream(String prompt) {
+        return Flux.defer(() -> {
+            ChatModelUnavailableException refusal = acquire();
+            if (refusal != null) {
+                return Flux.error(refusal);
+            }
+            long deadline = now() + streamTimeout.toMillis();
+            return chatModelClient.stream(prompt)
+                    .timeout(untilNextToken(deadline), token -> untilNextToken(deadline))
+                    .doOnComplete(() -> record(null))
+                    .doOnError(e -> {
+                        if (e instanceof TimeoutException) {
+                            timeouts.increment();
+                        }
+                        record(e);
+                    })
+                    .doOnCancel(circuitBreaker::onAbandon)
+                    .doFinally(signal -> permits.release());
+        });
+    }
+
+    // Attente d'un token : au plus timeout, et jamais au-delà de l'échéance de la réponse entière
+    private Mono<Long> untilNextToken(long deadline) {
+        long remaining = Math.max(0, deadline - now());
+        return Mono.delay(Duration.ofMillis(Math.min(timeout.toMillis(), remaining)));
+    }
+
+    // Horloge de l'ordonnanceur de Mono.delay (remplacée en temps virtuel dans les tests)
+    private static long now() {
+        return Schedulers.parallel().now(TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private ChatModelUnavailableException acquire() {
+        if (!circuitBreaker.tryAcquire()) {
+            rejectedOpen.increment();
+            return new ChatModelUnavailableException("Disjoncteur du modèle ouvert");
+        }
+        if (!permits.tryAcquire()) {
+            circuitBreaker.onAbandon();
+            rejectedBulkhead.increment();
+            return new ChatModelUnavailableException("Trop d'appels au modèle en cours");
+        }
+        return null;
+    }
+
+    private void record(Throwable failure) {
+        if (failure == null) {
+            circuitBreaker.onSuccess();
+        } else if (circuitBreaker.onFailure()) {
+            opened.increment();
+            log.warn("Disjoncteur du modèle ouvert après l'échec : {}", failure.toString());
+        }
+    }
+
+    private static Counter rejected(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("chat.model.rejected")
+                .description("Appels au modèle refusés sans être tentés")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
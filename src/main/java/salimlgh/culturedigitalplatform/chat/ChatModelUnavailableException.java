@@ -0,0 +1,9 @@
+package salimlgh.culturedigitalplatform.chat;
+
+/** Appel au modèle refusé sans être tenté : disjoncteur ouvert ou trop d'appels en cours. */
+public class ChatModelUnavailableException extends RuntimeException {
+
+    public ChatModelUnavailableException(String message) {
+        super(message);
+    }
+}
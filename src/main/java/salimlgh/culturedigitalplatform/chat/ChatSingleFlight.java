@@ -0,0 +1,107 @@
+package salimlgh.culturedigitalplatform.chat;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import salimlgh.culturedigitalplatform.dtos.ChatResponse;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Regroupe les questions identiques posées en même temps (même question normalisée, même
+ * version du catalogue) : la première lance le calcul, les suivantes attendent son résultat
+ * au lieu d'appeler le modèle à leur tour. En flux, une question qui arrive en cours de route
+ * reçoit d'abord les tokens déjà produits. Une fois le calcul terminé, la question suivante
+ * relève du cache des réponses.
+ * Métriques : chat.singleflight.requests (tag role=leader|follower) et
+ * chat.singleflight.coalescing.ratio, la part des questions servies par un calcul déjà en cours.
+ */
+@Component
+public class ChatSingleFlight {
+
+    private final Map<String, CompletableFuture<ChatResponse>> calls = new ConcurrentHashMap<>();
+    private final Map<String, Flux<String>> streams = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter followers;
+
+    public ChatSingleFlight(MeterRegistry meterRegistry) {
+        this.leaders = role(meterRegistry, "leader");
+        this.followers = role(meterRegistry, "follower");
+        Gauge.builder("chat.singleflight.coalescing.ratio", this, ChatSingleFlight::coalescingRatio)
+                .description("Part des questions servies par un calcul déjà en cours")
+                .register(meterRegistry);
+    }
+
+    /** Clé de regroupement, ou null si la question ne contient aucun terme significatif. */
+    public static String key(long version, String question) {
+        String normalized = ChatAnswerCache.normalize(question);
+        return normalized.isEmpty() ? null : version + ":" + normalized;
+    }
+
+    public CompletableFuture<ChatResponse> call(String key, Supplier<CompletableFuture<ChatResponse>> computation) {
+        if (key == null) {
+            return computation.get();
+        }
+        CompletableFuture<ChatResponse> mine = new CompletableFuture<>();
+        CompletableFuture<ChatResponse> inFlight = calls.putIfAbsent(key, mine);
+        if (inFlight != null) {
+            followers.increment();
+            return inFlight;
+        }
+        leaders.increment();
+        try {
+            computation.get().whenComplete((response, e) -> {
+                calls.remove(key, mine);
+                if (e != null) {
+                    mine.completeExceptionally(e);
+                } else {
+                    mine.complete(response);
+                }
+            });
+        } catch (RuntimeException e) {
+            calls.remove(key, mine);
+            mine.completeExceptionally(e);
+        }
+        return mine;
+    }
+
+    /**
+     * Le flux partagé va jusqu'au bout même si tous ses abonnés partent : la réponse complète
+     * alimente le cache des réponses.
+     */
+    public Flux<String> stream(String key, Supplier<Flux<String>> computation) {
+        if (key == null) {
+            return computation.get();
+        }
+        AtomicReference<Flux<String>> created = new AtomicReference<>();
+        Flux<String> shared = streams.computeIfAbsent(key, k -> {
+            AtomicReference<Flux<String>> self = new AtomicReference<>();
+            Flux<String> flux = computation.get()
+                    .doFinally(signal -> streams.remove(k, self.get()))
+                    .cache();
+            self.set(flux);
+            created.set(flux);
+            return flux;
+        });
+        (created.get() == shared ? leaders : followers).increment();
+        return shared;
+    }
+
+    private double coalescingRatio() {
+        double total = leaders.count() + followers.count();
+        return total == 0 ? 0 : followers.count() / total;
+    }
+
+    private static Counter role(MeterRegistry meterRegistry, String role) {
+        return Counter.builder("chat.singleflight.requests")
+                .description("Questions envoyées au modèle, par rôle dans leur regroupement")
+                .tag("role", role)
+                .register(meterRegistry);
+    }
+}
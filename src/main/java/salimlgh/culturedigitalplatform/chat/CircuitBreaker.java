@@ -0,0 +1,77 @@
+package salimlgh.culturedigitalplatform.chat;
+
+import java.time.Duration;
+
+/**
+ * Disjoncteur par échecs consécutifs. Fermé, il laisse tout passer ; après
+ * {@code failureThreshold} échecs d'affilée il s'ouvre et refuse tout pendant
+ * {@code openDuration}. Il laisse ensuite passer un seul appel d'essai (semi-ouvert) :
+ * un succès le referme, un échec le rouvre pour la même durée.
+ */
+class CircuitBreaker {
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /** Vrai si l'appel peut partir ; en semi-ouvert, seul le premier appel passe. */
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (trialInFlight) {
+                    yield false;
+                }
+                trialInFlight = true;
+                yield true;
+            }
+        };
+    }
+
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    /** Vrai si cet échec vient d'ouvrir le disjoncteur. */
+    synchronized boolean onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            trialInFlight = false;
+            return true;
+        }
+        return false;
+    }
+
+    /** Appel autorisé mais finalement pas lancé (cloison pleine) : l'essai reste disponible. */
+    synchronized void onAbandon() {
+        trialInFlight = false;
+    }
+
+    synchronized State state() {
+        return state;
+    }
+}
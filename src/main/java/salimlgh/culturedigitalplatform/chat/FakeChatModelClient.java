@@ -0,0 +1,52 @@
+package salimlgh.culturedigitalplatform.chat;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+/**
+ * Modèle local pour les tests et le développement hors ligne : répond toujours la même chose
+ * à la même question, un mot par token, avec des délais réglables pour simuler la génération.
+ */
+@Component
+@ConditionalOnProperty(name = "chat.model", havingValue = "fake")
+public class FakeChatModelClient implements ChatModelClient {
+
+    private static final String QUESTION_MARKER = "Question de l'utilisateur : ";
+
+    private final Duration latency;
+    private final Duration tokenDelay;
+
+    public FakeChatModelClient(@Value("${chat.model.fake.latency:0ms}") Duration latency,
+                               @Value("${chat.model.fake.token-delay:50ms}") Duration tokenDelay) {
+        this.latency = latency;
+        this.tokenDelay = tokenDelay;
+    }
+
+    @Override
+    public String call(String prompt) {
+        try {
+            Thread.sleep(latency.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Génération interrompue", e);
+        }
+        return answer(prompt);
+    }
+
+    @Override
+    public Flux<String> stream(String prompt) {
+        return Flux.fromArray(answer(prompt).split("(?<= )"))
+                .delaySubscription(latency)
+                .delayElements(tokenDelay);
+    }
+
+    private static String answer(String prompt) {
+        int marker = prompt.lastIndexOf(QUESTION_MARKER);
+        String question = marker < 0 ? prompt : prompt.substring(marker + QUESTION_MARKER.length());
+        return "Réponse de test à la question : " + question.strip();
+    }
+}
@@ -0,0 +1,41 @@
+package salimlgh.culturedigitalplatform.chat;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.ai.chat.ChatClient;
+import org.springframework.ai.chat.ChatResponse;
+import org.springframework.ai.chat.StreamingChatClient;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/** Modèle OpenAI via Spring AI ; le client OpenAI implémente les deux interfaces. */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "chat.model", havingValue = "openai", matchIfMissing = true)
+public class OpenAiChatModelClient implements ChatModelClient {
+
+    private final ChatClient chatClient;
+    private final StreamingChatClient streamingChatClient;
+
+    @Override
+    public String call(String prompt) {
+        return content(chatClient.call(new Prompt(prompt)));
+    }
+
+    @Override
+    public Flux<String> stream(String prompt) {
+        return streamingChatClient.stream(new Prompt(prompt))
+                .map(OpenAiChatModelClient::content)
+                .filter(token -> !token.isEmpty());
+    }
+
+    // Le dernier morceau d'un flux ne porte que la raison de fin, sans contenu
+    private static String content(ChatResponse response) {
+        if (response == null || response.getResult() == null || response.getResult().getOutput() == null) {
+            return "";
+        }
+        String content = response.getResult().getOutput().getContent();
+        return content == null ? "" : content;
+    }
+}
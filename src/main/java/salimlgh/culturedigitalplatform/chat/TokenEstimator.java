@@ -0,0 +1,30 @@
+package salimlgh.culturedigitalplatform.chat;
+
+/**
+ * Estimation du nombre de tokens d'un texte sans tokenizer : environ quatre caractères par
+ * token pour le français et l'anglais avec les encodages GPT, arrondi au-dessus.
+ * Les mots longs ou rares coûtent plus : chaque mot compte pour au moins un token.
+ */
+public final class TokenEstimator {
+
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private TokenEstimator() {
+    }
+
+    public static int estimate(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int words = 0;
+        boolean inWord = false;
+        for (int i = 0; i < text.length(); i++) {
+            boolean letter = Character.isLetterOrDigit(text.charAt(i));
+            if (letter && !inWord) {
+                words++;
+            }
+            inWord = letter;
+        }
+        return Math.max(words, (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN);
+    }
+}
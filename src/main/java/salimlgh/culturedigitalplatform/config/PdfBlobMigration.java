@@ -0,0 +1,101 @@
+package salimlgh.culturedigitalplatform.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import salimlgh.culturedigitalplatform.cache.CatalogCacheEvictor;
+import salimlgh.culturedigitalplatform.service.FileStorageService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Migration des anciens PDF stockés dans la colonne LONGBLOB {@code courses.pdf_content}
+ * vers le FileStorageService. Les cours sont traités par lots, chaque lot dans sa propre
+ * transaction : la colonne est vidée une fois le fichier stocké et la référence enregistrée.
+ * La migration est idempotente et peut être interrompue puis relancée au démarrage suivant.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "storage.pdf.migration.enabled", havingValue = "true", matchIfMissing = true)
+public class PdfBlobMigration implements ApplicationRunner {
+
+    private static final String PENDING = "pdf_content IS NOT NULL AND pdf_blob_ref IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FileStorageService fileStorageService;
+    private final CatalogCacheEvictor catalogCacheEvictor;
+
+    @Value("${storage.pdf.migration.batch-size:20}")
+    private int batchSize;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!hasLegacyColumn()) {
+            return;
+        }
+
+        int migrated = 0;
+        List<Long> batch;
+        while (!(batch = nextBatch()).isEmpty()) {
+            List<Long> ids = batch;
+            transactionTemplate.executeWithoutResult(status -> ids.forEach(this::migrateCourse));
+            migrated += ids.size();
+            log.info("Migration des PDF : {} cours traités", migrated);
+        }
+
+        if (migrated > 0) {
+            // Écritures JDBC : le cache de second niveau ne les a pas vues
+            catalogCacheEvictor.evictAll();
+            log.info("Migration des PDF terminée ({} cours). La colonne courses.pdf_content peut être supprimée.", migrated);
+        }
+    }
+
+    private boolean hasLegacyColumn() {
+        try {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM courses WHERE " + PENDING, Long.class);
+            return true;
+        } catch (DataAccessException e) {
+            // Base créée après le passage au stockage fichier : rien à migrer
+            return false;
+        }
+    }
+
+    private List<Long> nextBatch() {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM courses WHERE " + PENDING + " ORDER BY id LIMIT ?", Long.class, batchSize);
+    }
+
+    private void migrateCourse(Long id) {
+        // Le contenu est lu en flux, un cours à la fois, pour ne pas charger tout le lot en mémoire
+        FileStorageService.StoredFile stored = jdbcTemplate.query("SELECT pdf_content FROM courses WHERE id = ?", rs -> {
+            if (!rs.next()) {
+                return null;
+            }
+            try (InputStream content = rs.getBinaryStream(1)) {
+                return content != null ? fileStorageService.store(content) : null;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Échec de la migration du PDF du cours " + id, e);
+            }
+        }, id);
+
+        if (stored == null) {
+            jdbcTemplate.update("UPDATE courses SET pdf_content = NULL WHERE id = ?", id);
+            return;
+        }
+        jdbcTemplate.update("UPDATE courses SET pdf_blob_ref = ?, pdf_size = ?, pdf_updated_at = ?, pdf_content = NULL WHERE id = ?",
+                stored.ref(), stored.size(), LocalDateTime.now(), id);
+    }
+}
@@ -2,6 +2,7 @@ package salimlgh.culturedigitalplatform.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -16,6 +17,9 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import salimlgh.culturedigitalplatform.pagination.CursorPage;
+import salimlgh.culturedigitalplatform.sql.SqlStatsHeaderAdvice;
+
 import java.util.Arrays;
 import java.util.List;
 
@@ -32,7 +36,8 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/admin/**").permitAll()
-                        .requestMatchers("/api/courses/**", "/api/formations", "/api/formations/**").permitAll()
+                        .requestMatchers("/api/courses/**", "/api/formations", "/api/formations/**", "/api/catalog/**").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
                         .requestMatchers(
                                 "/v3/api-docs/**",
                                 "/swagger-ui/**",
@@ -49,6 +54,8 @@ public class SecurityConfig {
         config.setAllowedOrigins(List.of("http://localhost:4200"));
         config.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         config.setAllowedHeaders(List.of("*"));
+        config.setExposedHeaders(List.of(HttpHeaders.ETAG, CursorPage.NEXT_CURSOR_HEADER, CursorPage.TOTAL_COUNT_HEADER,
+                SqlStatsHeaderAdvice.STATEMENTS_HEADER, SqlStatsHeaderAdvice.TIME_HEADER, SqlStatsHeaderAdvice.REPEATED_HEADER));
         config.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
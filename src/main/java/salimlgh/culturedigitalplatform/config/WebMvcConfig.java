@@ -0,0 +1,21 @@
+package salimlgh.culturedigitalplatform.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import salimlgh.culturedigitalplatform.catalog.CatalogETagInterceptor;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final CatalogETagInterceptor catalogETagInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(catalogETagInterceptor)
+                .addPathPatterns(CatalogETagInterceptor.PATHS)
+                .excludePathPatterns(CatalogETagInterceptor.EXCLUDED_PATHS);
+    }
+}
@@ -1,17 +1,23 @@
 package salimlgh.culturedigitalplatform.controller.Chat;
 
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
 import salimlgh.culturedigitalplatform.dtos.ChatRequest;
 import salimlgh.culturedigitalplatform.dtos.ChatResponse;
 import salimlgh.culturedigitalplatform.service.ChatService;
@@ -29,17 +35,34 @@ public class ChatController {
     @PostMapping
     @Operation(summary = "Poser une question à l'assistant virtuel",
               description = "Envoie une question à l'assistant virtuel qui répondra en se basant sur le contenu des cours disponibles")
-    public ResponseEntity<ChatResponse> askQuestion(@RequestBody ChatRequest request) {
+    public CompletableFuture<ResponseEntity<ChatResponse>> askQuestion(@RequestBody ChatRequest request) {
         log.info("Requête reçue : {}", request.getQuestion());
-        try {
-            ChatResponse response = chatService.ask(request.getQuestion());
-            log.info("Réponse générée avec succès");
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            log.error("Erreur lors du traitement de la requête", e);
-            return ResponseEntity.internalServerError()
-                .body(new ChatResponse(null, null, false, "Erreur lors du traitement de la requête"));
-        }
+        return chatService.ask(request.getQuestion())
+            .thenApply(response -> {
+                log.info("Réponse générée avec succès");
+                return ResponseEntity.ok(response);
+            })
+            .exceptionally(e -> {
+                log.error("Erreur lors du traitement de la requête", e);
+                return ResponseEntity.internalServerError()
+                    .body(new ChatResponse(null, null, false, "Erreur lors du traitement de la requête"));
+            });
+    }
+
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Poser une question en recevant la réponse au fil de l'eau",
+              description = "Server-Sent Events : un événement token par morceau de réponse, puis done (ou error)")
+    public Flux<ServerSentEvent<String>> streamQuestion(@RequestBody ChatRequest request) {
+        log.info("Requête reçue (flux) : {}", request.getQuestion());
+        return toEvents(chatService.stream(request.getQuestion()));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Poser une question en recevant la réponse au fil de l'eau (EventSource)",
+              description = "Variante GET pour EventSource, la question étant passée en paramètre")
+    public Flux<ServerSentEvent<String>> streamQuestion(@RequestParam String question) {
+        log.info("Requête reçue (flux) : {}", question);
+        return toEvents(chatService.stream(question));
     }
 
     @GetMapping("/test")
@@ -47,4 +70,14 @@ public class ChatController {
         log.info("Test endpoint appelé");
         return ResponseEntity.ok("Le serveur fonctionne correctement");
     }
+
+    private static Flux<ServerSentEvent<String>> toEvents(Flux<String> tokens) {
+        return tokens
+                .map(token -> ServerSentEvent.builder(token).event("token").build())
+                .concatWith(Flux.just(ServerSentEvent.builder("").event("done").build()))
+                .onErrorResume(e -> {
+                    log.error("Erreur lors de la diffusion de la réponse", e);
+                    return Flux.just(ServerSentEvent.builder("Erreur lors du traitement de la requête").event("error").build());
+                });
+    }
 }
@@ -0,0 +1,47 @@
+package salimlgh.culturedigitalplatform.controller.admin;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import salimlgh.culturedigitalplatform.cache.CatalogCacheEvictor;
+
+import java.util.Map;
+
+/**
+ * Controller for inspecting the Hibernate second-level and query caches.
+ * Accessible only to users with ADMIN role.
+ */
+@RestController
+@RequestMapping("/api/admin/cache")
+@RequiredArgsConstructor
+@Tag(name = "Admin Cache", description = "APIs for monitoring the catalog cache (admin only)")
+public class AdminCacheController {
+    private final CatalogCacheEvictor catalogCacheEvictor;
+
+    @Operation(summary = "Get cache statistics",
+            description = "Hit, miss and put counts of the second-level cache and the query cache, globally and per region")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully")
+    })
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStatistics() {
+        return ResponseEntity.ok(catalogCacheEvictor.statistics());
+    }
+
+    @Operation(summary = "Clear the cache", description = "Evicts every second-level and query cache region")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Cache cleared")
+    })
+    @DeleteMapping
+    public ResponseEntity<Void> evictAll() {
+        catalogCacheEvictor.evictAll();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -15,11 +15,16 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import salimlgh.culturedigitalplatform.dtos.FormationDTO;
 import salimlgh.culturedigitalplatform.entities.Formation;
+import salimlgh.culturedigitalplatform.fields.FieldProjector;
+import salimlgh.culturedigitalplatform.fields.FieldSelection;
 import salimlgh.culturedigitalplatform.mapper.MapperFormation;
+import salimlgh.culturedigitalplatform.pagination.CursorPage;
 import salimlgh.culturedigitalplatform.service.FormationService;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  * Controller for admin operations on formations.
@@ -34,9 +39,11 @@ import java.util.stream.Collectors;
 public class AdminFormationController {
     private final FormationService formationService;
     private final MapperFormation mapperFormation;
+    private final FieldProjector fieldProjector;
 
     /**
      * Get all formations.
+     * Paginated by keyset (newest first) when {@code cursor} or {@code size} is given.
      * 
      * @return List of all formations
      */
@@ -45,13 +52,25 @@ public class AdminFormationController {
         @ApiResponse(responseCode = "200", description = "Formations retrieved successfully")
     })
     @GetMapping
-    public ResponseEntity<List<FormationDTO>> getAllFormations() {
+    public ResponseEntity<List<Object>> getAllFormations(
+            @Parameter(description = "Opaque cursor returned in the X-Next-Cursor header of the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 100); enables cursor pagination")
+            @RequestParam(required = false) Integer size,
+            @Parameter(description = "Also return the total count in the X-Total-Count header")
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            @Parameter(description = "Comma-separated fields to return, e.g. id,title,imageUrl")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Associations to load and return: courses, courses.quizzes")
+            @RequestParam(required = false) String include) {
+        FieldSelection selection = FieldSelection.parse(fields, include, FieldSelection.FORMATION);
+        if (cursor != null || size != null) {
+            CursorPage<Formation> page = formationService.getFormationsPage(cursor, size, withTotal);
+            return page.map(toDto(page.getItems(), selection)).map(dto -> fieldProjector.project(dto, selection)).toResponseEntity();
+        }
         List<Formation> formations = formationService.findAll();
-        return ResponseEntity.ok(
-                formations.stream()
-                        .map(mapperFormation::toDto)
-                        .collect(Collectors.toList())
-        );
+        return ResponseEntity.ok(fieldProjector.projectAll(
+                formations.stream().map(toDto(formations, selection)).toList(), selection));
     }
 
     /**
@@ -66,12 +85,17 @@ public class AdminFormationController {
         @ApiResponse(responseCode = "404", description = "Formation not found")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<FormationDTO> getFormationById(
+    public ResponseEntity<Object> getFormationById(
             @Parameter(description = "ID of the formation to retrieve", required = true)
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            @Parameter(description = "Comma-separated fields to return, e.g. id,title,imageUrl")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Associations to load and return: courses, courses.quizzes")
+            @RequestParam(required = false) String include) {
+        FieldSelection selection = FieldSelection.parse(fields, include, FieldSelection.FORMATION, "courses", "courses.quizzes");
         try {
-            Formation formation = formationService.getFormationById(id);
-            return ResponseEntity.ok(mapperFormation.toDto(formation));
+            Formation formation = formationService.getFormationById(id, selection.includes("courses"));
+            return ResponseEntity.ok(fieldProjector.project(mapperFormation.toDto(formation, selection, null), selection));
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
@@ -172,4 +196,12 @@ public class AdminFormationController {
             return ResponseEntity.notFound().build();
         }
     }
-}
\ No newline at end of file
+
+    // Same mapping as the user list: only the selected associations and counts are read
+    private Function<Formation, FormationDTO> toDto(Collection<Formation> formations, FieldSelection selection) {
+        boolean countCourses = selection.wants("courseCount") && !selection.includes("courses");
+        Map<Long, Long> counts = countCourses ? formationService.getCourseCounts(formations) : Map.of();
+        return formation -> mapperFormation.toDto(formation, selection,
+                countCourses ? counts.getOrDefault(formation.getId(), 0L) : null);
+    }
+}
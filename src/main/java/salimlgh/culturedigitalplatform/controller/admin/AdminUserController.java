@@ -1,5 +1,6 @@
 package salimlgh.culturedigitalplatform.controller.admin;
 
+import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,10 +13,13 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import lombok.RequiredArgsConstructor;
 import salimlgh.culturedigitalplatform.entities.app_user;
+import salimlgh.culturedigitalplatform.pagination.CursorPage;
+import salimlgh.culturedigitalplatform.pagination.KeysetCursor;
 import salimlgh.culturedigitalplatform.repository.UserRepository;
 
 @RestController
@@ -24,9 +28,23 @@ import salimlgh.culturedigitalplatform.repository.UserRepository;
 public class AdminUserController {
     private final UserRepository userRepository;
 
+    // Pagination par clé (createdAt, id) si cursor ou size est fourni
     @GetMapping
-    public List<app_user> getAllUsers() {
-        return userRepository.findAll();
+    public ResponseEntity<List<app_user>> getAllUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        if (cursor == null && size == null) {
+            return ResponseEntity.ok(userRepository.findAll());
+        }
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        int pageSize = KeysetCursor.pageSize(size);
+        List<app_user> fetched = position.fetch(pageSize + 1,
+                (createdAt, id, limit) -> userRepository.findAllAfter(Timestamp.valueOf(createdAt), id, limit),
+                userRepository::findAllUndatedAfter);
+        Long total = withTotal ? userRepository.count() : null;
+        return CursorPage.of(fetched, pageSize, u -> KeysetCursor.encode(u.getCreatedAt(), u.getId()), total)
+                .toResponseEntity();
     }
 
     @GetMapping("/{id}")
@@ -22,9 +22,16 @@ import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import salimlgh.culturedigitalplatform.dtos.CourseDTO;
+import salimlgh.culturedigitalplatform.dtos.CoursePdfDTO;
+import salimlgh.culturedigitalplatform.fields.FieldProjector;
+import salimlgh.culturedigitalplatform.fields.FieldSelection;
+import salimlgh.culturedigitalplatform.pagination.SearchPage;
 import salimlgh.culturedigitalplatform.service.CourseService;
+import salimlgh.culturedigitalplatform.service.PdfStreamingService;
 
 @RestController
 @RequestMapping("/api/admin/courses")
@@ -32,6 +39,8 @@ import salimlgh.culturedigitalplatform.service.CourseService;
 public class CourseController {
 
     private final CourseService courseService;
+    private final PdfStreamingService pdfStreamingService;
+    private final FieldProjector fieldProjector;
 
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -65,17 +74,23 @@ public class CourseController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdCourse);
     }
 
+    // fields= / include=quizzes : les quiz ne sont lus que s'ils sont demandés
     @GetMapping("/{id}")
-    public ResponseEntity<CourseDTO> getCourseById(
-            @PathVariable Long id) {
-        CourseDTO course = courseService.getActiveCourseById(id);
-        return ResponseEntity.ok(course);
+    public ResponseEntity<Object> getCourseById(
+            @PathVariable Long id,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String include) {
+        FieldSelection selection = FieldSelection.parse(fields, include, FieldSelection.COURSE, "quizzes");
+        CourseDTO course = courseService.getActiveCourseById(id, selection.includes("quizzes"));
+        return ResponseEntity.ok(fieldProjector.project(course, selection));
     }
 
     @GetMapping
-    public ResponseEntity<List<CourseDTO>> getAllActiveCourses() {
-        List<CourseDTO> courses = courseService.getAllActiveCourses();
-        return ResponseEntity.ok(courses);
+    public ResponseEntity<List<Object>> getAllActiveCourses(
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String include) {
+        FieldSelection selection = FieldSelection.parse(fields, include, FieldSelection.COURSE);
+        return ResponseEntity.ok(view(courseService.getAllActiveCourses(), selection));
     }
 
     @GetMapping("/paginated")
@@ -145,19 +160,25 @@ public class CourseController {
     }
 
     @GetMapping("/{id}/pdf")
-    public ResponseEntity<byte[]> getCoursePdf(
-            @PathVariable Long id) {
-        byte[] pdfContent = courseService.getCoursePdf(id);
-        return ResponseEntity.ok()
-                .header("Content-Type", "application/pdf")
-                .body(pdfContent);
+    public void getCoursePdf(
+            @PathVariable Long id,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        CoursePdfDTO pdf = courseService.getCoursePdf(id);
+        pdfStreamingService.stream(pdf, request, response);
     }
 
+    // Classée par pertinence, page par page (taille max SearchPage.MAX_SIZE) ; total dans X-Total-Count
     @GetMapping("/search")
-    public ResponseEntity<List<CourseDTO>> searchCourses(
-            @RequestParam String keyword) {
-        List<CourseDTO> results = courseService.searchActiveCourses(keyword);
-        return ResponseEntity.ok(results);
+    public ResponseEntity<List<Object>> searchCourses(
+            @RequestParam String keyword,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String include) {
+        FieldSelection selection = FieldSelection.parse(fields, include, FieldSelection.COURSE);
+        SearchPage<CourseDTO> results = courseService.searchActiveCourses(keyword, page, size);
+        return new SearchPage<>(view(results.getItems(), selection), results.getTotal()).toResponseEntity();
     }
 
     @GetMapping("/advanced-search")
@@ -170,4 +191,11 @@ public class CourseController {
                 formationId, status, keyword, pageable);
         return ResponseEntity.ok(results);
     }
+
+    private List<Object> view(List<CourseDTO> courses, FieldSelection selection) {
+        if (selection.includes("quizzes")) {
+            courseService.attachQuizzes(courses);
+        }
+        return fieldProjector.projectAll(courses, selection);
+    }
 }
@@ -0,0 +1,44 @@
+package salimlgh.culturedigitalplatform.controller.user;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import salimlgh.culturedigitalplatform.search.CatalogSuggestIndex;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/catalog")
+@RequiredArgsConstructor
+@Tag(name = "Catalog", description = "APIs spanning published courses and formations")
+public class UserCatalogController {
+    private static final int MAX_SUGGESTIONS = 20;
+
+    private final CatalogSuggestIndex catalogSuggestIndex;
+
+    @Operation(summary = "Autocomplete catalog entries",
+            description = "Returns course titles, formation titles, categories and tags with a word starting with the prefix, most relevant first. Served from memory")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Suggestions retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid limit")
+    })
+    @GetMapping("/suggest")
+    public ResponseEntity<List<String>> suggest(
+            @Parameter(description = "Beginning of a word, accent- and case-insensitive", required = true)
+            @RequestParam String prefix,
+            @Parameter(description = "Maximum number of suggestions (1-20)")
+            @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException("limit doit être compris entre 1 et " + MAX_SUGGESTIONS);
+        }
+        return ResponseEntity.ok(catalogSuggestIndex.suggest(prefix, limit));
+    }
+}
@@ -5,32 +5,70 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import salimlgh.culturedigitalplatform.dtos.CourseDTO;
+import org.springframework.web.server.ResponseStatusException;
+import salimlgh.culturedigitalplatform.catalog.CatalogCourse;
+import salimlgh.culturedigitalplatform.catalog.CatalogSnapshot;
+import salimlgh.culturedigitalplatform.catalog.CatalogSnapshotStore;
+import salimlgh.culturedigitalplatform.dtos.CoursePdfDTO;
 
+import salimlgh.culturedigitalplatform.fields.FieldProjector;
+import salimlgh.culturedigitalplatform.fields.FieldSelection;
+import salimlgh.culturedigitalplatform.mapper.MapperCourse;
+import salimlgh.culturedigitalplatform.pagination.CursorPage;
+import salimlgh.culturedigitalplatform.pagination.SearchPage;
+import salimlgh.culturedigitalplatform.search.CatalogSearchIndex;
 import salimlgh.culturedigitalplatform.service.CourseService;
+import salimlgh.culturedigitalplatform.service.PdfStreamingService;
 
+import java.io.IOException;
 import java.util.List;
 
+/**
+ * Endpoints publics des cours actifs, servis par le snapshot du catalogue en mémoire :
+ * ni verrou ni requête SQL, y compris pour les métadonnées du PDF.
+ */
 @RestController
 @RequestMapping("/api/courses")
 @RequiredArgsConstructor
 @Tag(name = "Course Access", description = "APIs for accessing published courses")
 public class UserCourseController {
+    private final CatalogSnapshotStore catalogSnapshotStore;
+    private final CatalogSearchIndex catalogSearchIndex;
     private final CourseService courseService;
+    private final PdfStreamingService pdfStreamingService;
+    private final MapperCourse mapperCourse;
+    private final FieldProjector fieldProjector;
 
-    @Operation(summary = "Get all published courses", description = "Retrieves all courses that are marked as published")
+    @Operation(summary = "Get all published courses", description = "Retrieves all courses that are marked as published, newest first when paginated with cursor/size")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Courses retrieved successfully")
     })
     @GetMapping("")
-    public ResponseEntity<List<CourseDTO>> getAllPublishedCourses() {
-        return ResponseEntity.ok(courseService.getAllActiveCourses());
+    public ResponseEntity<List<Object>> getAllPublishedCourses(
+            @Parameter(description = "Opaque cursor returned in the X-Next-Cursor header of the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 100); enables cursor pagination")
+            @RequestParam(required = false) Integer size,
+            @Parameter(description = "Also return the total count in the X-Total-Count header")
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            @Parameter(description = "Comma-separated fields to return, e.g. id,title,hasPdf")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Associations to load and return: quizzes")
+            @RequestParam(required = false) String include) {
+        FieldSelection selection = FieldSelection.parse(fields, include, FieldSelection.COURSE);
+        CatalogSnapshot snapshot = catalogSnapshotStore.snapshot();
+        if (cursor == null && size == null) {
+            return ResponseEntity.ok(view(snapshot.courses(), selection));
+        }
+        CursorPage<CatalogCourse> page = snapshot.latestCoursesPage(cursor, size, withTotal);
+        return new CursorPage<>(view(page.getItems(), selection), page.getNextCursor(), page.getTotal()).toResponseEntity();
     }
 
     @Operation(summary = "Get a published course by ID", description = "Retrieves a specific published course by its ID")
@@ -40,26 +78,44 @@ public class UserCourseController {
             @ApiResponse(responseCode = "404", description = "Course not found")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<CourseDTO> getPublishedCourse(
+    public ResponseEntity<Object> getPublishedCourse(
             @Parameter(description = "ID of the course to retrieve", required = true)
-            @PathVariable Long id) throws Exception {
-        CourseDTO course = courseService.getActiveCourseById(id);
-        if (!"active".equals(course.getStatus())) {
-            return ResponseEntity.status(403).build();
-        }
-        return ResponseEntity.ok(course);
+            @PathVariable Long id,
+            @Parameter(description = "Comma-separated fields to return, e.g. id,title,hasPdf")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Associations to load and return: quizzes")
+            @RequestParam(required = false) String include) {
+        FieldSelection selection = FieldSelection.parse(fields, include, FieldSelection.COURSE, "quizzes");
+        CatalogCourse course = activeCourse(catalogSnapshotStore.snapshot(), id);
+        return ResponseEntity.ok(fieldProjector.project(mapperCourse.toDto(course, selection.includes("quizzes")), selection));
     }
 
-    @Operation(summary = "Search published courses", description = "Searches for published courses matching the provided keyword")
+    @Operation(summary = "Search published courses", description = "Searches for published courses matching the provided keyword, most relevant first, one page at a time; the total number of matches is returned in the X-Total-Count header")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Search completed successfully")
     })
     @GetMapping("/search")
-    public ResponseEntity<List<CourseDTO>> searchPublishedCourses(
+    public ResponseEntity<List<Object>> searchPublishedCourses(
             @Parameter(description = "Keyword to search for in courses", required = true)
-            @RequestParam String keyword) {
-        List<CourseDTO> results = courseService.searchActiveCourses(keyword);
-        return ResponseEntity.ok(results);
+            @RequestParam String keyword,
+            @Parameter(description = "Tolerate typos (accent- and case-insensitive in every mode)")
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            @Parameter(description = "Page number, starting at 0")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size (default and max 100)")
+            @RequestParam(required = false) Integer size,
+            @Parameter(description = "Comma-separated fields to return, e.g. id,title,hasPdf")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Associations to load and return: quizzes")
+            @RequestParam(required = false) String include) {
+        FieldSelection selection = FieldSelection.parse(fields, include, FieldSelection.COURSE);
+        CatalogSnapshot snapshot = catalogSnapshotStore.snapshot();
+        if (keyword.isBlank()) {
+            SearchPage<CatalogCourse> results = SearchPage.slice(snapshot.courses(), page, size);
+            return new SearchPage<>(view(results.getItems(), selection), results.getTotal()).toResponseEntity();
+        }
+        SearchPage<Long> ids = catalogSearchIndex.searchCourses(keyword, fuzzy, page, size);
+        return new SearchPage<>(view(snapshot.courses(ids.getItems()), selection), ids.getTotal()).toResponseEntity();
     }
 
     @Operation(summary = "Get published courses by formation", description = "Retrieves all published courses associated with a specific formation")
@@ -68,36 +124,53 @@ public class UserCourseController {
             @ApiResponse(responseCode = "404", description = "Formation not found")
     })
     @GetMapping("/formation/{formationId}")
-    public ResponseEntity<List<CourseDTO>> getPublishedCoursesByFormation(
+    public ResponseEntity<List<Object>> getPublishedCoursesByFormation(
             @Parameter(description = "ID of the formation to get courses for", required = true)
-            @PathVariable Long formationId) {
-        List<CourseDTO> courses = courseService.getCoursesByFormationId(formationId).stream()
-                .filter(CourseDTO::isActive)
-                .toList();
-        return ResponseEntity.ok(courses);
+            @PathVariable Long formationId,
+            @Parameter(description = "Comma-separated fields to return, e.g. id,title,hasPdf")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Associations to load and return: quizzes")
+            @RequestParam(required = false) String include) {
+        FieldSelection selection = FieldSelection.parse(fields, include, FieldSelection.COURSE, "quizzes");
+        CatalogSnapshot snapshot = catalogSnapshotStore.snapshot();
+        if (!snapshot.formationExists(formationId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Formation not found");
+        }
+        return ResponseEntity.ok(view(snapshot.coursesOf(formationId), selection));
     }
 
-    @Operation(summary = "Download PDF for a published course", description = "Downloads the PDF file for the specified published course")
+    @Operation(summary = "Download PDF for a published course", description = "Streams the PDF file for the specified published course (supports Range / If-Range)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "PDF downloaded successfully"),
-            @ApiResponse(responseCode = "403", description = "Course not available or not published"),
-            @ApiResponse(responseCode = "404", description = "Course or PDF not found")
+            @ApiResponse(responseCode = "206", description = "Requested byte range of the PDF"),
+            @ApiResponse(responseCode = "404", description = "Course or PDF not found"),
+            @ApiResponse(responseCode = "416", description = "Requested range not satisfiable")
     })
     @GetMapping("/{id}/pdf")
-    public ResponseEntity<byte[]> downloadPdf(
+    public void downloadPdf(
             @Parameter(description = "ID of the course to download PDF for", required = true)
-            @PathVariable Long id) throws Exception {
-        CourseDTO course = courseService.getActiveCourseById(id);
-        if (!"active".equals(course.getStatus())) {
-            return ResponseEntity.status(403).build();
-        }
+            @PathVariable Long id,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        CoursePdfDTO pdf = courseService.getCoursePdf(activeCourse(catalogSnapshotStore.snapshot(), id));
+
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + pdf.getCourseTitle() + ".pdf\"");
+        pdfStreamingService.stream(pdf, request, response);
+    }
 
-        byte[] resource = courseService.getCoursePdf(id);
+    // Le snapshot ne contient que les cours actifs
+    private static CatalogCourse activeCourse(CatalogSnapshot snapshot, Long id) {
+        CatalogCourse course = snapshot.course(id);
+        if (course == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Active course not found");
+        }
+        return course;
+    }
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=\"" + course.getTitle() + ".pdf\"")
-                .contentType(MediaType.APPLICATION_PDF)
-                .body(resource);
+    // Les quiz sont déjà en mémoire ; ils ne sont renvoyés que s'ils sont demandés
+    private List<Object> view(List<CatalogCourse> courses, FieldSelection selection) {
+        boolean withQuizzes = selection.includes("quizzes");
+        return fieldProjector.projectAll(courses.stream().map(course -> mapperCourse.toDto(course, withQuizzes)).toList(), selection);
     }
 }
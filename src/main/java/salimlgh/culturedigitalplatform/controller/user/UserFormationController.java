@@ -9,17 +9,28 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import salimlgh.culturedigitalplatform.catalog.CatalogFormation;
+import salimlgh.culturedigitalplatform.catalog.CatalogSnapshot;
+import salimlgh.culturedigitalplatform.catalog.CatalogSnapshotStore;
 import salimlgh.culturedigitalplatform.dtos.FormationDTO;
-import salimlgh.culturedigitalplatform.entities.Formation;
+import salimlgh.culturedigitalplatform.entities.DifficultyLevel;
+import salimlgh.culturedigitalplatform.fields.FieldProjector;
+import salimlgh.culturedigitalplatform.fields.FieldSelection;
 import salimlgh.culturedigitalplatform.mapper.MapperFormation;
+import salimlgh.culturedigitalplatform.pagination.CursorPage;
+import salimlgh.culturedigitalplatform.pagination.SearchPage;
+import salimlgh.culturedigitalplatform.search.CatalogSearchIndex;
+import salimlgh.culturedigitalplatform.search.FacetedResult;
 import salimlgh.culturedigitalplatform.service.FormationService;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.function.Function;
 
 /**
  * Controller for user operations on formations.
  * Provides endpoints for viewing published formations.
+ * Every endpoint is served from the in-memory catalog snapshot: no locking and no SQL.
  * Accessible to all users.
  */
 @Slf4j
@@ -28,11 +39,15 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Tag(name = "Formation Access", description = "APIs for accessing published formations")
 public class UserFormationController {
+    private final CatalogSnapshotStore catalogSnapshotStore;
+    private final CatalogSearchIndex catalogSearchIndex;
     private final FormationService formationService;
     private final MapperFormation mapperFormation;
+    private final FieldProjector fieldProjector;
 
     /**
      * Get all published formations.
+     * Paginated by keyset when {@code cursor} or {@code size} is given.
      * 
      * @return List of published formations
      */
@@ -41,14 +56,23 @@ public class UserFormationController {
         @ApiResponse(responseCode = "200", description = "Formations retrieved successfully")
     })
     @GetMapping
-    public ResponseEntity<List<FormationDTO>> getAllPublishedFormations() {
-        List<Formation> formations = formationService.getAllFormations();
-        System.out.println("formations: " + formations.size() );
-        return ResponseEntity.ok(
-                formations.stream()
-                        .map(mapperFormation::toDto)
-                        .collect(Collectors.toList())
-        );
+    public ResponseEntity<List<Object>> getAllPublishedFormations(
+            @Parameter(description = "Opaque cursor returned in the X-Next-Cursor header of the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 100); enables cursor pagination")
+            @RequestParam(required = false) Integer size,
+            @Parameter(description = "Also return the total count in the X-Total-Count header")
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            @Parameter(description = "Comma-separated fields to return, e.g. id,title,imageUrl")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Associations to load and return: courses, courses.quizzes")
+            @RequestParam(required = false) String include) {
+        FieldSelection selection = FieldSelection.parse(fields, include, FieldSelection.FORMATION);
+        CatalogSnapshot snapshot = catalogSnapshotStore.snapshot();
+        if (cursor != null || size != null) {
+            return page(snapshot, snapshot.latestFormationsPage(cursor, size, withTotal), selection);
+        }
+        return ResponseEntity.ok(view(snapshot, snapshot.latestFormations(), selection));
     }
 
     /**
@@ -64,37 +88,102 @@ public class UserFormationController {
         @ApiResponse(responseCode = "404", description = "Formation not found")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<FormationDTO> getPublishedFormation(
+    public ResponseEntity<Object> getPublishedFormation(
             @Parameter(description = "ID of the formation to retrieve", required = true)
-            @PathVariable Long id) {
-        try {
-            Formation formation = formationService.getPublishedFormationById(id);
-            return ResponseEntity.ok(mapperFormation.toDto(formation));
-        } catch (Exception e) {
+            @PathVariable Long id,
+            @Parameter(description = "Comma-separated fields to return, e.g. id,title,imageUrl")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Associations to load and return: courses, courses.quizzes")
+            @RequestParam(required = false) String include) {
+        FieldSelection selection = FieldSelection.parse(fields, include, FieldSelection.FORMATION, "courses", "courses.quizzes");
+        CatalogSnapshot snapshot = catalogSnapshotStore.snapshot();
+        CatalogFormation formation = snapshot.formation(id);
+        if (formation == null) {
             return ResponseEntity.notFound().build();
         }
+        return ResponseEntity.ok(fieldProjector.project(toDto(snapshot, selection).apply(formation), selection));
     }
 
     /**
      * Search for published formations.
      * 
      * @param keyword The search term
-     * @return List of published formations matching the search criteria
+     * @param fuzzy Whether to tolerate typos
+     * @param page Page number, starting at 0
+     * @param size Page size, at most {@link SearchPage#MAX_SIZE}
+     * @return One page of the published formations matching the search criteria, most relevant first
      */
-    @Operation(summary = "Search published formations", description = "Searches for published formations matching the provided keyword")
+    @Operation(summary = "Search published formations", description = "Searches for published formations matching the provided keyword, most relevant first, one page at a time; the total number of matches is returned in the X-Total-Count header")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Search completed successfully")
     })
     @GetMapping("/search")
-    public ResponseEntity<List<FormationDTO>> searchPublishedFormations(
+    public ResponseEntity<List<Object>> searchPublishedFormations(
             @Parameter(description = "Keyword to search for in formations", required = true)
-            @RequestParam String keyword) {
-        List<Formation> formations = formationService.searchPublishedFormations(keyword);
-        return ResponseEntity.ok(
-                formations.stream()
-                        .map(mapperFormation::toDto)
-                        .collect(Collectors.toList())
-        );
+            @RequestParam String keyword,
+            @Parameter(description = "Tolerate typos (accent- and case-insensitive in every mode)")
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            @Parameter(description = "Page number, starting at 0")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size (default and max 100)")
+            @RequestParam(required = false) Integer size,
+            @Parameter(description = "Comma-separated fields to return, e.g. id,title,imageUrl")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Associations to load and return: courses, courses.quizzes")
+            @RequestParam(required = false) String include) {
+        FieldSelection selection = FieldSelection.parse(fields, include, FieldSelection.FORMATION);
+        CatalogSnapshot snapshot = catalogSnapshotStore.snapshot();
+        if (keyword.isBlank()) {
+            SearchPage<CatalogFormation> results = SearchPage.slice(snapshot.formations(), page, size);
+            return new SearchPage<>(view(snapshot, results.getItems(), selection), results.getTotal()).toResponseEntity();
+        }
+        SearchPage<Long> ids = catalogSearchIndex.searchFormations(keyword, fuzzy, page, size);
+        return new SearchPage<>(view(snapshot, snapshot.formations(ids.getItems()), selection), ids.getTotal()).toResponseEntity();
+    }
+
+    /**
+     * Faceted search over published formations.
+     * Values of one facet are OR-ed, facets are AND-ed; each facet's counts ignore its own filter.
+     * 
+     * @param keyword Optional full-text filter
+     * @param fuzzy Whether to tolerate typos in the keyword
+     * @param difficulty Difficulty levels to keep
+     * @param category Categories to keep
+     * @param tag Tags to keep
+     * @param withResults Whether to return the formations or only the counts
+     * @return Matching formations (with a keyword, the most relevant 100), their total number and per-facet counts over all matches
+     */
+    @Operation(summary = "Faceted search of published formations", description = "Returns the matching published formations with counts per difficulty, category and tag, computed in memory")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Search completed successfully"),
+        @ApiResponse(responseCode = "400", description = "Unknown difficulty level")
+    })
+    @GetMapping("/facets")
+    public ResponseEntity<FacetedResult<FormationDTO>> facetedSearch(
+            @Parameter(description = "Optional keyword to search for in formations")
+            @RequestParam(required = false) String keyword,
+            @Parameter(description = "Tolerate typos in the keyword")
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            @Parameter(description = "Difficulty levels to keep (repeatable)")
+            @RequestParam(required = false) Set<String> difficulty,
+            @Parameter(description = "Categories to keep (repeatable)")
+            @RequestParam(required = false) Set<String> category,
+            @Parameter(description = "Tags to keep (repeatable)")
+            @RequestParam(required = false) Set<String> tag,
+            @Parameter(description = "Return the formations; false returns the counts only")
+            @RequestParam(defaultValue = "true") boolean withResults) {
+        FacetedResult<Long> result = formationService.facetedSearchPublishedFormationIds(keyword, fuzzy,
+                orEmpty(difficulty), orEmpty(category), orEmpty(tag));
+        if (!withResults) {
+            return ResponseEntity.ok(new FacetedResult<>(null, result.total(), result.facets()));
+        }
+        CatalogSnapshot snapshot = catalogSnapshotStore.snapshot();
+        List<CatalogFormation> formations = keyword == null || keyword.isBlank()
+                ? snapshot.latestFormationsAmong(result.items())
+                : snapshot.formations(result.items());
+        FieldSelection selection = FieldSelection.parse(null, null, FieldSelection.FORMATION);
+        return ResponseEntity.ok(new FacetedResult<>(formations.stream().map(toDto(snapshot, selection)).toList(),
+                result.total(), result.facets()));
     }
 
     /**
@@ -108,15 +197,16 @@ public class UserFormationController {
         @ApiResponse(responseCode = "200", description = "Formations retrieved successfully")
     })
     @GetMapping("/difficulty/{difficulty}")
-    public ResponseEntity<List<FormationDTO>> getPublishedFormationsByDifficulty(
+    public ResponseEntity<List<Object>> getPublishedFormationsByDifficulty(
             @Parameter(description = "Difficulty level to filter by", required = true)
-            @PathVariable String difficulty) {
-        List<Formation> formations = formationService.getPublishedFormationsByDifficulty(difficulty);
-        return ResponseEntity.ok(
-                formations.stream()
-                        .map(mapperFormation::toDto)
-                        .collect(Collectors.toList())
-        );
+            @PathVariable String difficulty,
+            @Parameter(description = "Comma-separated fields to return, e.g. id,title,imageUrl")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Associations to load and return: courses, courses.quizzes")
+            @RequestParam(required = false) String include) {
+        FieldSelection selection = FieldSelection.parse(fields, include, FieldSelection.FORMATION);
+        CatalogSnapshot snapshot = catalogSnapshotStore.snapshot();
+        return ResponseEntity.ok(view(snapshot, snapshot.formationsByDifficulty(DifficultyLevel.valueOf(difficulty)), selection));
     }
 
     /**
@@ -130,19 +220,21 @@ public class UserFormationController {
         @ApiResponse(responseCode = "200", description = "Formations retrieved successfully")
     })
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<FormationDTO>> getPublishedFormationsByCategory(
+    public ResponseEntity<List<Object>> getPublishedFormationsByCategory(
             @Parameter(description = "Category to filter by", required = true)
-            @PathVariable String category) {
-        List<Formation> formations = formationService.getPublishedFormationsByCategory(category);
-        return ResponseEntity.ok(
-                formations.stream()
-                        .map(mapperFormation::toDto)
-                        .collect(Collectors.toList())
-        );
+            @PathVariable String category,
+            @Parameter(description = "Comma-separated fields to return, e.g. id,title,imageUrl")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Associations to load and return: courses, courses.quizzes")
+            @RequestParam(required = false) String include) {
+        FieldSelection selection = FieldSelection.parse(fields, include, FieldSelection.FORMATION);
+        CatalogSnapshot snapshot = catalogSnapshotStore.snapshot();
+        return ResponseEntity.ok(view(snapshot, snapshot.formationsByCategory(category), selection));
     }
 
     /**
      * Get latest published formations.
+     * Paginated by keyset when {@code cursor} or {@code size} is given.
      * 
      * @return List of published formations ordered by creation date (newest first)
      */
@@ -151,12 +243,39 @@ public class UserFormationController {
         @ApiResponse(responseCode = "200", description = "Formations retrieved successfully")
     })
     @GetMapping("/latest")
-    public ResponseEntity<List<FormationDTO>> getLatestPublishedFormations() {
-        List<Formation> formations = formationService.getPublishedFormationsOrderByCreatedAtDesc();
-        return ResponseEntity.ok(
-                formations.stream()
-                        .map(mapperFormation::toDto)
-                        .collect(Collectors.toList())
-        );
+    public ResponseEntity<List<Object>> getLatestPublishedFormations(
+            @Parameter(description = "Opaque cursor returned in the X-Next-Cursor header of the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 100); enables cursor pagination")
+            @RequestParam(required = false) Integer size,
+            @Parameter(description = "Also return the total count in the X-Total-Count header")
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            @Parameter(description = "Comma-separated fields to return, e.g. id,title,imageUrl")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Associations to load and return: courses, courses.quizzes")
+            @RequestParam(required = false) String include) {
+        FieldSelection selection = FieldSelection.parse(fields, include, FieldSelection.FORMATION);
+        CatalogSnapshot snapshot = catalogSnapshotStore.snapshot();
+        if (cursor != null || size != null) {
+            return page(snapshot, snapshot.latestFormationsPage(cursor, size, withTotal), selection);
+        }
+        return ResponseEntity.ok(view(snapshot, snapshot.latestFormations(), selection));
+    }
+
+    private static Set<String> orEmpty(Set<String> values) {
+        return values == null ? Set.of() : values;
+    }
+
+    // Courses and course counts come from the same snapshot as the formations
+    private Function<CatalogFormation, FormationDTO> toDto(CatalogSnapshot snapshot, FieldSelection selection) {
+        return formation -> mapperFormation.toDto(formation, snapshot.coursesOf(formation.id()), selection);
+    }
+
+    private List<Object> view(CatalogSnapshot snapshot, List<CatalogFormation> formations, FieldSelection selection) {
+        return fieldProjector.projectAll(formations.stream().map(toDto(snapshot, selection)).toList(), selection);
+    }
+
+    private ResponseEntity<List<Object>> page(CatalogSnapshot snapshot, CursorPage<CatalogFormation> page, FieldSelection selection) {
+        return page.map(toDto(snapshot, selection)).map(dto -> fieldProjector.project(dto, selection)).toResponseEntity();
     }
-}
\ No newline at end of file
+}
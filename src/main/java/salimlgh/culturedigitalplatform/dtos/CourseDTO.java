@@ -45,6 +45,8 @@ public class CourseDTO {
 
     // Pour la réponse
     private String pdfContentType;
+    private Long pdfSize;
+    private Boolean hasPdf;
     private String pdfUrl;
 
     @URL(message = "Le lien YouTube doit être une URL valide")
@@ -58,6 +60,6 @@ public class CourseDTO {
     }
 
     public boolean hasPdf() {
-        return this.pdfUrl != null || this.pdfFile != null;
+        return Boolean.TRUE.equals(this.hasPdf) || this.pdfFile != null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package salimlgh.culturedigitalplatform.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Métadonnées d'un PDF de cours : le contenu reste dans le stockage et n'est ouvert
+ * qu'au moment de l'écriture de la réponse (jamais pour une réponse 304).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoursePdfDTO {
+    private Long courseId;
+    private String courseTitle;
+    private String blobRef;
+    private long size;
+    private String contentType;
+    private Instant lastModified;
+
+    // ETag fort : le PDF est adressé par son empreinte SHA-256
+    public String getETag() {
+        return blobRef != null ? "\"" + blobRef + "\"" : null;
+    }
+}
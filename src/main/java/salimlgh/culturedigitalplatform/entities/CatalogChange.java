@@ -0,0 +1,41 @@
+package salimlgh.culturedigitalplatform.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import salimlgh.culturedigitalplatform.event.CatalogChangeEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ligne du journal des écritures sur le catalogue, insérée dans la transaction de l'écriture.
+ * Chaque nœud relit le journal pour invalider ses caches locaux (voir CatalogChangeLog).
+ */
+@Entity
+@Table(name = "catalog_change_log", indexes = @Index(name = "idx_catalog_change_created", columnList = "created_at"))
+@Getter @Setter
+@NoArgsConstructor
+public class CatalogChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 16)
+    private CatalogChangeEvent.EntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    // Nœud qui a fait l'écriture : il a déjà mis ses caches à jour
+    @Column(name = "origin_node", nullable = false, length = 64)
+    private String originNode;
+
+    // Version du catalogue produite par l'écriture ; absente sur les lignes d'avant son ajout
+    @Column(name = "catalog_version")
+    private Long catalogVersion;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,27 @@
+package salimlgh.culturedigitalplatform.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Version du catalogue partagée par tous les nœuds : une seule ligne, incrémentée dans la
+ * transaction de chaque écriture sur le catalogue (voir CatalogVersionCounter).
+ */
+@Entity
+@Table(name = "catalog_version")
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogVersion {
+
+    public static final long ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private long version;
+}
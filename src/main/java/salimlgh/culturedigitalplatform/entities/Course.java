@@ -5,6 +5,9 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -12,11 +15,13 @@ import java.util.Collections;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "courses")
+@Table(name = "courses", indexes = @Index(name = "idx_courses_status_created", columnList = "status, created_at, id"))
 public class Course {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -44,9 +49,15 @@ public class Course {
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
-    @Lob
-    @Column(name = "pdf_content", columnDefinition = "LONGBLOB")
-    private byte[] pdfContent;
+    // Empreinte SHA-256 du PDF dans le FileStorageService (le contenu n'est plus stocké en base)
+    @Column(name = "pdf_blob_ref", length = 64)
+    private String pdfBlobRef;
+
+    @Column(name = "pdf_size")
+    private Long pdfSize;
+
+    @Column(name = "pdf_updated_at")
+    private LocalDateTime pdfUpdatedAt;
 
     @Column(name = "pdf_content_type")
     private String pdfContentType;
@@ -55,12 +66,14 @@ public class Course {
     private String youtubeLink;
 
     @OneToMany(mappedBy = "course", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JsonIgnore // Évite les boucles infinies en JSON
     private List<Quiz> quizzes = new ArrayList<>();
 
     // Méthodes utilitaires
     public boolean hasPdf() {
-        return pdfContent != null && pdfContent.length > 0;
+        return pdfBlobRef != null;
     }
 
     public boolean hasVideo() {
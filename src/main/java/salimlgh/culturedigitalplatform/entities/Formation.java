@@ -10,12 +10,22 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 // Formation.java
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(indexes = @Index(name = "idx_formation_created", columnList = "created_at, id"))
+@NamedEntityGraph(name = Formation.WITH_COURSES, attributeNodes = @NamedAttributeNode("courses"))
 @Getter @Setter
 @NoArgsConstructor
 public class Formation {
+    // Plan de chargement des pages de détail : la formation et ses cours en une requête
+    public static final String WITH_COURSES = "Formation.withCourses";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -45,11 +55,16 @@ public class Formation {
     @Column(name = "published")
     private boolean published = false;
 
-    @OneToMany(mappedBy = "formation", cascade = CascadeType.ALL, orphanRemoval = true,fetch = FetchType.EAGER)
+    // Chargés à la demande, par lots pour les listes (voir aussi WITH_COURSES)
+    @OneToMany(mappedBy = "formation", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JsonIgnore
     private List<Course> courses = new ArrayList<>();
 
     @ElementCollection
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @CollectionTable(name = "formation_tags", joinColumns = @JoinColumn(name = "formation_id"))
     @Column(name = "tag")
     private List<String> tags = new ArrayList<>();
@@ -8,7 +8,12 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter @Setter
 @NoArgsConstructor
 public class Quiz {
@@ -24,6 +29,8 @@ public class Quiz {
     private Course course;
 
     @ElementCollection(fetch = FetchType.EAGER) // Force le chargement immédiat
+    @BatchSize(size = 50) // ... mais pour 50 quiz à la fois
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @CollectionTable(name = "quiz_answers", joinColumns = @JoinColumn(name = "quiz_id"))
     @Column(name = "answer")
     private List<String> answers = new ArrayList<>();
@@ -0,0 +1,50 @@
+package salimlgh.culturedigitalplatform.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Publié par les services d'administration à chaque écriture sur le catalogue.
+ * Les écouteurs (index de recherche, caches...) rechargent l'entité par son id :
+ * une entité introuvable signifie qu'elle a été supprimée.
+ * Une écriture faite sur un autre nœud est republiée localement par {@link CatalogChangeLog}
+ * avec {@code remote = true}.
+ * {@code version} est la version du catalogue produite par l'écriture : fixée avant le commit
+ * par {@code CatalogVersionCounter} pour une écriture locale, lue dans le journal pour une
+ * écriture distante, 0 si elle est inconnue.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class CatalogChangeEvent {
+
+    public enum EntityType {
+        FORMATION,
+        COURSE,
+        QUIZ
+    }
+
+    private final EntityType entityType;
+    private final Long entityId;
+    private final boolean remote;
+    @Setter
+    private long version;
+
+    public static CatalogChangeEvent formation(Long id) {
+        return new CatalogChangeEvent(EntityType.FORMATION, id, false, 0);
+    }
+
+    public static CatalogChangeEvent course(Long id) {
+        return new CatalogChangeEvent(EntityType.COURSE, id, false, 0);
+    }
+
+    public static CatalogChangeEvent quiz(Long id) {
+        return new CatalogChangeEvent(EntityType.QUIZ, id, false, 0);
+    }
+
+    public static CatalogChangeEvent remote(EntityType entityType, Long id, long version) {
+        return new CatalogChangeEvent(entityType, id, true, version);
+    }
+}
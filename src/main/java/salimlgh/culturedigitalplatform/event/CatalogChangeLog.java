@@ -0,0 +1,184 @@
+package salimlgh.culturedigitalplatform.event;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import salimlgh.culturedigitalplatform.entities.CatalogChange;
+import salimlgh.culturedigitalplatform.repository.CatalogChangeRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Journal des écritures sur le catalogue partagé par tous les nœuds (table catalog_change_log).
+ * Chaque {@link CatalogChangeEvent} local y est inséré dans la transaction de l'écriture :
+ * une écriture annulée ne laisse pas de ligne. Chaque nœud relit ensuite le journal à
+ * intervalle court et republie les écritures des autres nœuds en événements distants, que les
+ * écouteurs habituels (caches, index, snapshot) traitent comme les écritures locales.
+ * <p>
+ * Les id IDENTITY sont attribués à l'insertion mais visibles au commit : une transaction plus
+ * ancienne peut apparaître après une plus récente. Le curseur n'avance donc que sur une suite
+ * d'id contiguë ; un trou qui persiste au-delà de {@code gap-timeout} est un id perdu
+ * (transaction annulée) et il est sauté. Tant qu'un trou est ouvert, seuls ses id manquants
+ * sont relus, les lignes suivantes étant lues à partir du plus grand id déjà traité.
+ * Le démarrage est traité comme un trou : les lignes de la dernière fenêtre {@code gap-timeout}
+ * sont rejouées, une transaction en cours au démarrage pouvant valider un id inférieur au
+ * plus grand id visible.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "catalog.changelog.enabled", havingValue = "true", matchIfMissing = true)
+public class CatalogChangeLog {
+
+    private final CatalogChangeRepository catalogChangeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String nodeId;
+    private final int batchSize;
+    private final Duration gapTimeout;
+    private final Duration retention;
+
+    // Tous les id <= cursor ont été traités ; seen : id traités au-delà d'un trou
+    private long cursor;
+    private final TreeSet<Long> seen = new TreeSet<>();
+    private long gapSince;
+
+    public CatalogChangeLog(CatalogChangeRepository catalogChangeRepository,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${catalog.changelog.node-id:}") String nodeId,
+                            @Value("${catalog.changelog.batch-size:500}") int batchSize,
+                            @Value("${catalog.changelog.gap-timeout:30s}") Duration gapTimeout,
+                            @Value("${catalog.changelog.retention:1d}") Duration retention) {
+        this.catalogChangeRepository = catalogChangeRepository;
+        this.eventPublisher = eventPublisher;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.batchSize = batchSize;
+        this.gapTimeout = gapTimeout;
+        this.retention = retention;
+    }
+
+    // Les caches sont construits au démarrage depuis la base : rejouer une écriture déjà vue est sans effet
+    @PostConstruct
+    void start() {
+        cursor = catalogChangeRepository.findMaxIdCreatedBefore(LocalDateTime.now().minus(gapTimeout));
+        log.info("Journal du catalogue suivi à partir de l'id {} (nœud {})", cursor, nodeId);
+    }
+
+    // Après CatalogVersionCounter, qui fixe la version de l'écriture
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void record(CatalogChangeEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
+        CatalogChange change = new CatalogChange();
+        change.setEntityType(event.getEntityType());
+        change.setEntityId(event.getEntityId());
+        change.setOriginNode(nodeId);
+        change.setCatalogVersion(event.getVersion());
+        change.setCreatedAt(LocalDateTime.now());
+        catalogChangeRepository.save(change);
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.changelog.poll-interval-ms:2000}")
+    public synchronized void poll() {
+        List<CatalogChange> rows = new ArrayList<>();
+        List<Long> missing = missingIds();
+        if (!missing.isEmpty()) {
+            rows.addAll(catalogChangeRepository.findByIdInOrderByIdAsc(missing));
+        }
+        long from = seen.isEmpty() ? cursor : seen.last();
+        List<CatalogChange> page;
+        do {
+            page = catalogChangeRepository.findByIdGreaterThanOrderByIdAsc(from, Limit.of(batchSize));
+            rows.addAll(page);
+            if (!page.isEmpty()) {
+                from = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == batchSize);
+        // Une entité modifiée plusieurs fois n'est rechargée qu'une fois, avec la plus haute version
+        Map<String, CatalogChangeEvent> events = new LinkedHashMap<>();
+        for (CatalogChange row : rows) {
+            if (!seen.add(row.getId()) || nodeId.equals(row.getOriginNode())) {
+                continue;
+            }
+            long version = row.getCatalogVersion() == null ? 0 : row.getCatalogVersion();
+            events.merge(row.getEntityType() + ":" + row.getEntityId(),
+                    CatalogChangeEvent.remote(row.getEntityType(), row.getEntityId(), version),
+                    (first, next) -> next.getVersion() > first.getVersion() ? next : first);
+        }
+        advance();
+        for (CatalogChangeEvent event : events.values()) {
+            try {
+                eventPublisher.publishEvent(event);
+            } catch (RuntimeException e) {
+                log.error("Écriture distante non appliquée : {}", event, e);
+            }
+        }
+        if (!events.isEmpty()) {
+            log.debug("{} écritures distantes appliquées", events.size());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.changelog.purge-interval-ms:3600000}",
+            initialDelayString = "${catalog.changelog.purge-interval-ms:3600000}")
+    public void purge() {
+        int deleted = catalogChangeRepository.deleteOlderThan(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("{} lignes du journal du catalogue purgées", deleted);
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    // Id non encore vus entre le curseur et le plus grand id traité, au plus batchSize
+    private List<Long> missingIds() {
+        List<Long> missing = new ArrayList<>();
+        long id = cursor + 1;
+        for (Long next : seen) {
+            while (id < next && missing.size() < batchSize) {
+                missing.add(id++);
+            }
+            if (missing.size() == batchSize) {
+                break;
+            }
+            id = next + 1;
+        }
+        return missing;
+    }
+
+    private void advance() {
+        while (seen.remove(cursor + 1)) {
+            cursor++;
+        }
+        if (seen.isEmpty()) {
+            gapSince = 0;
+            return;
+        }
+        long now = System.nanoTime();
+        if (gapSince == 0) {
+            gapSince = now;
+        } else if (now - gapSince > gapTimeout.toNanos()) {
+            log.debug("Id {} à {} absents du journal du catalogue, ignorés", cursor + 1, seen.first() - 1);
+            cursor = seen.first() - 1;
+            gapSince = 0;
+            advance();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package salimlgh.culturedigitalplatform.fields;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Réduit un DTO déjà construit selon une {@link FieldSelection} aux seuls champs demandés.
+ * Les associations ont été écartées en amont (requêtes et mapping) : cette étape ne fait
+ * qu'ôter les colonnes scalaires non demandées de la réponse.
+ */
+@Component
+@RequiredArgsConstructor
+public class FieldProjector {
+
+    private static final TypeReference<LinkedHashMap<String, Object>> MAP = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+
+    public Object project(Object dto, FieldSelection selection) {
+        if (selection.fields() == null || dto == null) {
+            return dto;
+        }
+        Map<String, Object> all = objectMapper.convertValue(dto, MAP);
+        Map<String, Object> kept = new LinkedHashMap<>();
+        all.forEach((name, value) -> {
+            if (selection.wants(name)) {
+                kept.put(name, value);
+            }
+        });
+        return kept;
+    }
+
+    public List<Object> projectAll(List<?> dtos, FieldSelection selection) {
+        return dtos.stream().map(dto -> project(dto, selection)).toList();
+    }
+}
@@ -0,0 +1,116 @@
+package salimlgh.culturedigitalplatform.fields;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Champs ({@code fields=}) et associations ({@code include=}) demandés par le client.
+ * La sélection décide de ce qui est lu en base : une association non incluse n'est
+ * jamais parcourue, un champ calculé non demandé (courseCount) n'est pas calculé.
+ * <ul>
+ *   <li>ni fields ni include : réponse habituelle de l'endpoint (associations par défaut) ;</li>
+ *   <li>fields seul : ces champs uniquement, associations comprises si elles y figurent ;</li>
+ *   <li>include seul : tous les champs, avec exactement ces associations.</li>
+ * </ul>
+ * "courses.quizzes" inclut aussi "courses".
+ */
+public final class FieldSelection {
+
+    /** Champs et associations acceptés pour une ressource. */
+    public record Resource(Set<String> fields, Set<String> includes) {
+    }
+
+    public static final Resource FORMATION = new Resource(
+            Set.of("id", "title", "subtitle", "description", "imageUrl", "difficulty", "category",
+                    "durationHours", "courseCount", "published", "tags", "courses"),
+            Set.of("courses", "courses.quizzes"));
+
+    public static final Resource COURSE = new Resource(
+            Set.of("id", "title", "description", "formationId", "formationTitle", "duration", "status",
+                    "createdAt", "pdfContentType", "pdfSize", "hasPdf", "pdfUrl", "youtubeLink", "quizzes"),
+            Set.of("quizzes"));
+
+    private final Set<String> fields;
+    private final Set<String> includes;
+
+    private FieldSelection(Set<String> fields, Set<String> includes) {
+        this.fields = fields;
+        this.includes = includes;
+    }
+
+    /**
+     * @param fields          paramètre fields (liste séparée par des virgules), ou null
+     * @param include         paramètre include, ou null
+     * @param defaultIncludes associations renvoyées par l'endpoint quand rien n'est précisé
+     * @throws IllegalArgumentException si un nom n'existe pas pour la ressource
+     */
+    public static FieldSelection parse(String fields, String include, Resource resource, String... defaultIncludes) {
+        Set<String> selectedFields = split(fields);
+        Set<String> selectedIncludes = split(include);
+        if (selectedFields != null) {
+            selectedFields.stream()
+                    .filter(field -> !resource.fields().contains(field))
+                    .findFirst()
+                    .ifPresent(field -> {
+                        throw new IllegalArgumentException("Champ inconnu : " + field);
+                    });
+        }
+        if (selectedIncludes != null) {
+            selectedIncludes.stream()
+                    .filter(name -> !resource.includes().contains(name))
+                    .findFirst()
+                    .ifPresent(name -> {
+                        throw new IllegalArgumentException("Association inconnue : " + name);
+                    });
+        }
+
+        Set<String> effectiveIncludes;
+        if (selectedIncludes != null) {
+            effectiveIncludes = selectedIncludes;
+        } else if (selectedFields != null) {
+            effectiveIncludes = selectedFields.stream()
+                    .filter(resource.includes()::contains)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+        } else {
+            effectiveIncludes = new LinkedHashSet<>(Arrays.asList(defaultIncludes));
+        }
+        // Une association imbriquée suppose son parent
+        new LinkedHashSet<>(effectiveIncludes).stream()
+                .filter(name -> name.contains("."))
+                .forEach(name -> effectiveIncludes.add(name.substring(0, name.indexOf('.'))));
+
+        if (selectedFields != null) {
+            effectiveIncludes.stream()
+                    .filter(name -> !name.contains("."))
+                    .forEach(selectedFields::add);
+        }
+        return new FieldSelection(selectedFields, Set.copyOf(effectiveIncludes));
+    }
+
+    /** Le champ doit-il figurer dans la réponse ? */
+    public boolean wants(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    /** L'association doit-elle être chargée et renvoyée ? */
+    public boolean includes(String association) {
+        return includes.contains(association);
+    }
+
+    /** Champs à conserver à la sérialisation, ou null pour tous. */
+    public Set<String> fields() {
+        return fields;
+    }
+
+    private static Set<String> split(String value) {
+        if (value == null) {
+            return null;
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::strip)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+}
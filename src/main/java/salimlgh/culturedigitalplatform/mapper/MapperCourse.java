@@ -2,10 +2,12 @@ package salimlgh.culturedigitalplatform.mapper;
 
 import org.springframework.stereotype.Component;
 import org.springframework.beans.factory.annotation.Autowired;
+import salimlgh.culturedigitalplatform.catalog.CatalogCourse;
 import salimlgh.culturedigitalplatform.dtos.CourseDTO;
 import salimlgh.culturedigitalplatform.dtos.QuizDTO;
 import salimlgh.culturedigitalplatform.entities.Course;
 import salimlgh.culturedigitalplatform.entities.Quiz;
+import salimlgh.culturedigitalplatform.repository.CourseSummary;
 
 import java.util.List;
 import java.util.Collections;
@@ -23,6 +25,19 @@ public class MapperCourse {
     }
 
     public CourseDTO toDto(Course course) {
+        CourseDTO dto = toDtoWithoutQuizzes(course);
+        dto.setQuizzes(
+                course.getQuizzes() != null
+                        ? course.getQuizzes().stream()
+                        .map(mapperQuiz::toDto)
+                        .collect(Collectors.toList())
+                        : Collections.emptyList()
+        );
+        return dto;
+    }
+
+    // Sans quiz : la collection n'est pas initialisée (quizzes reste null)
+    public CourseDTO toDtoWithoutQuizzes(Course course) {
         return CourseDTO.builder()
                 .id(course.getId())
                 .title(course.getTitle())
@@ -33,15 +48,47 @@ public class MapperCourse {
                 .status(course.getStatus())
                 .createdAt(course.getCreatedAt())
                 .pdfContentType(course.getPdfContentType())
+                .pdfSize(course.getPdfSize())
+                .hasPdf(course.hasPdf())
                 .youtubeLink(course.getYoutubeLink())
-                .quizzes(
-                course.getQuizzes() != null
-                        ? course.getQuizzes().stream()
-                        .map(mapperQuiz::toDto)
-                        .collect(Collectors.toList())
-                        : Collections.emptyList()
-        )
+                .build();
+    }
 
+    // Listes : les quiz ne sont pas chargés (quizzes reste null)
+    public CourseDTO toDto(CourseSummary summary) {
+        return CourseDTO.builder()
+                .id(summary.getId())
+                .title(summary.getTitle())
+                .description(summary.getDescription())
+                .formationId(summary.getFormationId())
+                .formationTitle(summary.getFormationTitle())
+                .duration(summary.getDuration())
+                .status(summary.getStatus())
+                .createdAt(summary.getCreatedAt())
+                .pdfContentType(summary.getPdfContentType())
+                .pdfSize(summary.getPdfSize())
+                .hasPdf(summary.getHasPdf())
+                .youtubeLink(summary.getYoutubeLink())
+                .build();
+    }
+
+    // Catalogue publié : tout est déjà en mémoire, quiz compris
+    public CourseDTO toDto(CatalogCourse course, boolean withQuizzes) {
+        return CourseDTO.builder()
+                .id(course.id())
+                .title(course.title())
+                .description(course.description())
+                .formationId(course.formationId())
+                .formationTitle(course.formationTitle())
+                .duration(course.duration())
+                .status(course.status())
+                .createdAt(course.createdAt())
+                .pdfContentType(course.pdfContentType())
+                .pdfSize(course.pdfSize())
+                .hasPdf(course.hasPdf())
+                .pdfUrl("/api/courses/" + course.id() + "/pdf")
+                .youtubeLink(course.youtubeLink())
+                .quizzes(withQuizzes ? course.quizzes().stream().map(mapperQuiz::toDto).collect(Collectors.toList()) : null)
                 .build();
     }
 
@@ -1,9 +1,12 @@
 package salimlgh.culturedigitalplatform.mapper;
 
 import org.springframework.stereotype.Component;
+import salimlgh.culturedigitalplatform.catalog.CatalogCourse;
+import salimlgh.culturedigitalplatform.catalog.CatalogFormation;
 import salimlgh.culturedigitalplatform.dtos.FormationDTO;
 import salimlgh.culturedigitalplatform.dtos.CourseDTO;
 import salimlgh.culturedigitalplatform.entities.Formation;
+import salimlgh.culturedigitalplatform.fields.FieldSelection;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -42,6 +45,59 @@ public class MapperFormation {
         return dto;
     }
 
+    /**
+     * Mapping guidé par la sélection du client : seules les associations incluses sont parcourues.
+     * Sans cours inclus, courseCount vient de {@code courseCount} (lu par un GROUP BY) s'il est fourni.
+     */
+    public FormationDTO toDto(Formation formation, FieldSelection selection, Long courseCount) {
+        FormationDTO dto = new FormationDTO();
+        dto.setId(formation.getId());
+        dto.setTitle(formation.getTitle());
+        dto.setSubtitle(formation.getSubtitle());
+        dto.setDescription(formation.getDescription());
+        dto.setImageUrl(formation.getImageUrl());
+        dto.setDifficulty(formation.getDifficulty());
+        dto.setCategory(formation.getCategory());
+        dto.setDurationHours(formation.getDurationHours());
+        dto.setPublished(formation.isPublished());
+        if (selection.wants("tags")) {
+            dto.setTags(formation.getTags());
+        }
+        if (selection.includes("courses")) {
+            boolean withQuizzes = selection.includes("courses.quizzes");
+            dto.setCourses(formation.getCourses().stream()
+                    .map(course -> withQuizzes ? mapperCourse.toDto(course) : mapperCourse.toDtoWithoutQuizzes(course))
+                    .collect(Collectors.toList()));
+            dto.setCourseCount(dto.getCourses().size());
+        } else if (courseCount != null) {
+            dto.setCourseCount(courseCount.intValue());
+        }
+        return dto;
+    }
+
+    /** Formation du catalogue publié avec ses cours actifs ; courseCount ne coûte rien ici. */
+    public FormationDTO toDto(CatalogFormation formation, List<CatalogCourse> courses, FieldSelection selection) {
+        FormationDTO dto = new FormationDTO();
+        dto.setId(formation.id());
+        dto.setTitle(formation.title());
+        dto.setSubtitle(formation.subtitle());
+        dto.setDescription(formation.description());
+        dto.setImageUrl(formation.imageUrl());
+        dto.setDifficulty(formation.difficulty());
+        dto.setCategory(formation.category());
+        dto.setDurationHours(formation.durationHours());
+        dto.setPublished(true);
+        dto.setTags(formation.tags());
+        dto.setCourseCount(courses.size());
+        if (selection.includes("courses")) {
+            boolean withQuizzes = selection.includes("courses.quizzes");
+            dto.setCourses(courses.stream()
+                    .map(course -> mapperCourse.toDto(course, withQuizzes))
+                    .collect(Collectors.toList()));
+        }
+        return dto;
+    }
+
     public Formation toEntity(FormationDTO dto) {
         Formation formation = new Formation();
         formation.setId(dto.getId());
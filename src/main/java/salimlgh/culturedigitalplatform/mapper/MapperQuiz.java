@@ -2,6 +2,7 @@ package salimlgh.culturedigitalplatform.mapper;
 
 import org.springframework.stereotype.Component;
 
+import salimlgh.culturedigitalplatform.catalog.CatalogQuiz;
 import salimlgh.culturedigitalplatform.dtos.QuizDTO;
 import salimlgh.culturedigitalplatform.entities.Quiz;
 
@@ -19,6 +20,16 @@ public class MapperQuiz {
         return dto;
     }
 
+    public QuizDTO toDto(CatalogQuiz quiz) {
+        QuizDTO dto = new QuizDTO();
+        dto.setId(quiz.id());
+        dto.setQuestion(quiz.question());
+        dto.setAnswers(quiz.answers());
+        dto.setCorrectAnswerIndex(quiz.correctAnswerIndex());
+        dto.setCourseId(quiz.courseId());
+        return dto;
+    }
+
     public Quiz toEntity(QuizDTO dto) {
         Quiz quiz = new Quiz();
         quiz.setId(dto.getId());
@@ -0,0 +1,51 @@
+package salimlgh.culturedigitalplatform.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Page obtenue par pagination par clé. Le corps de la réponse reste une liste JSON ;
+ * le curseur suivant et le total (seulement s'il a été demandé) passent par les en-têtes.
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    private final List<T> items;
+    private final String nextCursor;
+    private final Long total;
+
+    /**
+     * Construit une page à partir d'une lecture de {@code size + 1} éléments :
+     * l'élément en trop indique seulement qu'une page suivante existe.
+     */
+    public static <T> CursorPage<T> of(List<T> fetched, int size, Function<T, String> cursorOf, Long total) {
+        if (fetched.size() <= size) {
+            return new CursorPage<>(fetched, null, total);
+        }
+        List<T> items = fetched.subList(0, size);
+        return new CursorPage<>(items, cursorOf.apply(items.get(size - 1)), total);
+    }
+
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(items.stream().map(mapper).toList(), nextCursor, total);
+    }
+
+    public ResponseEntity<List<T>> toResponseEntity() {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (nextCursor != null) {
+            builder.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        if (total != null) {
+            builder.header(TOTAL_COUNT_HEADER, String.valueOf(total));
+        }
+        return builder.body(items);
+    }
+}
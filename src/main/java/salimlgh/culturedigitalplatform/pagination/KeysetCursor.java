@@ -0,0 +1,99 @@
+package salimlgh.culturedigitalplatform.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Limit;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Position de pagination par clé sur le couple (createdAt, id), tri décroissant.
+ * Le client la reçoit sous forme opaque (base64url) et la renvoie telle quelle :
+ * chaque page est une simple lecture d'index à partir de cette position, sans OFFSET.
+ * Les lignes sans date viennent après toutes les autres (NULLS LAST), par id décroissant ;
+ * une position sur une telle ligne a un createdAt null.
+ */
+@Getter
+@AllArgsConstructor
+public class KeysetCursor {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    // Position de départ : après tout élément existant (DATETIME MySQL va jusqu'à l'an 9999)
+    private static final KeysetCursor START = new KeysetCursor(LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE);
+
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            String date = raw.substring(0, separator);
+            return new KeysetCursor(date.isEmpty() ? null : LocalDateTime.parse(date),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide");
+        }
+    }
+
+    public static String encode(LocalDateTime createdAt, Long id) {
+        String raw = (createdAt == null ? "" : createdAt.toString()) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String encode(Date createdAt, Long id) {
+        return encode(createdAt == null ? null : new Timestamp(createdAt.getTime()).toLocalDateTime(), id);
+    }
+
+    public static int pageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_SIZE;
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("La taille de page doit être d'au moins 1");
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+
+    /**
+     * Lit au plus {@code limit} éléments après cette position : les lignes datées d'abord,
+     * puis, une fois celles-ci épuisées, les lignes sans date. Chaque lecture suit l'index
+     * (createdAt, id) ; la seconde n'a lieu que sur la dernière page datée.
+     */
+    public <T> List<T> fetch(int limit, DatedQuery<T> dated, UndatedQuery<T> undated) {
+        if (createdAt == null) {
+            return undated.after(id, Limit.of(limit));
+        }
+        List<T> fetched = dated.after(createdAt, id, Limit.of(limit));
+        if (fetched.size() >= limit) {
+            return fetched;
+        }
+        List<T> all = new ArrayList<>(fetched);
+        all.addAll(undated.after(Long.MAX_VALUE, Limit.of(limit - fetched.size())));
+        return all;
+    }
+
+    /** Lignes datées après (createdAt, id), tri (createdAt, id) décroissant. */
+    @FunctionalInterface
+    public interface DatedQuery<T> {
+        List<T> after(LocalDateTime createdAt, Long id, Limit limit);
+    }
+
+    /** Lignes sans date d'id inférieur, tri par id décroissant. */
+    @FunctionalInterface
+    public interface UndatedQuery<T> {
+        List<T> after(Long id, Limit limit);
+    }
+}
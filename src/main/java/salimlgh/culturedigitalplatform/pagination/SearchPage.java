@@ -0,0 +1,58 @@
+package salimlgh.culturedigitalplatform.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Page d'une recherche classée par pertinence, paginée par numéro de page (le classement
+ * n'offre pas de clé stable pour un curseur). Le corps de la réponse reste une liste JSON ;
+ * le nombre total de résultats passe par l'en-tête X-Total-Count.
+ */
+@Getter
+@AllArgsConstructor
+public class SearchPage<T> {
+
+    /** Taille de page maximale, et par défaut. */
+    public static final int MAX_SIZE = 100;
+
+    private final List<T> items;
+    private final int total;
+
+    /** Page {@code page} (à partir de 0) d'une liste déjà complète. */
+    public static <T> SearchPage<T> slice(List<T> all, int page, Integer size) {
+        int limit = pageSize(size);
+        int from = Math.min(offset(page, limit), all.size());
+        return new SearchPage<>(all.subList(from, Math.min(all.size(), from + limit)), all.size());
+    }
+
+    public static int pageSize(Integer size) {
+        if (size == null) {
+            return MAX_SIZE;
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("La taille de page doit être d'au moins 1");
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+
+    public static int offset(int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Le numéro de page ne peut pas être négatif");
+        }
+        return (int) Math.min(Integer.MAX_VALUE, (long) page * size);
+    }
+
+    public <R> SearchPage<R> map(Function<T, R> mapper) {
+        return new SearchPage<>(items.stream().map(mapper).toList(), total);
+    }
+
+    public ResponseEntity<List<T>> toResponseEntity() {
+        return ResponseEntity.ok()
+                .header(CursorPage.TOTAL_COUNT_HEADER, String.valueOf(total))
+                .body(items);
+    }
+}
@@ -0,0 +1,22 @@
+package salimlgh.culturedigitalplatform.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import salimlgh.culturedigitalplatform.entities.CatalogVersion;
+
+import java.util.Optional;
+
+@Repository
+public interface CatalogVersionRepository extends JpaRepository<CatalogVersion, Long> {
+
+    @Query("SELECT v.version FROM CatalogVersion v WHERE v.id = " + CatalogVersion.ID)
+    Optional<Long> findCurrent();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE CatalogVersion v SET v.version = v.version + 1 WHERE v.id = " + CatalogVersion.ID)
+    int increment();
+}
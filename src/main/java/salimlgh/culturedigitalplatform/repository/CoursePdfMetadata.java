@@ -0,0 +1,14 @@
+package salimlgh.culturedigitalplatform.repository;
+
+import java.time.LocalDateTime;
+
+// Projection utilisée par CourseRepository.findPdfMetadataById
+public interface CoursePdfMetadata {
+    Long getId();
+    String getTitle();
+    String getStatus();
+    String getPdfBlobRef();
+    Long getPdfSize();
+    String getPdfContentType();
+    LocalDateTime getPdfUpdatedAt();
+}
@@ -1,14 +1,18 @@
 package salimlgh.culturedigitalplatform.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import salimlgh.culturedigitalplatform.entities.Course;
 import salimlgh.culturedigitalplatform.entities.Formation;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,38 +28,74 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
     List<Course> findByFormation(Formation formation);
     Page<Course> findByFormation(Formation formation, Pageable pageable);
 
-    // Recherche de cours actifs
+    // Recherche de cours actifs (résultat en cache de requêtes, invalidé à chaque écriture sur courses)
     @Query("SELECT c FROM Course c WHERE c.status = 'active'")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Course> findActiveCourses();
 
     @Query("SELECT c FROM Course c WHERE c.status = 'active'")
     Page<Course> findActiveCourses(Pageable pageable);
 
+    // Construction du snapshot du catalogue : la formation est lue dans la même requête
+    @Query("SELECT c FROM Course c LEFT JOIN FETCH c.formation WHERE c.status = 'active'")
+    List<Course> findActiveCoursesWithFormation();
+
     // Recherche de cours inactifs
     @Query("SELECT c FROM Course c WHERE c.status = 'inactive'")
     List<Course> findInactiveCourses();
 
     // Recherche avec PDF
+    // Métadonnées du PDF seules (requêtes conditionnelles et téléchargements), sans charger l'entité
+    @Query("SELECT c.id AS id, c.title AS title, c.status AS status, c.pdfBlobRef AS pdfBlobRef, " +
+            "c.pdfSize AS pdfSize, c.pdfContentType AS pdfContentType, " +
+            "COALESCE(c.pdfUpdatedAt, c.createdAt) AS pdfUpdatedAt " +
+            "FROM Course c WHERE c.id = :id")
+    Optional<CoursePdfMetadata> findPdfMetadataById(@Param("id") Long id);
 
 
     // Recherche avec vidéo
     @Query("SELECT c FROM Course c WHERE c.youtubeLink IS NOT NULL AND c.status = 'active'")
     List<Course> findActiveCoursesWithVideo();
 
-    // Recherche textuelle (active seulement)
+    // Recherche avancée filtrée
     @Query("SELECT c FROM Course c WHERE " +
-            "c.status = 'active' AND " +
+            "(:formationId IS NULL OR c.formation.id = :formationId) AND " +
+            "(:status IS NULL OR c.status = :status) AND " +
             "(LOWER(c.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(c.description) LIKE LOWER(CONCAT('%', :keyword, '%')))")
-    List<Course> searchActiveCourses(@Param("keyword") String keyword);
+    Page<Course> advancedSearch(
+            @Param("formationId") Long formationId,
+            @Param("status") String status,
+            @Param("keyword") String keyword,
+            Pageable pageable);
 
-    // Recherche avancée filtrée
-    @Query("SELECT c FROM Course c WHERE " +
+    // Projections pour les listes (aucune entité Course, Formation ou Quiz chargée)
+    @Query(CourseSummary.SELECT + "WHERE c.status = 'active'")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<CourseSummary> findActiveCourseSummaries();
+
+    @Query(value = CourseSummary.SELECT + "WHERE c.status = 'active'",
+            countQuery = "SELECT COUNT(c) FROM Course c WHERE c.status = 'active'")
+    Page<CourseSummary> findActiveCourseSummaries(Pageable pageable);
+
+    @Query(CourseSummary.SELECT + "WHERE f.id = :formationId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<CourseSummary> findCourseSummariesByFormationId(@Param("formationId") Long formationId);
+
+    @Query(CourseSummary.SELECT + "WHERE c.status = 'active' AND c.id IN :ids")
+    List<CourseSummary> findActiveCourseSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(value = CourseSummary.SELECT + "WHERE " +
+            "(:formationId IS NULL OR f.id = :formationId) AND " +
+            "(:status IS NULL OR c.status = :status) AND " +
+            "(LOWER(c.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+            "LOWER(c.description) LIKE LOWER(CONCAT('%', :keyword, '%')))",
+            countQuery = "SELECT COUNT(c) FROM Course c WHERE " +
             "(:formationId IS NULL OR c.formation.id = :formationId) AND " +
             "(:status IS NULL OR c.status = :status) AND " +
             "(LOWER(c.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(c.description) LIKE LOWER(CONCAT('%', :keyword, '%')))")
-    Page<Course> advancedSearch(
+    Page<CourseSummary> advancedSearchSummaries(
             @Param("formationId") Long formationId,
             @Param("status") String status,
             @Param("keyword") String keyword,
@@ -68,11 +108,21 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
     // Vérification d'existence
     boolean existsByTitleAndStatus(String title, String status);
 
+    // Blobs encore référencés parmi ceux donnés (ramasse-miettes du stockage des PDF)
+    @Query("SELECT DISTINCT c.pdfBlobRef FROM Course c WHERE c.pdfBlobRef IN :refs")
+    List<String> findReferencedPdfBlobRefs(@Param("refs") Collection<String> refs);
+
     // Statistiques
     @Query("SELECT COUNT(c) FROM Course c WHERE c.status = 'active'")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     long countActiveCourses();
 
     @Query("SELECT COUNT(c) FROM Course c WHERE c.status = 'inactive'")
     long countInactiveCourses();
 
+    @Query("SELECT c.formation.id AS formationId, COUNT(c) AS courseCount FROM Course c " +
+            "WHERE c.formation.id IN :formationIds GROUP BY c.formation.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<FormationCourseCount> countByFormationIdIn(@Param("formationIds") Collection<Long> formationIds);
+
 }
\ No newline at end of file
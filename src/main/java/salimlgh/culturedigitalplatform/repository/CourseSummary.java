@@ -0,0 +1,27 @@
+package salimlgh.culturedigitalplatform.repository;
+
+import java.time.LocalDateTime;
+
+// Projection des listes de cours : colonnes scalaires + formation, sans entité ni quiz
+public interface CourseSummary {
+
+    String SELECT = "SELECT c.id AS id, c.title AS title, c.description AS description, " +
+            "c.duration AS duration, c.status AS status, c.createdAt AS createdAt, " +
+            "c.pdfContentType AS pdfContentType, c.pdfSize AS pdfSize, c.youtubeLink AS youtubeLink, " +
+            "f.id AS formationId, f.title AS formationTitle, " +
+            "CASE WHEN c.pdfBlobRef IS NOT NULL THEN true ELSE false END AS hasPdf " +
+            "FROM Course c LEFT JOIN c.formation f ";
+
+    Long getId();
+    String getTitle();
+    String getDescription();
+    Integer getDuration();
+    String getStatus();
+    LocalDateTime getCreatedAt();
+    String getPdfContentType();
+    Long getPdfSize();
+    String getYoutubeLink();
+    Long getFormationId();
+    String getFormationTitle();
+    Boolean getHasPdf();
+}
@@ -0,0 +1,10 @@
+package salimlgh.culturedigitalplatform.repository;
+
+/**
+ * Nombre de cours d'une formation, lu par un seul GROUP BY pour toute une liste.
+ */
+public interface FormationCourseCount {
+    Long getFormationId();
+
+    Long getCourseCount();
+}
@@ -1,11 +1,18 @@
 package salimlgh.culturedigitalplatform.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import salimlgh.culturedigitalplatform.entities.DifficultyLevel;
 import salimlgh.culturedigitalplatform.entities.Formation;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,15 +23,26 @@ public interface FormationRepository extends JpaRepository<Formation, Long> {
     List<Formation> findByDifficulty(DifficultyLevel difficulty);
     List<Formation> findByCategory(String category);
 
-    // Queries for published formations
+    // Queries for published formations (cached; Hibernate invalidates them on any write to formation)
     @Query("SELECT f FROM Formation f WHERE f.published = true")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Formation> findPublishedFormations();
 
+    // Pages de détail : formation et cours en une requête, quiz et réponses par lots
+    @EntityGraph(Formation.WITH_COURSES)
+    Optional<Formation> findWithCoursesById(Long id);
+
     @Query("SELECT f FROM Formation f WHERE f.id = :id AND f.published = true")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Formation> findPublishedById(@Param("id") Long id);
 
-    @Query("SELECT f FROM Formation f WHERE f.published = true AND (f.title LIKE %:keyword% OR f.description LIKE %:keyword%)")
-    List<Formation> searchPublishedFormations(@Param("keyword") String keyword);
+    @EntityGraph(Formation.WITH_COURSES)
+    @Query("SELECT f FROM Formation f WHERE f.id = :id AND f.published = true")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Optional<Formation> findPublishedWithCoursesById(@Param("id") Long id);
+
+    @Query("SELECT f FROM Formation f WHERE f.published = true AND f.id IN :ids")
+    List<Formation> findPublishedByIdIn(@Param("ids") Collection<Long> ids);
 
     @Query("SELECT f FROM Formation f WHERE f.published = true AND f.difficulty = :difficulty")
     List<Formation> findPublishedByDifficulty(@Param("difficulty") DifficultyLevel difficulty);
@@ -33,5 +51,32 @@ public interface FormationRepository extends JpaRepository<Formation, Long> {
     List<Formation> findPublishedByCategory(@Param("category") String category);
 
     @Query("SELECT f FROM Formation f WHERE f.published = true ORDER BY f.createdAt DESC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Formation> findPublishedFormationsOrderByCreatedAtDesc();
+
+    @Query("SELECT f.id FROM Formation f")
+    List<Long> findAllIds();
+
+    @Query("SELECT COUNT(f) FROM Formation f WHERE f.published = true")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    long countPublishedFormations();
+
+    // Pagination par clé (createdAt, id) décroissante, sans OFFSET ; les formations sans date
+    // viennent ensuite (voir KeysetCursor.fetch)
+    @Query("SELECT f FROM Formation f WHERE " +
+            "(f.createdAt < :createdAt OR (f.createdAt = :createdAt AND f.id < :id)) " +
+            "ORDER BY f.createdAt DESC, f.id DESC")
+    List<Formation> findAllAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    @Query("SELECT f FROM Formation f WHERE f.createdAt IS NULL AND f.id < :id ORDER BY f.id DESC")
+    List<Formation> findAllUndatedAfter(@Param("id") Long id, Limit limit);
+
+    @Query("SELECT f FROM Formation f WHERE f.published = true AND " +
+            "(f.createdAt < :createdAt OR (f.createdAt = :createdAt AND f.id < :id)) " +
+            "ORDER BY f.createdAt DESC, f.id DESC")
+    List<Formation> findPublishedAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    @Query("SELECT f FROM Formation f WHERE f.published = true AND f.createdAt IS NULL AND f.id < :id " +
+            "ORDER BY f.id DESC")
+    List<Formation> findPublishedUndatedAfter(@Param("id") Long id, Limit limit);
 }
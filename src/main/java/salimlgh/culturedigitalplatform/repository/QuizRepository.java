@@ -1,10 +1,15 @@
 package salimlgh.culturedigitalplatform.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import salimlgh.culturedigitalplatform.entities.Quiz;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +17,14 @@ import java.util.Optional;
 public interface QuizRepository extends JpaRepository<Quiz, Long> {
     List<Quiz> findByCourseId(Long courseId);
 
+    // Quiz de plusieurs cours en une requête (réponses chargées par lots)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Quiz> findByCourseIdInOrderByIdAsc(Collection<Long> courseIds);
+
+    // Quiz de tous les cours actifs (construction du snapshot du catalogue)
+    @Query("SELECT q FROM Quiz q JOIN FETCH q.course c WHERE c.status = 'active' ORDER BY q.id")
+    List<Quiz> findActiveCourseQuizzes();
+
     List<Quiz> findQuizzesByCourseId(Long courseId); // Retourne une liste
     Optional<Quiz> findById(Long id);
 
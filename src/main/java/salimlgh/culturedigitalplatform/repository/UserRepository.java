@@ -1,8 +1,13 @@
 package salimlgh.culturedigitalplatform.repository;
 
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import salimlgh.culturedigitalplatform.entities.app_user;
@@ -11,4 +16,14 @@ import salimlgh.culturedigitalplatform.entities.app_user;
 public interface UserRepository extends JpaRepository<app_user, Long> {
     Optional<app_user> findByEmail(String email);
     Boolean existsByEmail(String email);
+
+    // Pagination par clé (createdAt, id) décroissante, sans OFFSET ; les comptes sans date
+    // viennent ensuite (voir KeysetCursor.fetch)
+    @Query("SELECT u FROM app_user u WHERE " +
+            "(u.createdAt < :createdAt OR (u.createdAt = :createdAt AND u.id < :id)) " +
+            "ORDER BY u.createdAt DESC, u.id DESC")
+    List<app_user> findAllAfter(@Param("createdAt") Date createdAt, @Param("id") Long id, Limit limit);
+
+    @Query("SELECT u FROM app_user u WHERE u.createdAt IS NULL AND u.id < :id ORDER BY u.id DESC")
+    List<app_user> findAllUndatedAfter(@Param("id") Long id, Limit limit);
 }
\ No newline at end of file
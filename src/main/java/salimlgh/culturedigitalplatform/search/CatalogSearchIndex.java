@@ -0,0 +1,121 @@
+package salimlgh.culturedigitalplatform.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import salimlgh.culturedigitalplatform.entities.Course;
+import salimlgh.culturedigitalplatform.entities.Formation;
+import salimlgh.culturedigitalplatform.event.CatalogChangeEvent;
+import salimlgh.culturedigitalplatform.pagination.SearchPage;
+import salimlgh.culturedigitalplatform.repository.CourseRepository;
+import salimlgh.culturedigitalplatform.repository.CourseSummary;
+import salimlgh.culturedigitalplatform.repository.FormationRepository;
+
+import java.util.List;
+
+/**
+ * Index de recherche du catalogue publié : cours actifs (titre, description)
+ * et formations publiées (titre, sous-titre, description, tags).
+ * Reconstruit au démarrage depuis les repositories, puis mis à jour après chaque
+ * commit d'une écriture d'administration (CatalogChangeEvent).
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CatalogSearchIndex {
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int SUBTITLE_WEIGHT = 2;
+    private static final int TEXT_WEIGHT = 1;
+
+    private final CourseRepository courseRepository;
+    private final FormationRepository formationRepository;
+
+    private final InvertedIndex courses = new InvertedIndex();
+    private final InvertedIndex formations = new InvertedIndex();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        courses.clear();
+        formations.clear();
+        for (CourseSummary course : courseRepository.findActiveCourseSummaries()) {
+            courses.put(courseDocument(course.getId(), course.getTitle(), course.getDescription()));
+        }
+        for (Formation formation : formationRepository.findPublishedFormations()) {
+            formations.put(formationDocument(formation));
+        }
+        log.info("Index de recherche construit : {} cours, {} formations", courses.size(), formations.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        switch (event.getEntityType()) {
+            case COURSE -> courseRepository.findById(event.getEntityId())
+                    .filter(course -> "active".equals(course.getStatus()))
+                    .ifPresentOrElse(this::indexCourse, () -> courses.remove(event.getEntityId()));
+            case FORMATION -> formationRepository.findById(event.getEntityId())
+                    .filter(Formation::isPublished)
+                    .ifPresentOrElse(formation -> formations.put(formationDocument(formation)),
+                            () -> formations.remove(event.getEntityId()));
+            default -> {
+                // Les quiz ne sont pas indexés
+            }
+        }
+    }
+
+    /**
+     * Page {@code page} (à partir de 0) des ids des cours actifs correspondant à la requête,
+     * du plus pertinent au moins pertinent, et leur nombre total.
+     * La taille de page est ramenée à {@link SearchPage#MAX_SIZE}.
+     */
+    public SearchPage<Long> searchCourses(String keyword, boolean fuzzy, int page, Integer size) {
+        return search(courses, keyword, fuzzy, page, size);
+    }
+
+    /** Comme {@link #searchCourses(String, boolean, int, Integer)}, pour les formations publiées. */
+    public SearchPage<Long> searchFormations(String keyword, boolean fuzzy, int page, Integer size) {
+        return search(formations, keyword, fuzzy, page, size);
+    }
+
+    /**
+     * Ids de toutes les formations publiées correspondant à la requête, du plus pertinent au
+     * moins pertinent, sans limite : base des totaux et compteurs d'une recherche à facettes.
+     */
+    public List<Long> allMatchingFormations(String keyword, boolean fuzzy) {
+        return formations.search(keyword, 0, Integer.MAX_VALUE, fuzzy).hits().stream().map(InvertedIndex.Hit::id).toList();
+    }
+
+    private static SearchPage<Long> search(InvertedIndex index, String keyword, boolean fuzzy, int page, Integer size) {
+        int limit = SearchPage.pageSize(size);
+        InvertedIndex.Page hits = index.search(keyword, SearchPage.offset(page, limit), limit, fuzzy);
+        return new SearchPage<>(hits.hits().stream().map(InvertedIndex.Hit::id).toList(), hits.total());
+    }
+
+    private void indexCourse(Course course) {
+        courses.put(courseDocument(course.getId(), course.getTitle(), course.getDescription()));
+    }
+
+    private InvertedIndex.Document courseDocument(Long id, String title, String description) {
+        return new InvertedIndex.Document(id)
+                .field(title, TITLE_WEIGHT)
+                .field(description, TEXT_WEIGHT);
+    }
+
+    private InvertedIndex.Document formationDocument(Formation formation) {
+        InvertedIndex.Document doc = new InvertedIndex.Document(formation.getId())
+                .field(formation.getTitle(), TITLE_WEIGHT)
+                .field(formation.getSubtitle(), SUBTITLE_WEIGHT)
+                .field(formation.getDescription(), TEXT_WEIGHT);
+        if (formation.getTags() != null) {
+            formation.getTags().forEach(tag -> doc.field(tag, SUBTITLE_WEIGHT));
+        }
+        return doc;
+    }
+}
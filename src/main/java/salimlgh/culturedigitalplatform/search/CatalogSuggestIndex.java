@@ -0,0 +1,118 @@
+package salimlgh.culturedigitalplatform.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import salimlgh.culturedigitalplatform.entities.Formation;
+import salimlgh.culturedigitalplatform.event.CatalogChangeEvent;
+import salimlgh.culturedigitalplatform.repository.CourseRepository;
+import salimlgh.culturedigitalplatform.repository.CourseSummary;
+import salimlgh.culturedigitalplatform.repository.FormationRepository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index d'autocomplétion du catalogue publié : titres des cours actifs, titres,
+ * catégories et tags des formations publiées.
+ * Chaque entité apporte ses libellés pondérés ; ses apports sont retirés puis
+ * réappliqués à chaque CatalogChangeEvent, si bien que la requête ne lit que le trie.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CatalogSuggestIndex {
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int TAG_WEIGHT = 1;
+
+    private final CourseRepository courseRepository;
+    private final FormationRepository formationRepository;
+
+    private final SuggestionTrie trie = new SuggestionTrie();
+    // Libellés apportés par chaque entité indexée, pour pouvoir les retirer
+    private final Map<String, Map<String, Integer>> contributions = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        trie.clear();
+        contributions.clear();
+        for (CourseSummary course : courseRepository.findActiveCourseSummaries()) {
+            replace(courseKey(course.getId()), courseLabels(course.getTitle()));
+        }
+        for (Formation formation : formationRepository.findPublishedFormations()) {
+            replace(formationKey(formation.getId()), formationLabels(formation));
+        }
+        log.info("Index d'autocomplétion construit : {} libellés", trie.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public synchronized void onCatalogChange(CatalogChangeEvent event) {
+        switch (event.getEntityType()) {
+            case COURSE -> replace(courseKey(event.getEntityId()), courseRepository.findById(event.getEntityId())
+                    .filter(course -> "active".equals(course.getStatus()))
+                    .map(course -> courseLabels(course.getTitle()))
+                    .orElse(Map.of()));
+            case FORMATION -> replace(formationKey(event.getEntityId()), formationRepository.findById(event.getEntityId())
+                    .filter(Formation::isPublished)
+                    .map(this::formationLabels)
+                    .orElse(Map.of()));
+            default -> {
+                // Les quiz ne sont pas proposés
+            }
+        }
+    }
+
+    /** Libellés complétant le préfixe, du plus au moins pondéré. */
+    public List<String> suggest(String prefix, int limit) {
+        return trie.suggest(prefix, limit);
+    }
+
+    private void replace(String key, Map<String, Integer> labels) {
+        Map<String, Integer> previous = contributions.remove(key);
+        if (previous != null) {
+            previous.forEach(trie::remove);
+        }
+        if (!labels.isEmpty()) {
+            labels.forEach(trie::add);
+            contributions.put(key, labels);
+        }
+    }
+
+    private Map<String, Integer> courseLabels(String title) {
+        return title == null ? Map.of() : Map.of(title, TITLE_WEIGHT);
+    }
+
+    private Map<String, Integer> formationLabels(Formation formation) {
+        Map<String, Integer> labels = new HashMap<>();
+        if (formation.getTitle() != null) {
+            labels.merge(formation.getTitle(), TITLE_WEIGHT, Integer::sum);
+        }
+        if (formation.getCategory() != null) {
+            labels.merge(formation.getCategory(), CATEGORY_WEIGHT, Integer::sum);
+        }
+        if (formation.getTags() != null) {
+            formation.getTags().stream()
+                    .filter(tag -> tag != null)
+                    .forEach(tag -> labels.merge(tag, TAG_WEIGHT, Integer::sum));
+        }
+        return labels;
+    }
+
+    private static String courseKey(Long id) {
+        return "course:" + id;
+    }
+
+    private static String formationKey(Long id) {
+        return "formation:" + id;
+    }
+}
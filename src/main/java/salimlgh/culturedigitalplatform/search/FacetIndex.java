@@ -0,0 +1,207 @@
+package salimlgh.culturedigitalplatform.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index de facettes en mémoire : pour chaque facette et chaque valeur, l'ensemble des
+ * documents qui la portent sous forme de BitSet. Filtrer revient à intersecter
+ * (entre facettes) et unir (entre valeurs d'une même facette) des bitsets, compter
+ * à faire un cardinality() ; aucune requête SQL n'est nécessaire.
+ * Les compteurs d'une facette ignorent le filtre de cette facette (facettes
+ * disjonctives) : cocher "BEGINNER" laisse voir combien de formations sont "ADVANCED".
+ * Les lectures sont concurrentes, les écritures exclusives.
+ */
+public class FacetIndex {
+
+    /** Documents retenus (par numéro interne croissant) et compteurs par facette et par valeur. */
+    public record Result(List<Long> ids, Map<String, Map<String, Integer>> counts) {
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<String> facets;
+    private final Map<String, Map<String, BitSet>> bitsets = new HashMap<>();
+    private final Map<Long, Integer> docNumbers = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private long[] externalIds = new long[64];
+    private Map<String, Collection<String>>[] docValues = newValuesArray(64);
+    private int nextDoc;
+
+    public FacetIndex(List<String> facets) {
+        this.facets = List.copyOf(facets);
+        facets.forEach(facet -> bitsets.put(facet, new HashMap<>()));
+    }
+
+    /** Indexe ou remplace le document ; les facettes absentes de {@code values} restent vides. */
+    public void put(long id, Map<String, ? extends Collection<String>> values) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            int docNumber = docNumbers.computeIfAbsent(id, this::allocate);
+            Map<String, Collection<String>> stored = new HashMap<>();
+            values.forEach((facet, facetValues) -> {
+                Map<String, BitSet> byValue = bitsets.get(facet);
+                if (byValue == null) {
+                    throw new IllegalArgumentException("Facette inconnue : " + facet);
+                }
+                List<String> kept = facetValues.stream().filter(value -> value != null && !value.isBlank()).distinct().toList();
+                kept.forEach(value -> byValue.computeIfAbsent(value, v -> new BitSet()).set(docNumber));
+                stored.put(facet, kept);
+            });
+            docValues[docNumber] = stored;
+            live.set(docNumber);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            bitsets.values().forEach(Map::clear);
+            docNumbers.clear();
+            live.clear();
+            externalIds = new long[64];
+            docValues = newValuesArray(64);
+            nextDoc = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Documents qui portent, pour chaque facette filtrée, au moins une des valeurs demandées.
+     *
+     * @param filters    valeurs retenues par facette ; une facette absente ou vide ne filtre pas
+     * @param candidates restreint la recherche à ces ids (résultat d'une recherche texte), ou null
+     */
+    public Result query(Map<String, ? extends Set<String>> filters, Collection<Long> candidates) {
+        lock.readLock().lock();
+        try {
+            BitSet base = (BitSet) live.clone();
+            if (candidates != null) {
+                BitSet allowed = new BitSet();
+                for (Long id : candidates) {
+                    Integer docNumber = docNumbers.get(id);
+                    if (docNumber != null) {
+                        allowed.set(docNumber);
+                    }
+                }
+                base.and(allowed);
+            }
+
+            Map<String, BitSet> selections = new HashMap<>();
+            for (String facet : facets) {
+                Set<String> wanted = filters.get(facet);
+                if (wanted != null && !wanted.isEmpty()) {
+                    BitSet union = new BitSet();
+                    wanted.forEach(value -> {
+                        BitSet docs = bitsets.get(facet).get(value);
+                        if (docs != null) {
+                            union.or(docs);
+                        }
+                    });
+                    selections.put(facet, union);
+                }
+            }
+
+            BitSet matching = (BitSet) base.clone();
+            selections.values().forEach(matching::and);
+
+            Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+            for (String facet : facets) {
+                // Même filtre que le résultat, sauf celui de la facette comptée
+                BitSet scope = matching;
+                if (selections.containsKey(facet)) {
+                    scope = (BitSet) base.clone();
+                    for (Map.Entry<String, BitSet> selection : selections.entrySet()) {
+                        if (!selection.getKey().equals(facet)) {
+                            scope.and(selection.getValue());
+                        }
+                    }
+                }
+                counts.put(facet, count(bitsets.get(facet), scope));
+            }
+
+            List<Long> ids = new ArrayList<>(matching.cardinality());
+            for (int doc = matching.nextSetBit(0); doc >= 0; doc = matching.nextSetBit(doc + 1)) {
+                ids.add(externalIds[doc]);
+            }
+            return new Result(ids, counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Valeurs par nombre décroissant puis par ordre alphabétique ; les valeurs à zéro sont omises
+    private static Map<String, Integer> count(Map<String, BitSet> byValue, BitSet scope) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+        byValue.forEach((value, docs) -> {
+            BitSet hits = (BitSet) docs.clone();
+            hits.and(scope);
+            int count = hits.cardinality();
+            if (count > 0) {
+                entries.add(Map.entry(value, count));
+            }
+        });
+        entries.sort(Map.Entry.<String, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey(Comparator.naturalOrder())));
+        Map<String, Integer> result = new LinkedHashMap<>();
+        entries.forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+
+    private void removeLocked(long id) {
+        Integer docNumber = docNumbers.get(id);
+        if (docNumber == null || !live.get(docNumber)) {
+            return;
+        }
+        docValues[docNumber].forEach((facet, values) -> {
+            Map<String, BitSet> byValue = bitsets.get(facet);
+            for (String value : values) {
+                BitSet docs = byValue.get(value);
+                docs.clear(docNumber);
+                if (docs.isEmpty()) {
+                    byValue.remove(value);
+                }
+            }
+        });
+        docValues[docNumber] = null;
+        live.clear(docNumber);
+    }
+
+    // Un id garde son numéro interne d'une mise à jour à l'autre
+    private int allocate(long id) {
+        int docNumber = nextDoc++;
+        if (docNumber == externalIds.length) {
+            externalIds = Arrays.copyOf(externalIds, docNumber * 2);
+            docValues = Arrays.copyOf(docValues, docNumber * 2);
+        }
+        externalIds[docNumber] = id;
+        return docNumber;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Collection<String>>[] newValuesArray(int capacity) {
+        return new Map[capacity];
+    }
+}
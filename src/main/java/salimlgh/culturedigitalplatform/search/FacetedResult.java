@@ -0,0 +1,16 @@
+package salimlgh.culturedigitalplatform.search;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Résultat d'une recherche à facettes : éléments retenus (éventuellement omis),
+ * leur nombre et les compteurs par facette puis par valeur.
+ */
+public record FacetedResult<T>(List<T> items, int total, Map<String, Map<String, Integer>> facets) {
+
+    public <R> FacetedResult<R> map(Function<? super T, ? extends R> mapper) {
+        return new FacetedResult<>(items == null ? null : items.stream().<R>map(mapper).toList(), total, facets);
+    }
+}
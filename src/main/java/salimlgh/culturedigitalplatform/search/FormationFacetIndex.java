@@ -0,0 +1,74 @@
+package salimlgh.culturedigitalplatform.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import salimlgh.culturedigitalplatform.entities.Formation;
+import salimlgh.culturedigitalplatform.event.CatalogChangeEvent;
+import salimlgh.culturedigitalplatform.repository.FormationRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Facettes des formations publiées (difficulté, catégorie, tags), tenues en mémoire
+ * et mises à jour après chaque commit d'une écriture d'administration.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class FormationFacetIndex {
+
+    public static final String DIFFICULTY = "difficulty";
+    public static final String CATEGORY = "category";
+    public static final String TAGS = "tags";
+
+    private final FormationRepository formationRepository;
+
+    private final FacetIndex index = new FacetIndex(List.of(DIFFICULTY, CATEGORY, TAGS));
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        index.clear();
+        List<Formation> formations = formationRepository.findPublishedFormations();
+        formations.forEach(this::indexFormation);
+        log.info("Index de facettes construit : {} formations", formations.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        if (event.getEntityType() != CatalogChangeEvent.EntityType.FORMATION) {
+            return;
+        }
+        formationRepository.findById(event.getEntityId())
+                .filter(Formation::isPublished)
+                .ifPresentOrElse(this::indexFormation, () -> index.remove(event.getEntityId()));
+    }
+
+    /**
+     * Formations publiées correspondant aux filtres, avec les compteurs par facette.
+     *
+     * @param candidates ids issus d'une recherche texte, ou null pour tout le catalogue
+     */
+    public FacetIndex.Result query(Set<String> difficulties, Set<String> categories, Set<String> tags,
+                                   Collection<Long> candidates) {
+        return index.query(Map.of(DIFFICULTY, difficulties, CATEGORY, categories, TAGS, tags), candidates);
+    }
+
+    private void indexFormation(Formation formation) {
+        index.put(formation.getId(), Map.of(
+                DIFFICULTY, formation.getDifficulty() == null ? List.of() : List.of(formation.getDifficulty().name()),
+                CATEGORY, formation.getCategory() == null ? List.of() : List.of(formation.getCategory()),
+                TAGS, formation.getTags() == null ? List.of() : new ArrayList<>(formation.getTags())));
+    }
+}
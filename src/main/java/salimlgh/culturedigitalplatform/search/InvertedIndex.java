@@ -0,0 +1,339 @@
+package salimlgh.culturedigitalplatform.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index inversé en mémoire avec classement BM25.
+ * Chaque document est identifié par un id externe (id JPA) et reçoit un numéro interne ;
+ * les listes de postings sont deux tableaux d'int triés (numéros de documents, fréquences).
+ * Les champs peuvent être pondérés : un terme du titre compte plusieurs fois dans la fréquence.
+ * Le vocabulaire est doublé d'un index de trigrammes pour la recherche approchée.
+ * Les lectures sont concurrentes, les écritures exclusives.
+ */
+public class InvertedIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float PREFIX_WEIGHT = 0.5f;
+    private static final int MIN_PREFIX_LENGTH = 3;
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+    private static final int MAX_FUZZY_EXPANSIONS = 8;
+    // Plus haut score d'abord, puis id croissant
+    private static final Comparator<Hit> RANKING =
+            Comparator.comparingDouble(Hit::score).reversed().thenComparingLong(Hit::id);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, PostingList> postings = new TreeMap<>();
+    private final TrigramIndex trigrams = new TrigramIndex();
+    // Tampons de scores rendus après chaque recherche, remis à zéro au passage : au plus un par cœur
+    private final BlockingQueue<float[]> scoreBuffers =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+    private final Map<Long, Integer> docNumbers = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private long[] externalIds = new long[64];
+    private int[] docLengths = new int[64];
+    private String[][] docTerms = new String[64][];
+    private int nextDoc;
+    private int liveCount;
+    private long totalLength;
+
+    /** Document à indexer : une suite de champs textuels pondérés. */
+    public static class Document {
+        private final long id;
+        private final Map<String, Integer> termFrequencies = new LinkedHashMap<>();
+        private int length;
+
+        public Document(long id) {
+            this.id = id;
+        }
+
+        public Document field(String text, int weight) {
+            for (String term : TextAnalyzer.tokenize(text)) {
+                termFrequencies.merge(term, weight, Integer::sum);
+                length += weight;
+            }
+            return this;
+        }
+    }
+
+    /** Résultat de recherche : id externe et score BM25. */
+    public record Hit(long id, float score) {
+    }
+
+    /** Tranche de résultats classés et nombre total de documents correspondants. */
+    public record Page(List<Hit> hits, int total) {
+    }
+
+    public void put(Document doc) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(doc.id);
+            if (doc.termFrequencies.isEmpty()) {
+                return;
+            }
+            int docNumber = docNumbers.computeIfAbsent(doc.id, id -> allocate(id));
+            String[] terms = doc.termFrequencies.keySet().toArray(new String[0]);
+            for (Map.Entry<String, Integer> entry : doc.termFrequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), this::newTerm).add(docNumber, entry.getValue());
+            }
+            docTerms[docNumber] = terms;
+            docLengths[docNumber] = doc.length;
+            live.set(docNumber);
+            liveCount++;
+            totalLength += doc.length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            trigrams.clear();
+            docNumbers.clear();
+            live.clear();
+            externalIds = new long[64];
+            docLengths = new int[64];
+            docTerms = new String[64][];
+            nextDoc = 0;
+            liveCount = 0;
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recherche « OU » classée par BM25. Un terme de requête d'au moins trois lettres
+     * correspond aussi, avec un poids réduit, aux termes dont il est le préfixe
+     * ("numer" → "numerique"), comme le faisait l'ancien LIKE.
+     */
+    public List<Hit> search(String query, int limit) {
+        return search(query, limit, false);
+    }
+
+    /**
+     * Comme {@link #search(String, int)} ; en mode {@code fuzzy}, chaque terme de requête
+     * correspond aussi aux termes indexés proches (fautes de frappe, via l'index de trigrammes),
+     * avec un poids décroissant selon la distance d'édition.
+     */
+    public List<Hit> search(String query, int limit, boolean fuzzy) {
+        return search(query, 0, limit, fuzzy).hits();
+    }
+
+    /**
+     * Comme {@link #search(String, int, boolean)}, en sautant les {@code offset} premiers
+     * résultats ; le total compte tous les documents correspondants.
+     */
+    public Page search(String query, int offset, int limit, boolean fuzzy) {
+        List<String> queryTerms = TextAnalyzer.tokenize(query);
+        if (queryTerms.isEmpty()) {
+            return new Page(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            if (liveCount == 0) {
+                return new Page(List.of(), 0);
+            }
+            float[] scores = scoreBuffer();
+            Page page = topHits(scores(scores, queryTerms, fuzzy), offset, limit);
+            scoreBuffers.offer(scores);
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private float[] scoreBuffer() {
+        float[] buffer = scoreBuffers.poll();
+        return buffer != null && buffer.length >= nextDoc ? buffer : new float[nextDoc];
+    }
+
+    private float[] scores(float[] scores, List<String> queryTerms, boolean fuzzy) {
+        float avgLength = (float) totalLength / liveCount;
+        for (String term : queryTerms) {
+            Map<String, Float> weights = new HashMap<>();
+            weights.put(term, 1f);
+            if (term.length() >= MIN_PREFIX_LENGTH) {
+                int expansions = 0;
+                for (String expansion : postings.subMap(term, false, term + Character.MAX_VALUE, false).keySet()) {
+                    if (++expansions > MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                    weights.put(expansion, PREFIX_WEIGHT);
+                }
+            }
+            if (fuzzy) {
+                // Les plus proches d'abord, puis les plus fréquents : chaque terme retenu coûte sa liste
+                trigrams.similar(term).stream()
+                        .sorted(Comparator.comparingInt(TrigramIndex.Match::distance)
+                                .thenComparing(match -> -postings.get(match.term()).size))
+                        .limit(MAX_FUZZY_EXPANSIONS)
+                        .forEach(match -> weights.merge(match.term(), 1f / (1 + match.distance()), Math::max));
+            }
+            for (Map.Entry<String, Float> entry : weights.entrySet()) {
+                PostingList list = postings.get(entry.getKey());
+                if (list != null) {
+                    list.score(scores, entry.getValue(), idf(list.size), avgLength);
+                }
+            }
+        }
+        return scores;
+    }
+
+    // Tas des offset + limit meilleurs (le moins bon en tête) ; le tampon est remis à zéro au passage
+    private Page topHits(float[] scores, int offset, int limit) {
+        int wanted = (int) Math.min(nextDoc, Math.max(0, (long) offset + limit));
+        PriorityQueue<Hit> best = new PriorityQueue<>(Math.max(1, Math.min(wanted, 1024)), RANKING.reversed());
+        int total = 0;
+        for (int doc = 0; doc < nextDoc; doc++) {
+            float score = scores[doc];
+            if (score <= 0) {
+                continue;
+            }
+            scores[doc] = 0;
+            total++;
+            if (wanted == 0) {
+                continue;
+            }
+            if (best.size() < wanted) {
+                best.add(new Hit(externalIds[doc], score));
+            } else if (score >= best.peek().score()) {
+                Hit hit = new Hit(externalIds[doc], score);
+                if (RANKING.compare(hit, best.peek()) < 0) {
+                    best.poll();
+                    best.add(hit);
+                }
+            }
+        }
+        if (offset >= total || limit <= 0) {
+            return new Page(List.of(), total);
+        }
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(RANKING);
+        return new Page(new ArrayList<>(hits.subList(offset, hits.size())), total);
+    }
+
+    private float idf(int docFrequency) {
+        return (float) Math.log(1 + (liveCount - docFrequency + 0.5) / (docFrequency + 0.5));
+    }
+
+    private void removeLocked(long id) {
+        Integer docNumber = docNumbers.get(id);
+        if (docNumber == null || !live.get(docNumber)) {
+            return;
+        }
+        for (String term : docTerms[docNumber]) {
+            PostingList list = postings.get(term);
+            if (list != null && list.remove(docNumber) && list.size == 0) {
+                postings.remove(term);
+                trigrams.remove(term);
+            }
+        }
+        totalLength -= docLengths[docNumber];
+        docTerms[docNumber] = null;
+        docLengths[docNumber] = 0;
+        live.clear(docNumber);
+        liveCount--;
+    }
+
+    private PostingList newTerm(String term) {
+        trigrams.add(term);
+        return new PostingList();
+    }
+
+    // Les numéros internes sont conservés pour un id donné : une mise à jour réutilise le même
+    private int allocate(long id) {
+        int docNumber = nextDoc++;
+        if (docNumber == externalIds.length) {
+            int capacity = externalIds.length * 2;
+            externalIds = Arrays.copyOf(externalIds, capacity);
+            docLengths = Arrays.copyOf(docLengths, capacity);
+            docTerms = Arrays.copyOf(docTerms, capacity);
+        }
+        externalIds[docNumber] = id;
+        return docNumber;
+    }
+
+    private final class PostingList {
+        private int[] docs = new int[4];
+        private int[] freqs = new int[4];
+        private int size;
+
+        void add(int doc, int freq) {
+            int pos = Arrays.binarySearch(docs, 0, size, doc);
+            if (pos >= 0) {
+                freqs[pos] = freq;
+                return;
+            }
+            pos = -pos - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            System.arraycopy(docs, pos, docs, pos + 1, size - pos);
+            System.arraycopy(freqs, pos, freqs, pos + 1, size - pos);
+            docs[pos] = doc;
+            freqs[pos] = freq;
+            size++;
+        }
+
+        boolean remove(int doc) {
+            int pos = Arrays.binarySearch(docs, 0, size, doc);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(docs, pos + 1, docs, pos, size - pos - 1);
+            System.arraycopy(freqs, pos + 1, freqs, pos, size - pos - 1);
+            size--;
+            if (size > 0 && size < docs.length / 4) {
+                docs = Arrays.copyOf(docs, docs.length / 2);
+                freqs = Arrays.copyOf(freqs, freqs.length / 2);
+            }
+            return true;
+        }
+
+        void score(float[] scores, float weight, float idf, float avgLength) {
+            for (int i = 0; i < size; i++) {
+                int doc = docs[i];
+                float tf = freqs[i];
+                float norm = K1 * (1 - B + B * docLengths[doc] / avgLength);
+                scores[doc] += weight * idf * tf * (K1 + 1) / (tf + norm);
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package salimlgh.culturedigitalplatform.search;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.function.IntConsumer;
+
+/**
+ * Automate d'Aho-Corasick compilé : trouve tous les mots-clés présents dans un texte en un
+ * seul passage, sans allocation. Texte et mots-clés sont repliés caractère par caractère
+ * comme dans {@link TextAnalyzer} (minuscules, accents retirés) ; tout autre caractère
+ * devient un séparateur, et les séparateurs consécutifs n'en font qu'un ("montre-moi" et
+ * "montre   moi" valent "montre moi").
+ * Un mot-clé ne correspond qu'en début de mot ("cours" trouve "courses" mais pas "parcours") :
+ * il est compilé précédé d'un séparateur, et le texte est lu comme s'il en commençait par un.
+ * Immuable une fois construit, donc utilisable sans verrou.
+ */
+public final class KeywordAutomaton {
+
+    private static final char SEPARATOR = ' ';
+    // Caractère ignoré au repli (marque diacritique d'un texte déjà décomposé)
+    private static final char SKIP = 0;
+    private static final char[] FOLD = new char[0x3000];
+
+    static {
+        for (char c = 0; c < FOLD.length; c++) {
+            FOLD[c] = foldSlow(c);
+        }
+    }
+
+    private final int alphabetSize;
+    private final int[] symbols;
+    // Transitions complètes (automate déterministe) : état * alphabetSize + symbole
+    private final int[] delta;
+    // Mots-clés reconnus en arrivant dans chaque état, suffixes compris
+    private final int[][] outputs;
+
+    private KeywordAutomaton(int alphabetSize, int[] symbols, int[] delta, int[][] outputs) {
+        this.alphabetSize = alphabetSize;
+        this.symbols = symbols;
+        this.delta = delta;
+        this.outputs = outputs;
+    }
+
+    /** Le numéro d'un mot-clé, passé aux correspondances, est sa position dans la liste. */
+    public static KeywordAutomaton compile(List<String> keywords) {
+        // Alphabet réduit aux caractères des mots-clés ; tout autre caractère ramène à la racine
+        int[] symbols = new int[FOLD.length];
+        Arrays.fill(symbols, -1);
+        List<String> folded = new ArrayList<>();
+        int alphabetSize = 0;
+        for (String keyword : keywords) {
+            String pattern = SEPARATOR + fold(keyword).strip();
+            folded.add(pattern);
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (c < symbols.length && symbols[c] < 0) {
+                    symbols[c] = alphabetSize++;
+                }
+            }
+        }
+
+        // Trie
+        List<Map<Integer, Integer>> children = new ArrayList<>();
+        List<List<Integer>> matches = new ArrayList<>();
+        children.add(new HashMap<>());
+        matches.add(new ArrayList<>());
+        for (int k = 0; k < folded.size(); k++) {
+            String pattern = folded.get(k);
+            if (pattern.length() == 1) {
+                continue;
+            }
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (c >= symbols.length) {
+                    // Caractère hors table : ce mot-clé ne peut pas être reconnu
+                    state = -1;
+                    break;
+                }
+                int symbol = symbols[c];
+                Integer next = children.get(state).get(symbol);
+                if (next == null) {
+                    next = children.size();
+                    children.add(new HashMap<>());
+                    matches.add(new ArrayList<>());
+                    children.get(state).put(symbol, next);
+                }
+                state = next;
+            }
+            if (state > 0) {
+                matches.get(state).add(k);
+            }
+        }
+
+        // Liens d'échec en largeur, repliés dans les transitions
+        int states = children.size();
+        int[] delta = new int[Math.max(1, states * alphabetSize)];
+        int[] fail = new int[states];
+        int[][] outputs = new int[states][];
+        outputs[0] = new int[0];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int symbol = 0; symbol < alphabetSize; symbol++) {
+            Integer child = children.get(0).get(symbol);
+            if (child != null) {
+                fail[child] = 0;
+                delta[symbol] = child;
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            List<Integer> own = matches.get(state);
+            int[] inherited = outputs[fail[state]];
+            int[] output = new int[own.size() + inherited.length];
+            for (int i = 0; i < own.size(); i++) {
+                output[i] = own.get(i);
+            }
+            System.arraycopy(inherited, 0, output, own.size(), inherited.length);
+            outputs[state] = output;
+            for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                Integer child = children.get(state).get(symbol);
+                int fallback = delta[fail[state] * alphabetSize + symbol];
+                if (child != null) {
+                    fail[child] = fallback;
+                    delta[state * alphabetSize + symbol] = child;
+                    queue.add(child);
+                } else {
+                    delta[state * alphabetSize + symbol] = fallback;
+                }
+            }
+        }
+        return new KeywordAutomaton(alphabetSize, symbols, delta, outputs);
+    }
+
+    /** Appelle {@code onMatch} avec le numéro de chaque mot-clé trouvé, à chaque occurrence. */
+    public void scan(CharSequence text, IntConsumer onMatch) {
+        int state = step(0, SEPARATOR);
+        char previous = SEPARATOR;
+        for (int i = 0; i < text.length(); i++) {
+            char c = fold(text.charAt(i));
+            if (c == SKIP || (c == SEPARATOR && previous == SEPARATOR)) {
+                continue;
+            }
+            previous = c;
+            state = step(state, c);
+            for (int keyword : outputs[state]) {
+                onMatch.accept(keyword);
+            }
+        }
+    }
+
+    private int step(int state, char c) {
+        int symbol = c < symbols.length ? symbols[c] : -1;
+        return symbol < 0 ? 0 : delta[state * alphabetSize + symbol];
+    }
+
+    /** Repli d'un texte entier, séparateurs consécutifs fusionnés. */
+    public static String fold(String text) {
+        StringBuilder folded = new StringBuilder(text.length());
+        char previous = SEPARATOR;
+        for (int i = 0; i < text.length(); i++) {
+            char c = fold(text.charAt(i));
+            if (c == SKIP || (c == SEPARATOR && previous == SEPARATOR)) {
+                continue;
+            }
+            folded.append(c);
+            previous = c;
+        }
+        return folded.toString();
+    }
+
+    private static char fold(char c) {
+        return c < FOLD.length ? FOLD[c] : foldSlow(c);
+    }
+
+    private static char foldSlow(char c) {
+        if (Character.getType(c) == Character.NON_SPACING_MARK) {
+            return SKIP;
+        }
+        if (!Character.isLetterOrDigit(c)) {
+            return SEPARATOR;
+        }
+        String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+        return Character.toLowerCase(decomposed.charAt(0));
+    }
+}
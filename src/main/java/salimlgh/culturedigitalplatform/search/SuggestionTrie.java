@@ -0,0 +1,278 @@
+package salimlgh.culturedigitalplatform.search;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Trie d'autocomplétion pondéré. Chaque libellé est indexé sous sa forme repliée
+ * (minuscules, sans accents) et sous chacun de ses suffixes commençant à un mot,
+ * pour que "flam" propose "Peinture flamande".
+ * Un libellé ajouté plusieurs fois cumule ses poids : une catégorie partagée par
+ * dix formations passe devant un tag isolé.
+ * Chaque nœud garde le poids maximal de son sous-arbre, ce qui permet de lire les
+ * k meilleures complétions par un parcours best-first sans visiter tout le sous-arbre.
+ * Les lectures sont concurrentes, les écritures exclusives.
+ */
+public class SuggestionTrie {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MAX_KEY_LENGTH = 64;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private Node root = new Node();
+
+    /** Ajoute {@code weight} au poids du libellé, en l'insérant s'il est nouveau. */
+    public void add(String label, int weight) {
+        String folded = normalize(label);
+        if (folded.isEmpty() || weight <= 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.get(folded);
+            if (entry == null) {
+                entry = new Entry(label.strip(), folded);
+                entries.put(folded, entry);
+                for (String key : keys(folded)) {
+                    insert(key, entry);
+                }
+            }
+            entry.weight += weight;
+            refresh(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Retire {@code weight} au poids du libellé ; il disparaît quand son poids tombe à zéro. */
+    public void remove(String label, int weight) {
+        String folded = normalize(label);
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.get(folded);
+            if (entry == null) {
+                return;
+            }
+            entry.weight -= weight;
+            if (entry.weight <= 0) {
+                entry.weight = 0;
+                entries.remove(folded);
+            }
+            refresh(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            root = new Node();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Nœuds du trie, racine comprise : les branches vidées par remove ne doivent pas rester
+    int nodeCount() {
+        lock.readLock().lock();
+        try {
+            return root.count();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Les {@code limit} libellés les plus lourds dont un mot commence par {@code prefix}. */
+    public List<String> suggest(String prefix, int limit) {
+        String folded = normalize(prefix);
+        if (folded.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < folded.length() && node != null; i++) {
+                node = node.child(folded.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            // File de priorité mêlant nœuds (bornés par leur meilleur poids) et libellés ;
+            // à poids égal, un libellé passe avant un nœud pour s'arrêter au plus tôt
+            PriorityQueue<Candidate> queue = new PriorityQueue<>(Comparator
+                    .comparingInt(Candidate::weight).reversed()
+                    .thenComparing(candidate -> candidate.entry() == null));
+            queue.add(new Candidate(node, null, node.best));
+            Set<Entry> seen = new LinkedHashSet<>();
+            while (!queue.isEmpty() && seen.size() < limit) {
+                Candidate candidate = queue.poll();
+                if (candidate.entry() != null) {
+                    seen.add(candidate.entry());
+                    continue;
+                }
+                Node current = candidate.node();
+                for (Entry entry : current.terminals) {
+                    if (!seen.contains(entry)) {
+                        queue.add(new Candidate(null, entry, entry.weight));
+                    }
+                }
+                for (int i = 0; i < current.childCount; i++) {
+                    queue.add(new Candidate(current.children[i], null, current.children[i].best));
+                }
+            }
+            return seen.stream().map(entry -> entry.label).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String normalize(String text) {
+        return SEPARATORS.matcher(TextAnalyzer.fold(text)).replaceAll(" ").strip();
+    }
+
+    // Forme complète puis suffixes commençant à chaque mot suivant
+    private static Set<String> keys(String folded) {
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add(truncate(folded));
+        for (int i = folded.indexOf(' '); i >= 0; i = folded.indexOf(' ', i + 1)) {
+            keys.add(truncate(folded.substring(i + 1)));
+        }
+        return keys;
+    }
+
+    private static String truncate(String key) {
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    private void insert(String key, Entry entry) {
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childOrCreate(key.charAt(i));
+        }
+        node.terminals = Arrays.copyOf(node.terminals, node.terminals.length + 1);
+        node.terminals[node.terminals.length - 1] = entry;
+    }
+
+    private void refresh(Entry entry) {
+        for (String key : keys(entry.folded)) {
+            refresh(root, key, 0, entry);
+        }
+    }
+
+    // Recalcule les maxima le long du chemin de la clé, en élaguant les branches devenues vides
+    private boolean refresh(Node node, String key, int depth, Entry entry) {
+        if (depth == key.length()) {
+            if (entry.weight == 0) {
+                node.terminals = Arrays.stream(node.terminals).filter(e -> e != entry).toArray(Entry[]::new);
+            }
+        } else {
+            char c = key.charAt(depth);
+            Node child = node.child(c);
+            if (child != null && refresh(child, key, depth + 1, entry)) {
+                node.removeChild(c);
+            }
+        }
+        node.recomputeBest();
+        return node != root && node.terminals.length == 0 && node.childCount == 0;
+    }
+
+    private record Candidate(Node node, Entry entry, int weight) {
+    }
+
+    private static final class Entry {
+        private final String label;
+        private final String folded;
+        private int weight;
+
+        Entry(String label, String folded) {
+            this.label = label;
+            this.folded = folded;
+        }
+    }
+
+    // Enfants rangés dans deux tableaux triés par caractère plutôt que dans une Map par nœud
+    private static final class Node {
+        private static final Entry[] NO_ENTRIES = new Entry[0];
+
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private int childCount;
+        private Entry[] terminals = NO_ENTRIES;
+        private int best;
+
+        Node child(char c) {
+            int pos = Arrays.binarySearch(keys, 0, childCount, c);
+            return pos >= 0 ? children[pos] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int pos = Arrays.binarySearch(keys, 0, childCount, c);
+            if (pos >= 0) {
+                return children[pos];
+            }
+            pos = -pos - 1;
+            if (childCount == keys.length) {
+                int capacity = Math.max(2, childCount * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, pos, keys, pos + 1, childCount - pos);
+            System.arraycopy(children, pos, children, pos + 1, childCount - pos);
+            Node child = new Node();
+            keys[pos] = c;
+            children[pos] = child;
+            childCount++;
+            return child;
+        }
+
+        void removeChild(char c) {
+            int pos = Arrays.binarySearch(keys, 0, childCount, c);
+            if (pos < 0) {
+                return;
+            }
+            System.arraycopy(keys, pos + 1, keys, pos, childCount - pos - 1);
+            System.arraycopy(children, pos + 1, children, pos, childCount - pos - 1);
+            children[--childCount] = null;
+        }
+
+        void recomputeBest() {
+            int max = 0;
+            for (Entry entry : terminals) {
+                max = Math.max(max, entry.weight);
+            }
+            for (int i = 0; i < childCount; i++) {
+                max = Math.max(max, children[i].best);
+            }
+            best = max;
+        }
+
+        int count() {
+            int count = 1;
+            for (int i = 0; i < childCount; i++) {
+                count += children[i].count();
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package salimlgh.culturedigitalplatform.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Découpage des textes du catalogue en termes : minuscules, accents retirés
+ * ("évaluation" → "evaluation"), mots vides français et anglais ignorés.
+ */
+public final class TextAnalyzer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "le", "la", "les", "de", "des", "du", "un", "une", "et", "en", "au", "aux",
+            "pour", "par", "sur", "dans", "avec", "ou", "est", "ce", "ces", "qui", "que",
+            "the", "of", "and", "to", "in", "for", "on", "with");
+
+    private TextAnalyzer() {
+    }
+
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(fold(text))) {
+            if (token.length() >= 2 && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,263 @@
+package salimlgh.culturedigitalplatform.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index de trigrammes sur le vocabulaire d'un {@link InvertedIndex}, pour la recherche
+ * tolérante aux fautes de frappe. Les termes (déjà en minuscules et sans accents) sont
+ * découpés en trigrammes avec bornes ("$ev", "eva", ...) ; un terme de requête ne compare sa
+ * distance d'édition qu'aux termes qui partagent assez de trigrammes avec lui. Pour les termes
+ * courts ou moyens, où cette borne ne filtre presque plus rien, ce sont les bigrammes, indexés
+ * par longueur de terme pour ne parcourir que les longueurs compatibles.
+ * Un terme retiré quitte toutes les listes et son numéro est réutilisé : l'index ne garde
+ * que le vocabulaire courant.
+ * Non synchronisé : l'appelant (InvertedIndex) protège les accès par son verrou.
+ */
+class TrigramIndex {
+
+    /** Terme du vocabulaire proche d'un terme de requête. */
+    record Match(String term, int distance) {
+    }
+
+    // En deçà de ce nombre de trigrammes communs garantis, les bigrammes par longueur filtrent mieux
+    private static final int MIN_SHARED_TRIGRAMS = 5;
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final Map<String, IntList> postings = new HashMap<>();
+    // Clé : longueur du terme et bigramme ("5:co")
+    private final Map<String, IntList> bigramPostings = new HashMap<>();
+    private final IntList freeIds = new IntList();
+    private String[] terms = new String[256];
+    // Lettres présentes dans chaque terme (voir letters), lues avant le terme lui-même
+    private int[] letters = new int[256];
+    private int nextId;
+
+    void add(String term) {
+        if (termIds.containsKey(term)) {
+            return;
+        }
+        int id;
+        if (freeIds.size > 0) {
+            id = freeIds.values[--freeIds.size];
+        } else {
+            id = nextId++;
+            if (id == terms.length) {
+                terms = Arrays.copyOf(terms, id * 2);
+                letters = Arrays.copyOf(letters, id * 2);
+            }
+        }
+        terms[id] = term;
+        letters[id] = letters(term);
+        termIds.put(term, id);
+        for (String trigram : grams(term, 3)) {
+            postings.computeIfAbsent(trigram, t -> new IntList()).add(id);
+        }
+        for (String bigram : grams(term, 2)) {
+            bigramPostings.computeIfAbsent(term.length() + ":" + bigram, t -> new IntList()).add(id);
+        }
+    }
+
+    void remove(String term) {
+        Integer id = termIds.remove(term);
+        if (id == null) {
+            return;
+        }
+        for (String trigram : grams(term, 3)) {
+            removeFrom(postings, trigram, id);
+        }
+        for (String bigram : grams(term, 2)) {
+            removeFrom(bigramPostings, term.length() + ":" + bigram, id);
+        }
+        terms[id] = null;
+        freeIds.add(id);
+    }
+
+    void clear() {
+        termIds.clear();
+        postings.clear();
+        bigramPostings.clear();
+        freeIds.size = 0;
+        terms = new String[256];
+        letters = new int[256];
+        nextId = 0;
+    }
+
+    int size() {
+        return termIds.size();
+    }
+
+    int trigramCount() {
+        return postings.size();
+    }
+
+    /**
+     * Termes du vocabulaire à une distance d'édition (Damerau, adjacente) au plus
+     * {@link #maxDistance(int)} du terme donné, terme exact compris.
+     */
+    List<Match> similar(String term) {
+        int maxDistance = maxDistance(term.length());
+        // Une substitution ou une suppression ôte au plus q q-grammes du terme, une
+        // transposition q + 1 : en deçà de ce nombre de q-grammes communs, aucun candidat
+        Set<String> trigrams = grams(term, 3);
+        int minShared = trigrams.size() - 4 * maxDistance;
+        IntList candidates;
+        if (minShared >= MIN_SHARED_TRIGRAMS) {
+            candidates = sharing(postings, trigrams, minShared);
+        } else {
+            Set<String> bigrams = new LinkedHashSet<>();
+            for (int length = Math.max(1, term.length() - maxDistance); length <= term.length() + maxDistance; length++) {
+                for (String bigram : grams(term, 2)) {
+                    bigrams.add(length + ":" + bigram);
+                }
+            }
+            candidates = sharing(bigramPostings, bigrams, Math.max(1, grams(term, 2).size() - 3 * maxDistance));
+        }
+
+        // Lignes de la distance d'édition partagées par tous les candidats de la requête
+        int[][] rows = new int[3][term.length() + 1];
+        int termLetters = letters(term);
+        List<Match> matches = new ArrayList<>();
+        for (int i = 0; i < candidates.size; i++) {
+            int id = candidates.values[i];
+            // Une édition fait disparaître au plus une lettre de chaque côté : filtre sans lire le terme
+            if (Integer.bitCount(termLetters & ~letters[id]) > maxDistance
+                    || Integer.bitCount(letters[id] & ~termLetters) > maxDistance) {
+                continue;
+            }
+            String candidate = terms[id];
+            if (Math.abs(candidate.length() - term.length()) > maxDistance) {
+                continue;
+            }
+            int distance = distance(candidate, term, maxDistance, rows);
+            if (distance <= maxDistance) {
+                matches.add(new Match(candidate, distance));
+            }
+        }
+        return matches;
+    }
+
+    // Compteurs saturés à minShared : un octet suffit, quel que soit le nombre de q-grammes
+    private IntList sharing(Map<String, IntList> grams, Set<String> queryGrams, int required) {
+        int minShared = Math.min(required, Byte.MAX_VALUE);
+        byte[] shared = new byte[nextId];
+        IntList candidates = new IntList();
+        for (String gram : queryGrams) {
+            IntList ids = grams.get(gram);
+            if (ids == null) {
+                continue;
+            }
+            for (int i = 0; i < ids.size; i++) {
+                int id = ids.values[i];
+                if (shared[id] < minShared && ++shared[id] == minShared) {
+                    candidates.add(id);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private static <K> void removeFrom(Map<K, IntList> lists, K key, int id) {
+        IntList ids = lists.get(key);
+        if (ids != null && ids.remove(id) && ids.size == 0) {
+            lists.remove(key);
+        }
+    }
+
+    static int maxDistance(int length) {
+        if (length <= 2) {
+            return 0;
+        }
+        return length <= 5 ? 1 : 2;
+    }
+
+    // Un bit par lettre ; les autres caractères se partagent les bits restants, ce qui ne fait qu'affaiblir le filtre
+    private static int letters(String term) {
+        int mask = 0;
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            mask |= 1 << (c >= 'a' && c <= 'z' ? c - 'a' : 26 + c % 6);
+        }
+        return mask;
+    }
+
+    private static Set<String> grams(String term, int q) {
+        String padded = "$" + term + "$";
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = 0; i + q <= padded.length(); i++) {
+            result.add(padded.substring(i, i + q));
+        }
+        if (result.isEmpty()) {
+            result.add(padded);
+        }
+        return result;
+    }
+
+    /** Distance d'édition avec transpositions adjacentes, arrêtée dès que max est dépassé. */
+    static int distance(String a, String b, int max) {
+        return distance(a, b, max, new int[3][b.length() + 1]);
+    }
+
+    // rows : trois lignes d'au moins b.length() + 1 cases, réutilisées d'un appel à l'autre
+    private static int distance(String a, String b, int max, int[][] rows) {
+        int n = a.length();
+        int m = b.length();
+        int[] previous2 = rows[0];
+        int[] previous = rows[1];
+        int[] current = rows[2];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                char cb = b.charAt(j - 1);
+                int cost = ca == cb ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && ca == b.charAt(j - 2) && a.charAt(i - 2) == cb) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[m];
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        // L'ordre n'importe pas : le dernier élément prend la place du retiré
+        boolean remove(int value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) {
+                    values[i] = values[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
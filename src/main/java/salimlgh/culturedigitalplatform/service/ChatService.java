@@ -1,32 +1,36 @@
 package salimlgh.culturedigitalplatform.service;
 
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
-import org.springframework.ai.chat.ChatClient;
-import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.chat.prompt.SystemPromptTemplate;
 import org.springframework.stereotype.Service;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import salimlgh.culturedigitalplatform.chat.ChatAnswerCache;
+import salimlgh.culturedigitalplatform.chat.ChatContextRetriever;
+import salimlgh.culturedigitalplatform.chat.ChatIntent;
+import salimlgh.culturedigitalplatform.chat.ChatIntentClassifier;
+import salimlgh.culturedigitalplatform.chat.ChatKnowledge;
+import salimlgh.culturedigitalplatform.chat.ChatKnowledgeStore;
+import salimlgh.culturedigitalplatform.chat.ChatModelGuard;
+import salimlgh.culturedigitalplatform.chat.ChatModelUnavailableException;
+import salimlgh.culturedigitalplatform.chat.ChatSingleFlight;
 import salimlgh.culturedigitalplatform.dtos.ChatResponse;
-import salimlgh.culturedigitalplatform.entities.Course;
-import salimlgh.culturedigitalplatform.entities.Formation;
-import salimlgh.culturedigitalplatform.entities.Quiz;
-import salimlgh.culturedigitalplatform.repository.CourseRepository;
-import salimlgh.culturedigitalplatform.repository.FormationRepository;
-import salimlgh.culturedigitalplatform.repository.QuizRepository;
 
 @Service
 @AllArgsConstructor
 @Slf4j
 public class ChatService {
-    private final ChatClient chatClient;
-    private final CourseRepository courseRepository;
-    private final FormationRepository formationRepository;
-    private final QuizRepository quizRepository;
+    private final ChatModelGuard chatModelGuard;
+    private final ChatSingleFlight chatSingleFlight;
+    private final ChatIntentClassifier chatIntentClassifier;
+    private final ChatKnowledgeStore chatKnowledgeStore;
+    private final ChatContextRetriever chatContextRetriever;
+    private final ChatAnswerCache chatAnswerCache;
 
     private static final String SYSTEM_PROMPT = """
             Tu es un assistant virtuel spécialisé dans la plateforme CultureDigitalPlatform.
@@ -35,134 +39,170 @@ public class ChatService {
             Si tu ne connais pas la réponse, dis-le honnêtement.
             """;
 
-    public ChatResponse ask(String question) {
+    /**
+     * Réponse à une question. Les réponses sans modèle sont immédiates ; l'appel au modèle
+     * tourne sur son propre pool (voir ChatModelGuard), sans occuper le thread de la requête.
+     */
+    public CompletableFuture<ChatResponse> ask(String question) {
         log.info("Réception d'une nouvelle question : {}", question);
         
         try {
-            // 1. Vérification des salutations
-            if (isGreeting(question)) {
-                log.info("Question détectée comme salutation");
-                return handleGreeting();
+            // 1 à 4. Salutation, listes et cache : réponses sans appel au modèle
+            ChatKnowledge knowledge = chatKnowledgeStore.knowledge();
+            ChatResponse direct = answerWithoutModel(question, knowledge);
+            if (direct != null) {
+                return CompletableFuture.completedFuture(direct);
             }
 
-            // 2. Récupération des données
-            List<Course> courses = courseRepository.findAll();
-            List<Formation> formations = formationRepository.findPublishedFormations();
-            List<Quiz> quizzes = quizRepository.findAll();
-            
-            log.info("Données récupérées - Cours: {}, Formations: {}, Quiz: {}", 
-                    courses.size(), formations.size(), quizzes.size());
-
-            // 3. Traitement selon le type de question
-            if (isCourseListQuestion(question)) {
-                log.info("Question détectée comme demande de liste des cours");
-                return handleCourseList(courses);
-            } else if (isFormationListQuestion(question)) {
-                log.info("Question détectée comme demande de liste des formations");
-                return handleFormationList(formations);
-            } else if (isQuizQuestion(question)) {
-                log.info("Question détectée comme demande concernant les quiz");
-                return handleQuizList(quizzes);
-            }
-
-            // 4. Tentative d'utilisation d'OpenAI pour les autres questions
-            try {
+            // 5. Tentative d'utilisation d'OpenAI, partagée avec les questions identiques en cours
+            String key = ChatSingleFlight.key(knowledge.version(), question);
+            return chatSingleFlight.call(key, () -> {
                 log.debug("Tentative d'utilisation d'OpenAI");
-                String context = buildContext(courses, formations, quizzes);
-                String answer = getOpenAIResponse(question, context);
-                log.info("Réponse OpenAI obtenue avec succès");
-                return new ChatResponse(answer, context, true, null);
-            } catch (Exception e) {
-                log.warn("Erreur OpenAI, utilisation de la réponse de secours", e);
-                return handleFallbackResponse(courses, formations, quizzes);
-            }
+                String context = chatContextRetriever.select(knowledge, question);
+                return chatModelGuard.call(buildPrompt(question, context)).handle((answer, e) -> {
+                    if (e != null) {
+                        logModelFailure(e);
+                        return handleFallbackResponse(knowledge);
+                    }
+                    log.info("Réponse OpenAI obtenue avec succès");
+                    ChatResponse response = new ChatResponse(answer, context, true, null);
+                    chatAnswerCache.put(knowledge.version(), question, response);
+                    return response;
+                });
+            });
         } catch (Exception e) {
             log.error("Erreur critique lors du traitement de la question : {}", question, e);
-            return new ChatResponse(
+            return CompletableFuture.completedFuture(new ChatResponse(
                 "Une erreur inattendue s'est produite. Veuillez réessayer plus tard.",
                 null,
                 false,
                 "Erreur : " + e.getMessage()
-            );
+            ));
         }
     }
 
-    private boolean isGreeting(String question) {
-        String lowerQuestion = question.toLowerCase();
-        return lowerQuestion.contains("bonjour") || 
-               lowerQuestion.contains("salut") || 
-               lowerQuestion.contains("hello") ||
-               lowerQuestion.contains("bonsoir") ||
-               lowerQuestion.contains("coucou");
+    /**
+     * Même logique que {@link #ask(String)}, la réponse étant émise par morceaux : les tokens
+     * du modèle dès qu'il les produit, les réponses sans modèle ligne par ligne.
+     * Si le modèle échoue avant son premier token, la réponse de secours est émise à la place ;
+     * après, l'erreur est propagée.
+     */
+    public Flux<String> stream(String question) {
+        return Flux.defer(() -> {
+            log.info("Réception d'une nouvelle question (flux) : {}", question);
+            ChatKnowledge knowledge = chatKnowledgeStore.knowledge();
+            ChatResponse direct = answerWithoutModel(question, knowledge);
+            if (direct != null) {
+                return chunks(direct.getAnswer());
+            }
+
+            String key = ChatSingleFlight.key(knowledge.version(), question);
+            return chatSingleFlight.stream(key, () -> {
+                String context = chatContextRetriever.select(knowledge, question);
+                StringBuilder answer = new StringBuilder();
+                return chatModelGuard.stream(buildPrompt(question, context))
+                        .doOnNext(answer::append)
+                        .doOnComplete(() -> {
+                            log.info("Réponse OpenAI diffusée avec succès");
+                            chatAnswerCache.put(knowledge.version(), question,
+                                    new ChatResponse(answer.toString(), context, true, null));
+                        })
+                        .onErrorResume(e -> {
+                            if (!answer.isEmpty()) {
+                                return Flux.error(e);
+                            }
+                            logModelFailure(e);
+                            return chunks(handleFallbackResponse(knowledge).getAnswer());
+                        });
+            });
+        });
     }
 
-    private ChatResponse handleGreeting() {
-        String greeting = "Bonjour ! Je suis l'assistant virtuel de CultureDigitalPlatform. " +
-                         "Je peux vous aider à découvrir nos cours, formations et quiz. " +
-                         "Que souhaitez-vous savoir ?";
-        return new ChatResponse(greeting, null, true, null);
+    // Un refus (disjoncteur ouvert, cloison pleine) est attendu : pas de pile d'appels
+    private static void logModelFailure(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof ChatModelUnavailableException) {
+            log.warn("OpenAI non sollicité ({}), utilisation de la réponse de secours", cause.getMessage());
+        } else {
+            log.warn("Erreur OpenAI, utilisation de la réponse de secours", cause);
+        }
     }
 
-    private boolean isCourseListQuestion(String question) {
-        String lowerQuestion = question.toLowerCase();
-        return lowerQuestion.contains("cours") || 
-               lowerQuestion.contains("disponibles") || 
-               lowerQuestion.contains("liste") ||
-               lowerQuestion.contains("quels sont") ||
-               lowerQuestion.contains("montre moi");
+    // Réponse connue sans le modèle, ou null s'il faut l'interroger
+    private ChatResponse answerWithoutModel(String question, ChatKnowledge knowledge) {
+        // 1. Intention reconnue par mots-clés, en un passage
+        ChatIntent intent = chatIntentClassifier.classify(question);
+        if (intent == ChatIntent.GREETING) {
+            log.info("Question détectée comme salutation");
+            return handleGreeting();
+        }
+
+        // 2. Connaissances précalculées pour la version courante du catalogue
+        log.info("Données disponibles - Cours: {}, Formations: {}, Quiz: {}", 
+                knowledge.courseCount(), knowledge.formationCount(), knowledge.quizCount());
+
+        // 3. Traitement selon le type de question
+        if (intent == ChatIntent.COURSE_LIST) {
+            log.info("Question détectée comme demande de liste des cours");
+            return handleCourseList(knowledge);
+        } else if (intent == ChatIntent.FORMATION_LIST) {
+            log.info("Question détectée comme demande de liste des formations");
+            return handleFormationList(knowledge);
+        } else if (intent == ChatIntent.QUIZ) {
+            log.info("Question détectée comme demande concernant les quiz");
+            return handleQuizList(knowledge);
+        }
+
+        // 4. Même question déjà posée depuis la dernière modification du catalogue
+        ChatResponse cached = chatAnswerCache.get(knowledge.version(), question);
+        if (cached != null) {
+            log.info("Réponse servie depuis le cache");
+        }
+        return cached;
     }
 
-    private boolean isFormationListQuestion(String question) {
-        String lowerQuestion = question.toLowerCase();
-        return lowerQuestion.contains("formation") || 
-               lowerQuestion.contains("parcours") || 
-               lowerQuestion.contains("programme");
+    // Une ligne par morceau, sauts de ligne compris
+    private static Flux<String> chunks(String text) {
+        return Flux.fromArray(text.split("(?<=\\n)"));
     }
 
-    private boolean isQuizQuestion(String question) {
-        String lowerQuestion = question.toLowerCase();
-        return lowerQuestion.contains("quiz") || 
-               lowerQuestion.contains("questionnaire") || 
-               lowerQuestion.contains("évaluation") ||
-               lowerQuestion.contains("test");
+    private ChatResponse handleGreeting() {
+        String greeting = "Bonjour ! Je suis l'assistant virtuel de CultureDigitalPlatform. " +
+                         "Je peux vous aider à découvrir nos cours, formations et quiz. " +
+                         "Que souhaitez-vous savoir ?";
+        return new ChatResponse(greeting, null, true, null);
     }
 
-    private ChatResponse handleCourseList(List<Course> courses) {
-        String formattedList = formatCoursesList(courses);
+    private ChatResponse handleCourseList(ChatKnowledge knowledge) {
         return new ChatResponse(
-            formattedList,
+            knowledge.courses(),
             "Liste des cours disponibles",
             true,
             null
         );
     }
 
-    private ChatResponse handleFormationList(List<Formation> formations) {
-        String formattedList = formatFormationsList(formations);
+    private ChatResponse handleFormationList(ChatKnowledge knowledge) {
         return new ChatResponse(
-            formattedList,
+            knowledge.formations(),
             "Liste des formations disponibles",
             true,
             null
         );
     }
 
-    private ChatResponse handleQuizList(List<Quiz> quizzes) {
-        String formattedList = formatQuizzesList(quizzes);
+    private ChatResponse handleQuizList(ChatKnowledge knowledge) {
         return new ChatResponse(
-            formattedList,
+            knowledge.quizzes(),
             "Liste des quiz disponibles",
             true,
             null
         );
     }
 
-    private ChatResponse handleFallbackResponse(List<Course> courses, List<Formation> formations, List<Quiz> quizzes) {
+    private ChatResponse handleFallbackResponse(ChatKnowledge knowledge) {
         String fallbackResponse = "Je suis désolé, je ne peux pas accéder à l'IA en ce moment. " +
-            "Voici un aperçu de ce que nous proposons :\n\n" +
-            "1. Cours disponibles :\n" + formatCoursesList(courses) + "\n\n" +
-            "2. Formations disponibles :\n" + formatFormationsList(formations) + "\n\n" +
-            "3. Quiz disponibles :\n" + formatQuizzesList(quizzes);
+            "Voici un aperçu de ce que nous proposons :\n\n" + knowledge.fallbackOverview();
         
         return new ChatResponse(
             fallbackResponse,
@@ -172,78 +212,9 @@ public class ChatService {
         );
     }
 
-    private String buildContext(List<Course> courses, List<Formation> formations, List<Quiz> quizzes) {
-        StringBuilder contextBuilder = new StringBuilder();
-        
-        contextBuilder.append("Cours disponibles :\n");
-        for (Course course : courses) {
-            contextBuilder.append("- ").append(course.getTitle())
-                    .append(" : ").append(course.getDescription())
-                    .append("\n");
-        }
-
-        contextBuilder.append("\nFormations disponibles :\n");
-        for (Formation formation : formations) {
-            contextBuilder.append("- ").append(formation.getTitle())
-                    .append(" : ").append(formation.getDescription())
-                    .append("\n");
-        }
-
-        contextBuilder.append("\nQuiz disponibles :\n");
-        for (Quiz quiz : quizzes) {
-            contextBuilder.append("- ").append(quiz.getQuestion())
-                    .append(" (Cours: ").append(quiz.getCourse().getTitle()).append(")\n");
-        }
-
-        return contextBuilder.toString();
-    }
-
-    private String getOpenAIResponse(String question, String context) {
+    private String buildPrompt(String question, String context) {
         SystemPromptTemplate systemPromptTemplate = new SystemPromptTemplate(SYSTEM_PROMPT + "\n\nContexte : {context}");
-        String systemPrompt = String.valueOf(systemPromptTemplate.create(Map.of("context", context)));
-        Prompt prompt = new Prompt(systemPrompt + "\n\nQuestion de l'utilisateur : " + question);
-        return String.valueOf(chatClient.call(prompt));
-    }
-
-    private String formatCoursesList(List<Course> courses) {
-        if (courses.isEmpty()) {
-            return "Aucun cours n'est disponible pour le moment.";
-        }
-
-        return courses.stream()
-            .map(course -> String.format("- %s\n  Description: %s\n  Durée: %d minutes\n  Statut: %s",
-                course.getTitle(),
-                course.getDescription(),
-                course.getDuration(),
-                course.getStatus()))
-            .collect(Collectors.joining("\n\n"));
-    }
-
-    private String formatFormationsList(List<Formation> formations) {
-        if (formations.isEmpty()) {
-            return "Aucune formation n'est disponible pour le moment.";
-        }
-
-        return formations.stream()
-            .map(formation -> String.format("- %s\n  Description: %s\n  Catégorie: %s\n  Difficulté: %s\n  Durée: %d heures",
-                formation.getTitle(),
-                formation.getDescription(),
-                formation.getCategory(),
-                formation.getDifficulty(),
-                formation.getDurationHours()))
-            .collect(Collectors.joining("\n\n"));
-    }
-
-    private String formatQuizzesList(List<Quiz> quizzes) {
-        if (quizzes.isEmpty()) {
-            return "Aucun quiz n'est disponible pour le moment.";
-        }
-
-        return quizzes.stream()
-            .map(quiz -> String.format("- Question: %s\n  Cours: %s\n  Réponses possibles: %s",
-                quiz.getQuestion(),
-                quiz.getCourse().getTitle(),
-                String.join(", ", quiz.getAnswers())))
-            .collect(Collectors.joining("\n\n"));
+        String systemPrompt = systemPromptTemplate.render(Map.of("context", context));
+        return systemPrompt + "\n\nQuestion de l'utilisateur : " + question;
     }
-}
\ No newline at end of file
+}
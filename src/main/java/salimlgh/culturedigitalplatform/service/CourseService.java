@@ -2,11 +2,19 @@ package salimlgh.culturedigitalplatform.service;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
@@ -14,12 +22,22 @@ import org.springframework.web.server.ResponseStatusException;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import salimlgh.culturedigitalplatform.catalog.CatalogCourse;
 import salimlgh.culturedigitalplatform.dtos.CourseDTO;
+import salimlgh.culturedigitalplatform.dtos.CoursePdfDTO;
+import salimlgh.culturedigitalplatform.dtos.QuizDTO;
 import salimlgh.culturedigitalplatform.entities.Course;
 import salimlgh.culturedigitalplatform.entities.Formation;
+import salimlgh.culturedigitalplatform.event.CatalogChangeEvent;
 import salimlgh.culturedigitalplatform.mapper.MapperCourse;
+import salimlgh.culturedigitalplatform.mapper.MapperQuiz;
+import salimlgh.culturedigitalplatform.pagination.SearchPage;
+import salimlgh.culturedigitalplatform.repository.CoursePdfMetadata;
 import salimlgh.culturedigitalplatform.repository.CourseRepository;
+import salimlgh.culturedigitalplatform.repository.CourseSummary;
 import salimlgh.culturedigitalplatform.repository.FormationRepository;
+import salimlgh.culturedigitalplatform.repository.QuizRepository;
+import salimlgh.culturedigitalplatform.search.CatalogSearchIndex;
 
 @Service
 @RequiredArgsConstructor
@@ -28,6 +46,11 @@ public class CourseService {
     private final CourseRepository courseRepository;
     private final FormationRepository formationRepository;
     private final MapperCourse courseMapper;
+    private final QuizRepository quizRepository;
+    private final MapperQuiz quizMapper;
+    private final FileStorageService fileStorageService;
+    private final CatalogSearchIndex catalogSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public CourseDTO createCourse(@Valid CourseDTO courseDTO) throws Exception {
@@ -65,8 +88,7 @@ public class CourseService {
         // Gestion du PDF
         if (courseDTO.getPdfFile() != null && !courseDTO.getPdfFile().isEmpty()) {
             validatePdfFile(courseDTO.getPdfFile());
-            course.setPdfContent(courseDTO.getPdfFile().getBytes());
-            course.setPdfContentType(courseDTO.getPdfFile().getContentType());
+            storePdfIfProvided(courseDTO, course);
         }
 
         // Gestion YouTube
@@ -75,6 +97,7 @@ public class CourseService {
         }
 
         Course savedCourse = courseRepository.save(course);
+        eventPublisher.publishEvent(CatalogChangeEvent.course(savedCourse.getId()));
         return enrichWithPdfUrl(courseMapper.toDto(savedCourse));
     }
 
@@ -100,25 +123,43 @@ public class CourseService {
     }
 
     public List<CourseDTO> getAllActiveCourses() {
-        return courseRepository.findActiveCourses().stream()
+        return courseRepository.findActiveCourseSummaries().stream()
                 .map(this::convertToDto)
                 .toList();
     }
 
     public Page<CourseDTO> getAllActiveCourses(Pageable pageable) {
-        return courseRepository.findActiveCourses(pageable)
+        return courseRepository.findActiveCourseSummaries(pageable)
                 .map(this::convertToDto);
     }
 
     public CourseDTO getActiveCourseById(Long id) {
-        Course course = courseRepository.findById(id)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found"));
+        return getActiveCourseById(id, true);
+    }
 
-        if (!"active".equals(course.getStatus())) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Active course not found");
+    // withQuizzes = false : une seule requête (projection), les quiz ne sont pas lus
+    public CourseDTO getActiveCourseById(Long id, boolean withQuizzes) {
+        CourseDTO course = courseRepository.findActiveCourseSummariesByIdIn(List.of(id)).stream()
+                .findFirst()
+                .map(this::convertToDto)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Active course not found"));
+        if (withQuizzes) {
+            attachQuizzes(List.of(course));
         }
+        return course;
+    }
 
-        return convertToDto(course);
+    /** Complète les cours avec leurs quiz, lus en une seule requête pour toute la liste. */
+    public List<CourseDTO> attachQuizzes(List<CourseDTO> courses) {
+        if (courses.isEmpty()) {
+            return courses;
+        }
+        List<Long> ids = courses.stream().map(CourseDTO::getId).toList();
+        Map<Long, List<QuizDTO>> byCourse = quizRepository.findByCourseIdInOrderByIdAsc(ids).stream()
+                .map(quizMapper::toDto)
+                .collect(Collectors.groupingBy(QuizDTO::getCourseId));
+        courses.forEach(course -> course.setQuizzes(byCourse.getOrDefault(course.getId(), new ArrayList<>())));
+        return courses;
     }
 
     @Transactional
@@ -131,6 +172,7 @@ public class CourseService {
         processYoutubeLink(courseDTO, existingCourse);
 
         Course updatedCourse = courseRepository.save(existingCourse);
+        eventPublisher.publishEvent(CatalogChangeEvent.course(id));
         return enrichWithPdfUrl(courseMapper.toDto(updatedCourse));
     }
 
@@ -139,6 +181,7 @@ public class CourseService {
         Course course = getExistingCourse(id);
         course.setStatus("inactive");
         courseRepository.save(course);
+        eventPublisher.publishEvent(CatalogChangeEvent.course(id));
     }
 
     @Transactional
@@ -147,6 +190,7 @@ public class CourseService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found"));
         course.setStatus("active");
         courseRepository.save(course);
+        eventPublisher.publishEvent(CatalogChangeEvent.course(id));
     }
 
     @Transactional
@@ -159,39 +203,85 @@ public class CourseService {
             courseRepository.save(course); // Met à jour la relation en base
         }
         courseRepository.delete(course);
+        eventPublisher.publishEvent(CatalogChangeEvent.course(id));
     }
 
-    public byte[] getCoursePdf(Long id) {
-        Course course = courseRepository.findById(id)
+    // Lecture des seules métadonnées : le fichier n'est ouvert qu'au moment du transfert
+    public CoursePdfDTO getCoursePdf(Long id) {
+        CoursePdfMetadata pdf = courseRepository.findPdfMetadataById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found"));
 
-        if (!"active".equals(course.getStatus())) {
+        if (!"active".equals(pdf.getStatus())) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Active course not found");
         }
 
-        if (course.getPdfContent() == null) {
+        return toPdfDto(pdf.getId(), pdf.getTitle(), pdf.getPdfBlobRef(), pdf.getPdfSize(), pdf.getPdfContentType(),
+                pdf.getPdfUpdatedAt());
+    }
+
+    // Cours du catalogue publié : les métadonnées sont déjà en mémoire, aucune lecture en base
+    public CoursePdfDTO getCoursePdf(CatalogCourse course) {
+        return toPdfDto(course.id(), course.title(), course.pdfBlobRef(), course.pdfSize(), course.pdfContentType(),
+                course.pdfUpdatedAt());
+    }
+
+    private CoursePdfDTO toPdfDto(Long courseId, String title, String blobRef, Long size, String contentType,
+                                  LocalDateTime updatedAt) {
+        if (blobRef == null) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No PDF found for this course");
         }
 
-        return course.getPdfContent();
+        return CoursePdfDTO.builder()
+                .courseId(courseId)
+                .courseTitle(title)
+                .blobRef(blobRef)
+                .size(size != null ? size : fileStorageService.getSize(blobRef))
+                .contentType(contentType)
+                .lastModified(updatedAt != null
+                        ? updatedAt.atZone(ZoneId.systemDefault()).toInstant()
+                        : null)
+                .build();
+    }
+
+    // Recherche servie par l'index en mémoire (classement BM25), puis lecture des cours par id
+    public SearchPage<CourseDTO> searchActiveCourses(String keyword, int page, Integer size) {
+        return searchActiveCourses(keyword, false, page, size);
     }
 
-    public List<CourseDTO> searchActiveCourses(String keyword) {
-        return courseRepository.searchActiveCourses(keyword).stream()
+    // fuzzy : tolère les fautes de frappe (trigrammes + distance d'édition)
+    public SearchPage<CourseDTO> searchActiveCourses(String keyword, boolean fuzzy, int page, Integer size) {
+        if (keyword == null || keyword.isBlank()) {
+            return SearchPage.slice(getAllActiveCourses(), page, size);
+        }
+        SearchPage<Long> ids = catalogSearchIndex.searchCourses(keyword, fuzzy, page, size);
+        if (ids.getItems().isEmpty()) {
+            return new SearchPage<>(List.of(), ids.getTotal());
+        }
+        Map<Long, CourseSummary> byId = courseRepository.findActiveCourseSummariesByIdIn(ids.getItems()).stream()
+                .collect(Collectors.toMap(CourseSummary::getId, Function.identity()));
+        return new SearchPage<>(ids.getItems().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .map(this::convertToDto)
-                .toList();
+                .toList(), ids.getTotal());
     }
 
     public List<CourseDTO> getCoursesByFormationId(Long formationId) {
-        Formation formation = formationRepository.findById(formationId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Formation not found"));
-        return courseRepository.findByFormation(formation).stream()
+        return getCoursesByFormationId(formationId, true);
+    }
+
+    public List<CourseDTO> getCoursesByFormationId(Long formationId, boolean withQuizzes) {
+        if (!formationRepository.existsById(formationId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Formation not found");
+        }
+        List<CourseDTO> courses = courseRepository.findCourseSummariesByFormationId(formationId).stream()
                 .map(this::convertToDto)
                 .toList();
+        return withQuizzes ? attachQuizzes(courses) : courses;
     }
 
     public Page<CourseDTO> advancedSearch(Long formationId, String status, String keyword, Pageable pageable) {
-        return courseRepository.advancedSearch(formationId, status, keyword, pageable)
+        return courseRepository.advancedSearchSummaries(formationId, status, keyword, pageable)
                 .map(this::convertToDto);
     }
 
@@ -217,15 +307,21 @@ public class CourseService {
 
     private void storePdfIfProvided(CourseDTO dto, Course course) throws IOException {
         if (dto.getPdfFile() != null && !dto.getPdfFile().isEmpty()) {
-            course.setPdfContent(dto.getPdfFile().getBytes());
-            course.setPdfContentType(dto.getPdfFile().getContentType());
+            // Empreinte, taille et signature %PDF calculées en flux pendant l'écriture dans le stockage
+            FileStorageService.StoredFile stored = fileStorageService.storePdf(dto.getPdfFile());
+            course.setPdfBlobRef(stored.ref());
+            course.setPdfSize(stored.size());
+            course.setPdfContentType(MediaType.APPLICATION_PDF_VALUE);
+            course.setPdfUpdatedAt(LocalDateTime.now());
         }
     }
 
+    // L'ancien blob n'est pas supprimé ici : il peut être partagé avec d'autres cours, y compris
+    // par une transaction pas encore validée. PdfBlobCollector supprime les blobs orphelins.
     private void updatePdfIfProvided(CourseDTO dto, Course course) throws IOException {
         if (dto.getPdfFile() != null && !dto.getPdfFile().isEmpty()) {
-            course.setPdfContent(dto.getPdfFile().getBytes());
-            course.setPdfContentType(dto.getPdfFile().getContentType());
+            validatePdfFile(dto.getPdfFile());
+            storePdfIfProvided(dto, course);
         }
     }
 
@@ -245,6 +341,10 @@ public class CourseService {
         return enrichWithPdfUrl(courseMapper.toDto(course));
     }
 
+    private CourseDTO convertToDto(CourseSummary summary) {
+        return enrichWithPdfUrl(courseMapper.toDto(summary));
+    }
+
     private CourseDTO enrichWithPdfUrl(CourseDTO dto) {
         // Set PDF URL if the course has a PDF file
         if (dto.getId() != null) {
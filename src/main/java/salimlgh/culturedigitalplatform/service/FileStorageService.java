@@ -1,18 +1,35 @@
 package salimlgh.culturedigitalplatform.service;
 
-import lombok.Data;
-import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.Resource;
-import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Path;
-import java.util.stream.Stream;
-@Service
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Stockage des fichiers de cours (PDF) hors de la base de données.
+ * Les fichiers sont adressés par leur contenu : la référence retournée
+ * est l'empreinte SHA-256 du fichier, deux envois identiques partagent donc le même blob.
+ */
 public interface FileStorageService {
-    String storePdf(MultipartFile file) throws IOException;
+
+    // Référence (empreinte SHA-256) et taille d'un fichier stocké, calculées pendant l'écriture
+    record StoredFile(String ref, long size) {
+    }
+
+    StoredFile storePdf(MultipartFile file) throws IOException;
+    StoredFile store(InputStream content) throws IOException;
     Resource loadFile(String filename);
+    long getSize(String filename);
+    boolean exists(String filename);
     void deleteFile(String filename);
+
+    // Références des blobs ni écrits ni réutilisés par un envoi depuis {@code cutoff}
+    List<String> listUnusedSince(Instant cutoff);
+
+    // Supprime le blob s'il n'a toujours pas été réutilisé depuis {@code cutoff} ; atomique vis-à-vis de store()
+    boolean deleteIfUnusedSince(String ref, Instant cutoff);
     void init();
-}
\ No newline at end of file
+}
@@ -1,34 +1,95 @@
 package salimlgh.culturedigitalplatform.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.expression.ExpressionException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import salimlgh.culturedigitalplatform.entities.DifficultyLevel;
 import salimlgh.culturedigitalplatform.entities.Formation;
 import salimlgh.culturedigitalplatform.entities.Course;
+import salimlgh.culturedigitalplatform.event.CatalogChangeEvent;
+import salimlgh.culturedigitalplatform.pagination.CursorPage;
+import salimlgh.culturedigitalplatform.pagination.KeysetCursor;
+import salimlgh.culturedigitalplatform.pagination.SearchPage;
 
+import salimlgh.culturedigitalplatform.repository.CourseRepository;
+import salimlgh.culturedigitalplatform.repository.FormationCourseCount;
 import salimlgh.culturedigitalplatform.repository.FormationRepository;
-
+import salimlgh.culturedigitalplatform.search.CatalogSearchIndex;
+import salimlgh.culturedigitalplatform.search.FacetIndex;
+import salimlgh.culturedigitalplatform.search.FacetedResult;
+import salimlgh.culturedigitalplatform.search.FormationFacetIndex;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class FormationService {
     private final FormationRepository formationRepository;
+    private final CourseRepository courseRepository;
+    private final CatalogSearchIndex catalogSearchIndex;
+    private final FormationFacetIndex formationFacetIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Get all formations ordered by creation date or other relevant field
     public List<Formation> getAllFormations() {
         return formationRepository.findAllByOrderByCreatedAtDesc();
     }
 
-    // Get formation by ID
+    // Keyset pagination on (createdAt, id): every page costs the same, total is optional
+    public CursorPage<Formation> getFormationsPage(String cursor, Integer size, boolean withTotal) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        int pageSize = KeysetCursor.pageSize(size);
+        List<Formation> fetched = position.fetch(pageSize + 1,
+                formationRepository::findAllAfter, formationRepository::findAllUndatedAfter);
+        Long total = withTotal ? formationRepository.count() : null;
+        return CursorPage.of(fetched, pageSize, f -> KeysetCursor.encode(f.getCreatedAt(), f.getId()), total);
+    }
+
+    public CursorPage<Formation> getPublishedFormationsPage(String cursor, Integer size, boolean withTotal) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        int pageSize = KeysetCursor.pageSize(size);
+        List<Formation> fetched = position.fetch(pageSize + 1,
+                formationRepository::findPublishedAfter, formationRepository::findPublishedUndatedAfter);
+        Long total = withTotal ? formationRepository.countPublishedFormations() : null;
+        return CursorPage.of(fetched, pageSize, f -> KeysetCursor.encode(f.getCreatedAt(), f.getId()), total);
+    }
+
+    // Get formation by ID, with its courses fetched in the same query
     public Formation getFormationById(Long id) {
-        return formationRepository.findById(id)
+        return getFormationById(id, true);
+    }
+
+    // withCourses = false leaves the course collection uninitialized (no join, no extra query)
+    public Formation getFormationById(Long id, boolean withCourses) {
+        return (withCourses ? formationRepository.findWithCoursesById(id) : formationRepository.findById(id))
                 .orElseThrow(() -> new ExpressionException("Formation not found with id: " + id));
     }
 
+    /**
+     * Course count per formation for list views, read with a single GROUP BY
+     * instead of initializing each formation's course collection.
+     */
+    public Map<Long, Long> getCourseCounts(Collection<Formation> formations) {
+        if (formations.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> ids = formations.stream().map(Formation::getId).toList();
+        return courseRepository.countByFormationIdIn(ids).stream()
+                .collect(Collectors.toMap(FormationCourseCount::getFormationId, FormationCourseCount::getCourseCount));
+    }
+
     // Get formation by title
     public Formation getFormationByTitle(String title) {
         return formationRepository.findByTitle(title)
@@ -42,7 +103,9 @@ public class FormationService {
 
     @Transactional
     public Formation createFormation(Formation formation) {
-        return formationRepository.save(formation);
+        Formation saved = formationRepository.save(formation);
+        eventPublisher.publishEvent(CatalogChangeEvent.formation(saved.getId()));
+        return saved;
     }
 
     @Transactional
@@ -57,13 +120,18 @@ public class FormationService {
         formation.setCategory(formationDetails.getCategory());
         formation.setDurationHours(formationDetails.getDurationHours());
 
-        return formationRepository.save(formation);
+        Formation saved = formationRepository.save(formation);
+        eventPublisher.publishEvent(CatalogChangeEvent.formation(id));
+        return saved;
     }
 
     @Transactional
     public void deleteFormation(Long id) {
         Formation formation = getFormationById(id);
+        // Les cours sont supprimés en cascade avec la formation
+        formation.getCourses().forEach(course -> eventPublisher.publishEvent(CatalogChangeEvent.course(course.getId())));
         formationRepository.delete(formation);
+        eventPublisher.publishEvent(CatalogChangeEvent.formation(id));
     }
 
     // Get courses for a formation
@@ -81,7 +149,9 @@ public class FormationService {
     public Formation publishFormation(Long id, boolean published) {
         Formation formation = getFormationById(id);
         formation.setPublished(published);
-        return formationRepository.save(formation);
+        Formation saved = formationRepository.save(formation);
+        eventPublisher.publishEvent(CatalogChangeEvent.formation(id));
+        return saved;
     }
 
     // Additional business methods
@@ -103,12 +173,60 @@ public class FormationService {
     }
 
     public Formation getPublishedFormationById(Long id) {
-        return formationRepository.findPublishedById(id)
+        return getPublishedFormationById(id, true);
+    }
+
+    public Formation getPublishedFormationById(Long id, boolean withCourses) {
+        return (withCourses ? formationRepository.findPublishedWithCoursesById(id) : formationRepository.findPublishedById(id))
                 .orElseThrow(() -> new ExpressionException("Published formation not found with id: " + id));
     }
 
-    public List<Formation> searchPublishedFormations(String keyword) {
-        return formationRepository.searchPublishedFormations(keyword);
+    // Recherche servie par l'index en mémoire (classement BM25), puis lecture des formations par id
+    public SearchPage<Formation> searchPublishedFormations(String keyword, int page, Integer size) {
+        return searchPublishedFormations(keyword, false, page, size);
+    }
+
+    // fuzzy: typo-tolerant matching (trigrams + edit distance)
+    public SearchPage<Formation> searchPublishedFormations(String keyword, boolean fuzzy, int page, Integer size) {
+        if (keyword == null || keyword.isBlank()) {
+            return SearchPage.slice(getPublishedFormations(), page, size);
+        }
+        SearchPage<Long> ids = catalogSearchIndex.searchFormations(keyword, fuzzy, page, size);
+        if (ids.getItems().isEmpty()) {
+            return new SearchPage<>(List.of(), ids.getTotal());
+        }
+        Map<Long, Formation> byId = formationRepository.findPublishedByIdIn(ids.getItems()).stream()
+                .collect(Collectors.toMap(Formation::getId, Function.identity()));
+        return new SearchPage<>(ids.getItems().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList(), ids.getTotal());
+    }
+
+    /**
+     * Faceted search over published formations, answered by the in-memory indexes alone.
+     * Values of one facet are OR-ed, facets are AND-ed. The total and the counts cover every
+     * match. With a keyword, the ids are the {@link SearchPage#MAX_SIZE} most relevant matches,
+     * in rank order; without one, they are all the matches in no particular order, and callers
+     * order them (the published catalog snapshot lists the newest first).
+     */
+    public FacetedResult<Long> facetedSearchPublishedFormationIds(String keyword, boolean fuzzy,
+                                                                 Set<String> difficulties, Set<String> categories,
+                                                                 Set<String> tags) {
+        Set<String> difficultyNames = difficulties.stream()
+                .map(d -> DifficultyLevel.valueOf(d.toUpperCase(Locale.ROOT)).name())
+                .collect(Collectors.toSet());
+        List<Long> ranked = keyword == null || keyword.isBlank() ? null : catalogSearchIndex.allMatchingFormations(keyword, fuzzy);
+        FacetIndex.Result result = formationFacetIndex.query(difficultyNames, categories, tags, ranked);
+        List<Long> ids = result.ids();
+        if (ranked != null) {
+            Map<Long, Integer> rank = new HashMap<>();
+            for (int i = 0; i < ranked.size(); i++) {
+                rank.putIfAbsent(ranked.get(i), i);
+            }
+            ids = ids.stream().sorted(Comparator.comparing(rank::get)).limit(SearchPage.MAX_SIZE).toList();
+        }
+        return new FacetedResult<>(ids, result.ids().size(), result.counts());
     }
 
     public List<Formation> getPublishedFormationsByDifficulty(String difficulty) {
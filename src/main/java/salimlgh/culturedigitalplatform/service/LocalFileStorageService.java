@@ -0,0 +1,195 @@
+package salimlgh.culturedigitalplatform.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Stockage local des PDF, adressé par contenu.
+ * Chaque fichier est écrit sous {@code <racine>/ab/cd/<sha256>} : l'empreinte est calculée
+ * pendant l'écriture dans un fichier temporaire, puis le fichier est déplacé à sa place définitive.
+ * Si un fichier de même empreinte existe déjà, le temporaire est simplement supprimé (déduplication)
+ * et la date de modification du fichier est rafraîchie : elle sert de marque au ramasse-miettes
+ * ({@code PdfBlobCollector}), qui ne supprime que les blobs non réutilisés depuis sa période de grâce.
+ */
+@Service
+@Slf4j
+public class LocalFileStorageService implements FileStorageService {
+
+    private static final Pattern BLOB_REF = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+    private final long maxPdfSize;
+    // Verrous par blob (répartis) : une réutilisation et une suppression du même blob ne s'entrelacent pas
+    private final Object[] blobLocks = new Object[64];
+
+    public LocalFileStorageService(@Value("${storage.pdf.location:uploads/pdfs}") String location,
+                                   @Value("${storage.pdf.max-size:10000000}") long maxPdfSize) {
+        this.root = Paths.get(location).toAbsolutePath().normalize();
+        this.maxPdfSize = maxPdfSize;
+        Arrays.setAll(blobLocks, i -> new Object());
+    }
+
+    @Override
+    @PostConstruct
+    public void init() {
+        try {
+            Files.createDirectories(root.resolve("tmp"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'initialiser le stockage des PDF : " + root, e);
+        }
+    }
+
+    // La partie multipart est lue en flux (déjà sur disque côté Tomcat) et validée au fil de l'eau
+    @Override
+    public StoredFile storePdf(MultipartFile file) throws IOException {
+        try (InputStream in = new PdfUploadInputStream(file.getInputStream(), maxPdfSize)) {
+            return store(in);
+        }
+    }
+
+    @Override
+    public StoredFile store(InputStream content) throws IOException {
+        MessageDigest digest = newDigest();
+        Path tmp = Files.createTempFile(root.resolve("tmp"), "upload-", ".part");
+        try {
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(tmp), digest)) {
+                content.transferTo(out);
+            }
+            StoredFile stored = new StoredFile(HexFormat.of().formatHex(digest.digest()), Files.size(tmp));
+            Path target = resolve(stored.ref());
+            synchronized (lockFor(stored.ref())) {
+                if (Files.exists(target)) {
+                    log.debug("PDF déjà présent dans le stockage : {}", stored.ref());
+                    Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                    return stored;
+                }
+                Files.createDirectories(target.getParent());
+                moveIntoPlace(tmp, target);
+            }
+            return stored;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public Resource loadFile(String filename) {
+        Path path = resolve(filename);
+        if (!Files.isReadable(path)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "PDF file not found");
+        }
+        return new FileSystemResource(path);
+    }
+
+    @Override
+    public long getSize(String filename) {
+        try {
+            return Files.size(resolve(filename));
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "PDF file not found");
+        }
+    }
+
+    @Override
+    public boolean exists(String filename) {
+        return Files.exists(resolve(filename));
+    }
+
+    @Override
+    public void deleteFile(String filename) {
+        try {
+            Files.deleteIfExists(resolve(filename));
+        } catch (IOException e) {
+            log.warn("Impossible de supprimer le PDF {}", filename, e);
+        }
+    }
+
+    @Override
+    public List<String> listUnusedSince(Instant cutoff) {
+        // <racine>/ab/cd/<sha256> : le dossier tmp et les fichiers étrangers sont ignorés
+        try (Stream<Path> files = Files.find(root, 3, (path, attributes) -> attributes.isRegularFile()
+                && BLOB_REF.matcher(path.getFileName().toString()).matches()
+                && attributes.lastModifiedTime().toInstant().isBefore(cutoff))) {
+            return files.map(path -> path.getFileName().toString()).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de parcourir le stockage des PDF : " + root, e);
+        }
+    }
+
+    @Override
+    public boolean deleteIfUnusedSince(String ref, Instant cutoff) {
+        Path path = resolve(ref);
+        synchronized (lockFor(ref)) {
+            try {
+                if (!Files.exists(path) || !Files.getLastModifiedTime(path).toInstant().isBefore(cutoff)) {
+                    return false;
+                }
+                return Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("Impossible de supprimer le PDF {}", ref, e);
+                return false;
+            }
+        }
+    }
+
+    private Object lockFor(String ref) {
+        return blobLocks[Math.floorMod(ref.hashCode(), blobLocks.length)];
+    }
+
+    private Path resolve(String ref) {
+        if (ref == null || !BLOB_REF.matcher(ref).matches()) {
+            throw new IllegalArgumentException("Référence de fichier invalide");
+        }
+        return root.resolve(ref.substring(0, 2)).resolve(ref.substring(2, 4)).resolve(ref);
+    }
+
+    private void moveIntoPlace(Path tmp, Path target) throws IOException {
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            try {
+                Files.move(tmp, target);
+            } catch (FileAlreadyExistsException ignored) {
+                // Un envoi concurrent identique a gagné la course : même contenu, rien à faire
+            }
+        } catch (FileAlreadyExistsException ignored) {
+            // Idem
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package salimlgh.culturedigitalplatform.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import salimlgh.culturedigitalplatform.repository.CourseRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ramasse-miettes du stockage des PDF (marquage-balayage).
+ * Un blob est partagé par tous les cours de même contenu et peut être écrit par une transaction
+ * qui n'a pas encore validé sa référence : il n'est donc jamais supprimé au moment où un cours
+ * le quitte. Le balayage supprime les blobs qu'aucun cours ne référence et qui n'ont été ni
+ * écrits ni réutilisés par un envoi depuis la période de grâce (la date de modification du
+ * fichier sert de marque). Les blobs d'une transaction annulée sont ainsi supprimés eux aussi.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "storage.pdf.gc.enabled", havingValue = "true", matchIfMissing = true)
+public class PdfBlobCollector {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final FileStorageService fileStorageService;
+    private final CourseRepository courseRepository;
+    private final Duration gracePeriod;
+
+    public PdfBlobCollector(FileStorageService fileStorageService,
+                            CourseRepository courseRepository,
+                            @Value("${storage.pdf.gc.grace-period:1h}") Duration gracePeriod) {
+        this.fileStorageService = fileStorageService;
+        this.courseRepository = courseRepository;
+        this.gracePeriod = gracePeriod;
+    }
+
+    @Scheduled(fixedDelayString = "${storage.pdf.gc.interval-ms:3600000}",
+            initialDelayString = "${storage.pdf.gc.interval-ms:3600000}")
+    public int collect() {
+        Instant cutoff = Instant.now().minus(gracePeriod);
+        List<String> candidates = fileStorageService.listUnusedSince(cutoff);
+        int deleted = 0;
+        for (int from = 0; from < candidates.size(); from += BATCH_SIZE) {
+            List<String> batch = candidates.subList(from, Math.min(from + BATCH_SIZE, candidates.size()));
+            Set<String> referenced = new HashSet<>(courseRepository.findReferencedPdfBlobRefs(batch));
+            for (String ref : batch) {
+                // Re-vérifié sous verrou : un envoi du même contenu depuis la liste rafraîchit la marque
+                if (!referenced.contains(ref) && fileStorageService.deleteIfUnusedSince(ref, cutoff)) {
+                    deleted++;
+                }
+            }
+        }
+        if (deleted > 0) {
+            log.info("{} PDF orphelins supprimés du stockage", deleted);
+        }
+        return deleted;
+    }
+}
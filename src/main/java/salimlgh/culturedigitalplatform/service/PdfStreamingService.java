@@ -0,0 +1,149 @@
+package salimlgh.culturedigitalplatform.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import salimlgh.culturedigitalplatform.dtos.CoursePdfDTO;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Écriture des PDF de cours directement dans la réponse HTTP, sans passer par un byte[].
+ * Répond 304 aux requêtes conditionnelles (ETag fort = empreinte SHA-256, Last-Modified)
+ * avant toute lecture du stockage. Gère les en-têtes Range / If-Range (une seule plage, 206 Partial Content) et utilise
+ * le sendfile de Tomcat (zéro copie) lorsque le PDF est un fichier local et que le connecteur le permet.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PdfStreamingService {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final FileStorageService fileStorageService;
+
+    public void stream(CoursePdfDTO pdf, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // If-None-Match / If-Modified-Since : 304 sans ouvrir le fichier
+        long lastModified = pdf.getLastModified() != null ? pdf.getLastModified().toEpochMilli() : -1;
+        if (new ServletWebRequest(request, response).checkNotModified(pdf.getETag(), lastModified)) {
+            return;
+        }
+
+        long length = pdf.getSize();
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(pdf.getContentType() != null ? pdf.getContentType() : MediaType.APPLICATION_PDF_VALUE);
+        if (pdf.getETag() != null) {
+            response.setHeader(HttpHeaders.ETAG, pdf.getETag());
+        }
+        if (pdf.getLastModified() != null) {
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, pdf.getLastModified().toEpochMilli());
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && length > 0 && ifRangeMatches(request, pdf)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of(); // En-tête Range mal formé : ignoré, on renvoie tout le fichier
+            }
+            // Plusieurs plages (multipart/byteranges) : non supporté, on renvoie tout le fichier
+            if (ranges.size() == 1) {
+                start = ranges.get(0).getRangeStart(length);
+                end = ranges.get(0).getRangeEnd(length);
+                if (start >= length || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count <= 0) {
+            return;
+        }
+
+        Resource resource = fileStorageService.loadFile(pdf.getBlobRef());
+        if (resource.isFile()) {
+            File file = resource.getFile();
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                // Tomcat envoie le fichier lui-même après le retour du contrôleur
+                request.setAttribute(SENDFILE_FILENAME, file.getCanonicalPath());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, start + count);
+                return;
+            }
+            transferFile(file, start, count, response.getOutputStream());
+        } else {
+            try (InputStream in = resource.getInputStream()) {
+                StreamUtils.copyRange(in, response.getOutputStream(), start, end);
+            }
+        }
+    }
+
+    // If-Range : la plage n'est servie que si le validateur correspond encore à la version actuelle
+    private boolean ifRangeMatches(HttpServletRequest request, CoursePdfDTO pdf) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // Comparaison forte : un ETag faible ne valide jamais une plage
+            return ifRange.equals(pdf.getETag());
+        }
+        if (pdf.getLastModified() == null) {
+            return false;
+        }
+        try {
+            Instant date = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return date.getEpochSecond() == pdf.getLastModified().getEpochSecond();
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private void transferFile(File file, long position, long count, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long sent = 0;
+            while (sent < count) {
+                long n = channel.transferTo(position + sent, count - sent, target);
+                if (n <= 0) {
+                    break;
+                }
+                sent += n;
+            }
+        }
+    }
+}
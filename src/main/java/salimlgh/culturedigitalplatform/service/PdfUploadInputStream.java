@@ -0,0 +1,102 @@
+package salimlgh.culturedigitalplatform.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Flux d'envoi de PDF validé au fil de la lecture : la signature {@code %PDF-} est vérifiée
+ * sur les premiers octets et la taille maximale est contrôlée à chaque lecture,
+ * de sorte qu'un fichier invalide est rejeté sans jamais être chargé en mémoire.
+ */
+class PdfUploadInputStream extends FilterInputStream {
+
+    private static final byte[] PDF_MAGIC = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+    private static final int SKIP_BUFFER_SIZE = 8192;
+
+    private final long maxSize;
+    private long count;
+
+    PdfUploadInputStream(InputStream in, long maxSize) {
+        super(in);
+        this.maxSize = maxSize;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            checkSignature((byte) b, count);
+            count++;
+            checkSize();
+        } else {
+            checkEnd();
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            check(b, off, n);
+        } else if (n < 0) {
+            checkEnd();
+        }
+        return n;
+    }
+
+    // Les octets sautés sont lus et validés comme les autres : signature et taille restent contrôlées
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        byte[] buffer = new byte[(int) Math.min(n, SKIP_BUFFER_SIZE)];
+        long remaining = n;
+        while (remaining > 0) {
+            int read = read(buffer, 0, (int) Math.min(remaining, buffer.length));
+            if (read < 0) {
+                break;
+            }
+            remaining -= read;
+        }
+        return n - remaining;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void check(byte[] b, int off, int n) {
+        for (int i = 0; i < n && count + i < PDF_MAGIC.length; i++) {
+            checkSignature(b[off + i], count + i);
+        }
+        count += n;
+        checkSize();
+    }
+
+    private static void checkSignature(byte b, long position) {
+        if (position < PDF_MAGIC.length && b != PDF_MAGIC[(int) position]) {
+            throw new IllegalArgumentException("Seuls les fichiers PDF sont acceptés");
+        }
+    }
+
+    private void checkSize() {
+        if (count > maxSize) {
+            throw new IllegalArgumentException("La taille du PDF ne doit pas dépasser " + maxSize / 1_000_000 + "MB");
+        }
+    }
+
+    private void checkEnd() {
+        if (count < PDF_MAGIC.length) {
+            throw new IllegalArgumentException("Seuls les fichiers PDF sont acceptés");
+        }
+    }
+}
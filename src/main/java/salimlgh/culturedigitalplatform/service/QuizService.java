@@ -3,12 +3,15 @@ package salimlgh.culturedigitalplatform.service;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import lombok.RequiredArgsConstructor;
 import salimlgh.culturedigitalplatform.dtos.QuizDTO;
 import salimlgh.culturedigitalplatform.entities.Course;
 import salimlgh.culturedigitalplatform.entities.Quiz;
+import salimlgh.culturedigitalplatform.event.CatalogChangeEvent;
 import salimlgh.culturedigitalplatform.mapper.MapperQuiz;
 import salimlgh.culturedigitalplatform.repository.CourseRepository;
 import salimlgh.culturedigitalplatform.repository.QuizRepository;
@@ -21,8 +24,10 @@ public class QuizService {
     private final QuizRepository quizRepository;
     private final CourseRepository courseRepository;
     private final MapperQuiz mapperQuiz;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Créer un seul quiz
+    @Transactional
     public QuizDTO createQuiz(Long courseId, QuizDTO quizDTO) {
         // Check if the course exists
         Course course = courseRepository.findById(courseId)
@@ -42,10 +47,12 @@ public class QuizService {
 
         // Save the quiz
         Quiz savedQuiz = quizRepository.save(quiz);
+        eventPublisher.publishEvent(CatalogChangeEvent.quiz(savedQuiz.getId()));
         return mapperQuiz.toDto(savedQuiz);
     }
 
     // Créer plusieurs quizzes
+    @Transactional
     public List<QuizDTO> createQuizzes(Long courseId, List<QuizDTO> quizDTOs) {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new RuntimeException("Course not found"));
@@ -58,6 +65,7 @@ public class QuizService {
                 .collect(Collectors.toList());
 
         List<Quiz> savedQuizzes = quizRepository.saveAll(quizzes);
+        savedQuizzes.forEach(quiz -> eventPublisher.publishEvent(CatalogChangeEvent.quiz(quiz.getId())));
         return savedQuizzes.stream()
                 .map(mapperQuiz::toDto)
                 .collect(Collectors.toList());
@@ -75,6 +83,7 @@ public class QuizService {
     }
 
     // Mettre à jour un quiz
+    @Transactional
     public QuizDTO updateQuiz(Long quizId, QuizDTO quizDTO) {
         Quiz existingQuiz = quizRepository.findById(quizId)
                 .orElseThrow(() -> new RuntimeException("Quiz not found"));
@@ -86,15 +95,18 @@ public class QuizService {
         existingQuiz.setCorrectAnswerIndex(quizDTO.getCorrectAnswerIndex());
 
         Quiz updatedQuiz = quizRepository.save(existingQuiz);
+        eventPublisher.publishEvent(CatalogChangeEvent.quiz(quizId));
         return mapperQuiz.toDto(updatedQuiz);
     }
 
     // Supprimer un quiz
+    @Transactional
     public void deleteQuiz(Long quizId) {
         if (!quizRepository.existsById(quizId)) {
             throw new RuntimeException("Quiz not found");
         }
         quizRepository.deleteById(quizId);
+        eventPublisher.publishEvent(CatalogChangeEvent.quiz(quizId));
     }
 
     private void validateQuiz(QuizDTO quizDTO) {
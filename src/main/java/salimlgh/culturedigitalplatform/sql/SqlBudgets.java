@@ -0,0 +1,75 @@
+package salimlgh.culturedigitalplatform.sql;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Budgets de requêtes SQL par endpoint, lus de la configuration (sql.inspector.budgets)
+ * et vérifiés à chaque requête HTTP par {@link SqlStatsFilter}.
+ * Une entrée vaut "[MÉTHODE ]motif=budget", le motif étant celui du mapping Spring :
+ * "GET /api/formations/{id}=3" ne vise que les GET, "/api/formations/{id}=3" toutes les méthodes.
+ */
+final class SqlBudgets {
+
+    private static final String ANY_METHOD = "*";
+
+    private final Map<String, Integer> budgets;
+
+    private SqlBudgets(Map<String, Integer> budgets) {
+        this.budgets = budgets;
+    }
+
+    /**
+     * Lit une liste d'entrées séparées par des virgules.
+     *
+     * @throws IllegalArgumentException si une entrée est mal formée
+     */
+    static SqlBudgets parse(String budgets) {
+        Map<String, Integer> result = new HashMap<>();
+        if (budgets == null || budgets.isBlank()) {
+            return new SqlBudgets(result);
+        }
+        for (String entry : budgets.split(",")) {
+            int separator = entry.lastIndexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Budget SQL invalide : " + entry.strip());
+            }
+            String[] target = entry.substring(0, separator).strip().split("\\s+");
+            if (target.length > 2) {
+                throw new IllegalArgumentException("Budget SQL invalide : " + entry.strip());
+            }
+            String method = target.length == 2 ? target[0].toUpperCase(Locale.ROOT) : ANY_METHOD;
+            String pattern = target[target.length - 1];
+            try {
+                result.put(key(method, pattern), Integer.parseInt(entry.substring(separator + 1).strip()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Budget SQL invalide : " + entry.strip(), e);
+            }
+        }
+        return new SqlBudgets(result);
+    }
+
+    /**
+     * Budget de l'endpoint : celui propre à la méthode s'il existe, sinon celui du motif
+     * toutes méthodes confondues, sinon {@code null}.
+     */
+    Integer budgetFor(String method, String pattern) {
+        Integer budget = budgets.get(key(method.toUpperCase(Locale.ROOT), pattern));
+        return budget != null ? budget : budgets.get(key(ANY_METHOD, pattern));
+    }
+
+    static String describe(int maxStatements, SqlRequestStats stats) {
+        StringBuilder message = new StringBuilder()
+                .append(stats.getStatements()).append(" requêtes SQL pour un budget de ").append(maxStatements);
+        SqlRequestStats.Repeated repeated = stats.mostRepeated();
+        if (repeated != null && repeated.count() > 1) {
+            message.append(" ; exécutée ").append(repeated.count()).append(" fois : ").append(repeated.shape());
+        }
+        return message.toString();
+    }
+
+    private static String key(String method, String pattern) {
+        return method + ' ' + pattern;
+    }
+}
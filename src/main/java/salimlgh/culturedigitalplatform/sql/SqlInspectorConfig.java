@@ -0,0 +1,23 @@
+package salimlgh.culturedigitalplatform.sql;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Branche le comptage et le chronométrage des requêtes SQL sur Hibernate.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sql.inspector.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlInspectorConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlInspectorCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, SqlTimingListener.class.getName());
+        };
+    }
+}
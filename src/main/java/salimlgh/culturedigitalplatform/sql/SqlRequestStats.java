@@ -0,0 +1,98 @@
+package salimlgh.culturedigitalplatform.sql;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Requêtes SQL émises pendant une portée (une requête HTTP, ou un bloc mesuré dans un
+ * test) : nombre, temps JDBC cumulé et nombre d'exécutions de chaque
+ * forme de lecture. Une même forme répétée de nombreuses fois signale un N+1.
+ * La portée courante est liée au thread ; les portées s'emboîtent et une portée fermée
+ * reporte ses compteurs sur la portée englobante.
+ */
+public final class SqlRequestStats {
+
+    private static final ThreadLocal<SqlRequestStats> CURRENT = new ThreadLocal<>();
+
+    // "in (?,?,?)" et "in (?)" ont la même forme : seul le nombre d'ids change
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern LITERALS = Pattern.compile("'(?:[^']|'')*'|\\b\\d+\\b");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    /** Forme la plus répétée d'une portée. */
+    public record Repeated(String shape, int count) {
+    }
+
+    private final SqlRequestStats parent;
+    private final Map<String, Integer> shapes = new HashMap<>();
+    private int statements;
+    private long jdbcNanos;
+
+    private SqlRequestStats(SqlRequestStats parent) {
+        this.parent = parent;
+    }
+
+    /** Ouvre une portée sur le thread courant, emboîtée dans la portée déjà ouverte s'il y en a une. */
+    public static SqlRequestStats open() {
+        SqlRequestStats stats = new SqlRequestStats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /** Portée ouverte sur le thread courant, ou null (démarrage, tâches planifiées). */
+    public static SqlRequestStats current() {
+        return CURRENT.get();
+    }
+
+    /** Ferme la portée et reporte ses compteurs sur la portée englobante. */
+    public void close() {
+        if (parent != null) {
+            parent.statements += statements;
+            parent.jdbcNanos += jdbcNanos;
+            shapes.forEach((shape, count) -> parent.shapes.merge(shape, count, Integer::sum));
+            CURRENT.set(parent);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    void recordStatement(String sql) {
+        statements++;
+        // Seules les lectures comptent pour le N+1 : un insert par ligne est normal
+        if (sql.regionMatches(true, 0, "select", 0, 6) || sql.regionMatches(true, 0, "with", 0, 4)) {
+            shapes.merge(shape(sql), 1, Integer::sum);
+        }
+    }
+
+    void recordJdbcTime(long nanos) {
+        jdbcNanos += nanos;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    public double getJdbcMillis() {
+        return jdbcNanos / 1_000_000.0;
+    }
+
+    /** Lecture exécutée le plus souvent, ou null si aucune. */
+    public Repeated mostRepeated() {
+        return shapes.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(entry -> new Repeated(entry.getKey(), entry.getValue()))
+                .orElse(null);
+    }
+
+    /** Requête débarrassée de ses littéraux et de la taille de ses listes IN. */
+    static String shape(String sql) {
+        String shape = LITERALS.matcher(sql).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?)");
+        return SPACES.matcher(shape).replaceAll(" ").strip();
+    }
+}
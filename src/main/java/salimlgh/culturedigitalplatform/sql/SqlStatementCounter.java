@@ -0,0 +1,19 @@
+package salimlgh.culturedigitalplatform.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Voit passer chaque requête préparée par Hibernate et la compte dans la portée courante.
+ * Le SQL n'est pas modifié.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats != null) {
+            stats.recordStatement(sql);
+        }
+        return sql;
+    }
+}
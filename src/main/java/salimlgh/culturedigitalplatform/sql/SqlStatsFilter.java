@@ -0,0 +1,100 @@
+package salimlgh.culturedigitalplatform.sql;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Ouvre une portée {@link SqlRequestStats} par requête HTTP puis, une fois la réponse
+ * produite, publie les compteurs dans Micrometer (par motif d'URL) et signale les N+1
+ * probables (même forme de requête exécutée au moins sql.inspector.repeat-threshold fois)
+ * et les dépassements de budget ({@link SqlBudgets}).
+ * Les en-têtes de réponse sont ajoutés par {@link SqlStatsHeaderAdvice} en dev.
+ */
+@Component
+@Slf4j
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "sql.inspector.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatsFilter extends OncePerRequestFilter {
+
+    static final String STATS_ATTRIBUTE = SqlStatsFilter.class.getName() + ".stats";
+
+    private final MeterRegistry meterRegistry;
+    private final int repeatThreshold;
+    private final SqlBudgets budgets;
+
+    public SqlStatsFilter(MeterRegistry meterRegistry,
+                          @Value("${sql.inspector.repeat-threshold:5}") int repeatThreshold,
+                          @Value("${sql.inspector.budgets:}") String budgets) {
+        this.meterRegistry = meterRegistry;
+        this.repeatThreshold = repeatThreshold;
+        this.budgets = SqlBudgets.parse(budgets);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlRequestStats stats = SqlRequestStats.open();
+        request.setAttribute(STATS_ATTRIBUTE, stats);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            stats.close();
+            record(request, stats);
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlRequestStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        // Motif du mapping et non l'URL brute : nombre de séries borné
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        String method = request.getMethod();
+
+        DistributionSummary.builder("sql.request.statements")
+                .description("Requêtes SQL émises par requête HTTP")
+                .tags("uri", uri, "method", method)
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        Timer.builder("sql.request.jdbc.time")
+                .description("Temps JDBC cumulé par requête HTTP")
+                .tags("uri", uri, "method", method)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(stats.getJdbcNanos()));
+
+        SqlRequestStats.Repeated repeated = stats.mostRepeated();
+        if (repeated != null && repeated.count() >= repeatThreshold) {
+            Counter.builder("sql.request.n_plus_one")
+                    .description("Requêtes HTTP où une même forme de requête SQL se répète")
+                    .tags("uri", uri, "method", method)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("N+1 probable sur {} {} : {} exécutions de {}", method, uri, repeated.count(), repeated.shape());
+        }
+
+        Integer budget = budgets.budgetFor(method, uri);
+        if (budget != null && stats.getStatements() > budget) {
+            Counter.builder("sql.request.budget.exceeded")
+                    .description("Requêtes HTTP au-delà de leur budget de requêtes SQL")
+                    .tags("uri", uri, "method", method)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("Budget SQL dépassé sur {} {} : {}", method, uri, SqlBudgets.describe(budget, stats));
+        }
+    }
+}
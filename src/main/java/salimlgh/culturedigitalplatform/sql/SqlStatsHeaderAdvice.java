@@ -0,0 +1,51 @@
+package salimlgh.culturedigitalplatform.sql;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Locale;
+
+/**
+ * En dev (sql.inspector.expose-headers=true), ajoute aux réponses le nombre de requêtes SQL,
+ * le temps JDBC et la forme la plus répétée. Les en-têtes sont posés juste avant l'écriture
+ * du corps, sans mise en mémoire tampon de la réponse ; la sérialisation du DTO ne touche
+ * plus la base.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "sql.inspector.expose-headers", havingValue = "true")
+public class SqlStatsHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    public static final String TIME_HEADER = "X-SQL-Time-Ms";
+    public static final String REPEATED_HEADER = "X-SQL-Max-Repeated";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+                                  Class<? extends HttpMessageConverter<?>> converterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && servletRequest.getServletRequest().getAttribute(SqlStatsFilter.STATS_ATTRIBUTE) instanceof SqlRequestStats stats) {
+            HttpHeaders headers = response.getHeaders();
+            headers.set(STATEMENTS_HEADER, String.valueOf(stats.getStatements()));
+            headers.set(TIME_HEADER, String.format(Locale.ROOT, "%.2f", stats.getJdbcMillis()));
+            SqlRequestStats.Repeated repeated = stats.mostRepeated();
+            if (repeated != null) {
+                headers.set(REPEATED_HEADER, String.valueOf(repeated.count()));
+            }
+        }
+        return body;
+    }
+}
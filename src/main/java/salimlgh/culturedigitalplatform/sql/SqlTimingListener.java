@@ -0,0 +1,35 @@
+package salimlgh.culturedigitalplatform.sql;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Mesure le temps passé dans l'exécution JDBC. Hibernate en crée une instance par session
+ * (hibernate.session.events.auto), d'où l'absence de synchronisation.
+ */
+public class SqlTimingListener extends BaseSessionEventListener {
+
+    private long executeStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats != null) {
+            stats.recordJdbcTime(System.nanoTime() - executeStart);
+        }
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        jdbcExecuteStatementStart();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        jdbcExecuteStatementEnd();
+    }
+}
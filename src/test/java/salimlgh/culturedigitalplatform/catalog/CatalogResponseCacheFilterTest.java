@@ -0,0 +1,83 @@
+package salimlgh.culturedigitalplatform.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogResponseCacheFilterTest {
+
+    private final CatalogSnapshotStore store = mock(CatalogSnapshotStore.class);
+    private final CatalogResponseCacheFilter filter = new CatalogResponseCacheFilter(store, true, 1_000_000);
+    private final AtomicInteger controllerCalls = new AtomicInteger();
+
+    @Test
+    void olderVersionDoesNotEvictNewerEntries() throws Exception {
+        get(5);
+        get(5);
+        assertThat(controllerCalls).hasValue(1);
+
+        // Requête partie avec le snapshot précédent : ni purge, ni écriture
+        get(4);
+        get(5);
+        assertThat(controllerCalls).hasValue(2);
+
+        get(6);
+        assertThat(controllerCalls).hasValue(3);
+    }
+
+    @Test
+    void missesAndHitsVaryOnAcceptEncoding() throws Exception {
+        MockHttpServletResponse miss = get(1);
+        MockHttpServletResponse hit = get(1);
+
+        assertThat(controllerCalls).hasValue(1);
+        assertThat(miss.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(hit.getHeaders(HttpHeaders.VARY)).containsExactly(HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', nullValues = "null", value = {
+            "gzip|true",
+            "gzip, deflate, br|true",
+            "GZIP;q=0.5|true",
+            "gzip;q=0|false",
+            "gzip; q=0|false",
+            "gzip;q=0.0|false",
+            "gzip ; Q = 0.000|false",
+            "deflate, gzip;q=0.001|true",
+            "*|true",
+            "*;q=0|false",
+            "gzip;q=0, *|false",
+            "br, *;q=0.1|true",
+            "br|false",
+            "''|false",
+            "null|false"})
+    void parsesGzipQuality(String acceptEncoding, boolean expected) {
+        assertThat(CatalogResponseCacheFilter.acceptsGzip(acceptEncoding)).isEqualTo(expected);
+    }
+
+    private MockHttpServletResponse get(long version) throws Exception {
+        when(store.snapshot()).thenReturn(new CatalogSnapshot(version, List.of(), List.of(), Set.of()));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/formations");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> {
+            controllerCalls.incrementAndGet();
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            res.getOutputStream().write("[]".getBytes(StandardCharsets.UTF_8));
+        });
+        return response;
+    }
+}
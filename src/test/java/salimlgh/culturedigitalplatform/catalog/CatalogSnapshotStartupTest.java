@@ -0,0 +1,41 @@
+package salimlgh.culturedigitalplatform.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Le premier snapshot est chargé avant que le serveur web n'accepte des requêtes. */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class CatalogSnapshotStartupTest {
+
+    @TestConfiguration
+    static class WebServerStart {
+
+        final AtomicLong versionAtStart = new AtomicLong(Long.MIN_VALUE);
+
+        @Bean
+        ApplicationListener<WebServerInitializedEvent> recordVersionAtStart(CatalogSnapshotStore catalogSnapshotStore) {
+            return event -> versionAtStart.set(catalogSnapshotStore.snapshot().version());
+        }
+    }
+
+    @Autowired
+    private WebServerStart webServerStart;
+
+    @Test
+    void snapshotIsLoadedBeforeTheWebServerStarts() {
+        assertThat(webServerStart.versionAtStart.get())
+                .isNotEqualTo(Long.MIN_VALUE)
+                .isGreaterThan(CatalogSnapshot.EMPTY.version());
+    }
+}
@@ -0,0 +1,118 @@
+package salimlgh.culturedigitalplatform.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import salimlgh.culturedigitalplatform.entities.Formation;
+import salimlgh.culturedigitalplatform.event.CatalogChangeEvent;
+import salimlgh.culturedigitalplatform.repository.CourseRepository;
+import salimlgh.culturedigitalplatform.repository.FormationRepository;
+import salimlgh.culturedigitalplatform.repository.QuizRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogSnapshotStoreTest {
+
+    private final FormationRepository formationRepository = mock(FormationRepository.class);
+    private final CourseRepository courseRepository = mock(CourseRepository.class);
+    private final QuizRepository quizRepository = mock(QuizRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    @Test
+    void updateDuringRebuildIsNotOverwritten() throws Exception {
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // La reconstruction lit l'état d'avant l'écriture puis reste bloquée
+        when(formationRepository.findPublishedFormations()).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            return List.of();
+        });
+        when(formationRepository.findById(7L)).thenReturn(Optional.of(formation(7L, "Écrite pendant la reconstruction")));
+        CatalogSnapshotStore store = new CatalogSnapshotStore(formationRepository, courseRepository, quizRepository,
+                mock(CatalogVersionCounter.class), transactionManager);
+
+        CompletableFuture<Void> rebuild = CompletableFuture.runAsync(store::rebuild);
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        store.onCatalogChange(CatalogChangeEvent.formation(7L));
+        release.countDown();
+        rebuild.get(5, TimeUnit.SECONDS);
+
+        awaitFormation(store, 7L);
+        assertThat(store.snapshot().formation(7L)).isNotNull();
+        store.shutdown();
+    }
+
+    @Test
+    void eachUpdatePublishesTheVersionOfItsOwnWrite() throws Exception {
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        when(formationRepository.findPublishedFormations()).thenReturn(List.of());
+        CatalogVersionCounter counter = mock(CatalogVersionCounter.class);
+        when(counter.current()).thenReturn(5L);
+        when(counter.allocate()).thenReturn(100L);
+        when(formationRepository.findById(1L)).thenReturn(Optional.of(formation(1L, "Écriture A")));
+        CountDownLatch loadingB = new CountDownLatch(1);
+        CountDownLatch releaseB = new CountDownLatch(1);
+        when(formationRepository.findById(2L)).thenAnswer(invocation -> {
+            loadingB.countDown();
+            releaseB.await();
+            return Optional.of(formation(2L, "Écriture B"));
+        });
+        when(formationRepository.findById(3L)).thenReturn(Optional.of(formation(3L, "Écriture distante en retard")));
+        CatalogSnapshotStore store = new CatalogSnapshotStore(formationRepository, courseRepository, quizRepository,
+                counter, transactionManager);
+        store.rebuild();
+        assertThat(store.snapshot().version()).isEqualTo(5);
+
+        // A (version 6) et B (version 7) sont validées avant que le thread de mise à jour ne passe
+        store.onCatalogChange(written(CatalogChangeEvent.formation(1L), 6));
+        store.onCatalogChange(written(CatalogChangeEvent.formation(2L), 7));
+        assertThat(loadingB.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(store.snapshot().version()).isEqualTo(6);
+        assertThat(store.snapshot().formation(1L)).isNotNull();
+        assertThat(store.snapshot().formation(2L)).isNull();
+
+        releaseB.countDown();
+        awaitFormation(store, 2L);
+        assertThat(store.snapshot().version()).isEqualTo(7);
+
+        // Rejeu d'une écriture déjà appliquée : même contenu, même version
+        store.onCatalogChange(CatalogChangeEvent.remote(CatalogChangeEvent.EntityType.FORMATION, 1L, 6));
+        // Écriture distante plus ancienne que le snapshot : contenu changé, version neuve
+        store.onCatalogChange(CatalogChangeEvent.remote(CatalogChangeEvent.EntityType.FORMATION, 3L, 4));
+        awaitFormation(store, 3L);
+        assertThat(store.snapshot().version()).isEqualTo(100);
+        store.shutdown();
+    }
+
+    private static Formation formation(Long id, String title) {
+        Formation formation = new Formation();
+        formation.setId(id);
+        formation.setTitle(title);
+        formation.setPublished(true);
+        formation.setTags(List.of());
+        return formation;
+    }
+
+    private static CatalogChangeEvent written(CatalogChangeEvent event, long version) {
+        event.setVersion(version);
+        return event;
+    }
+
+    private static void awaitFormation(CatalogSnapshotStore store, Long id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (store.snapshot().formation(id) == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
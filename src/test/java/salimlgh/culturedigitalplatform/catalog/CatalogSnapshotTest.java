@@ -0,0 +1,86 @@
+package salimlgh.culturedigitalplatform.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Les mises à jour incrémentales, sans nouveau tri, donnent le même snapshot qu'une reconstruction. */
+class CatalogSnapshotTest {
+
+    @Test
+    void incrementalUpdatesKeepEveryOrder() {
+        Random random = new Random(42);
+        Map<Long, CatalogFormation> formations = new HashMap<>();
+        Map<Long, CatalogCourse> courses = new HashMap<>();
+        Set<Long> existing = new HashSet<>();
+        CatalogSnapshot snapshot = CatalogSnapshot.EMPTY;
+
+        for (int step = 0; step < 2_000; step++) {
+            long id = 1 + random.nextInt(40);
+            if (random.nextBoolean()) {
+                boolean exists = random.nextInt(5) > 0;
+                CatalogFormation formation = exists && random.nextInt(4) > 0 ? formation(id, random) : null;
+                snapshot = snapshot.withFormation(step + 1, id, formation, exists, "Formation " + step);
+                if (formation != null) {
+                    formations.put(id, formation);
+                } else {
+                    formations.remove(id);
+                }
+                if (exists) {
+                    existing.add(id);
+                    long formationId = id;
+                    String title = "Formation " + step;
+                    courses.replaceAll((courseId, course) ->
+                            course.formationId() == formationId ? course.withFormationTitle(title) : course);
+                } else {
+                    existing.remove(id);
+                    courses.values().removeIf(course -> course.formationId() == id);
+                }
+            } else {
+                CatalogCourse course = random.nextInt(4) > 0 ? course(id, 1 + random.nextInt(40), random) : null;
+                snapshot = snapshot.withCourse(step + 1, id, course);
+                if (course != null) {
+                    courses.put(id, course);
+                } else {
+                    courses.remove(id);
+                }
+            }
+        }
+
+        CatalogSnapshot rebuilt = new CatalogSnapshot(snapshot.version(), formations.values(), courses.values(), existing);
+        assertThat(snapshot.version()).isEqualTo(2_000);
+        assertThat(snapshot.formations()).containsExactlyElementsOf(rebuilt.formations());
+        assertThat(snapshot.latestFormations()).containsExactlyElementsOf(rebuilt.latestFormations());
+        assertThat(snapshot.courses()).containsExactlyElementsOf(rebuilt.courses());
+        assertThat(snapshot.latestCoursesPage(null, 100, true).getItems())
+                .containsExactlyElementsOf(rebuilt.latestCoursesPage(null, 100, true).getItems());
+        for (long id = 1; id <= 40; id++) {
+            assertThat(snapshot.coursesOf(id)).containsExactlyElementsOf(rebuilt.coursesOf(id));
+            assertThat(snapshot.formationExists(id)).isEqualTo(rebuilt.formationExists(id));
+        }
+    }
+
+    // Dates en partie égales ou absentes : l'id départage
+    private static LocalDateTime createdAt(Random random) {
+        return random.nextInt(5) == 0 ? null : LocalDateTime.of(2024, 1, 1 + random.nextInt(5), 12, 0);
+    }
+
+    private static CatalogFormation formation(long id, Random random) {
+        return new CatalogFormation(id, "Formation " + id, null, null, null, null, "Histoire", null,
+                createdAt(random), List.of());
+    }
+
+    private static CatalogCourse course(long id, long formationId, Random random) {
+        return new CatalogCourse(id, "Cours " + id, null, formationId, "Formation " + formationId, null, "active",
+                createdAt(random), null, null, null, null, null, new ArrayList<>());
+    }
+}
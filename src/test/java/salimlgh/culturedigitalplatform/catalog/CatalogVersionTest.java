@@ -0,0 +1,88 @@
+package salimlgh.culturedigitalplatform.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import salimlgh.culturedigitalplatform.entities.CatalogChange;
+import salimlgh.culturedigitalplatform.entities.Formation;
+import salimlgh.culturedigitalplatform.repository.CatalogChangeRepository;
+import salimlgh.culturedigitalplatform.service.FormationService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** La version du snapshot, donc l'ETag, vient de la base : un nœud qui (re)démarre retrouve la même. */
+@SpringBootTest
+@ActiveProfiles("test")
+class CatalogVersionTest {
+
+    @Autowired
+    private FormationService formationService;
+    @Autowired
+    private CatalogSnapshotStore catalogSnapshotStore;
+    @Autowired
+    private CatalogVersionCounter catalogVersionCounter;
+    @Autowired
+    private CatalogChangeRepository catalogChangeRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void startsAboveTheEmptySnapshot() {
+        assertThat(catalogVersionCounter.current()).isGreaterThanOrEqualTo(CatalogVersionCounter.FIRST_VERSION);
+        assertThat(catalogSnapshotStore.snapshot().version()).isGreaterThan(CatalogSnapshot.EMPTY.version());
+    }
+
+    @Test
+    void rebuildKeepsTheSharedVersion() throws InterruptedException {
+        long before = catalogVersionCounter.current();
+        Long id = formationService.createFormation(formation("Version partagée")).getId();
+
+        // Le snapshot est mis à jour par un thread de fond
+        awaitFormation(id);
+        long updated = catalogSnapshotStore.snapshot().version();
+        assertThat(updated).isEqualTo(catalogVersionCounter.current()).isEqualTo(before + 1);
+
+        // Même état de la base, même version : ce que construirait un autre nœud au démarrage
+        catalogSnapshotStore.rebuild();
+        assertThat(catalogSnapshotStore.snapshot().version()).isEqualTo(updated);
+        assertThat(catalogSnapshotStore.snapshot().formation(id)).isNotNull();
+    }
+
+    @Test
+    void eachWriteCarriesItsOwnVersion() throws InterruptedException {
+        long before = catalogVersionCounter.current();
+        // Deux écritures validées ensemble : le thread de fond reçoit les deux événements d'un coup
+        List<Long> ids = new TransactionTemplate(transactionManager).execute(status -> List.of(
+                formationService.createFormation(formation("Première écriture")).getId(),
+                formationService.createFormation(formation("Seconde écriture")).getId()));
+
+        List<CatalogChange> logged = catalogChangeRepository.findAll().stream()
+                .filter(change -> ids.contains(change.getEntityId()))
+                .toList();
+        assertThat(logged).extracting(CatalogChange::getCatalogVersion).containsExactly(before + 1, before + 2);
+        awaitFormation(ids.get(1));
+        assertThat(catalogSnapshotStore.snapshot().version()).isEqualTo(before + 2);
+        assertThat(catalogSnapshotStore.snapshot().formation(ids.get(0))).isNotNull();
+    }
+
+    private static Formation formation(String title) {
+        Formation formation = new Formation();
+        formation.setTitle(title);
+        formation.setPublished(true);
+        formation.setTags(List.of());
+        return formation;
+    }
+
+    private void awaitFormation(Long id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (catalogSnapshotStore.snapshot().formation(id) == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
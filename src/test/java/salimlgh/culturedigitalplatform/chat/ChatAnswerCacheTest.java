@@ -0,0 +1,111 @@
+package salimlgh.culturedigitalplatform.chat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import salimlgh.culturedigitalplatform.dtos.ChatResponse;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatAnswerCacheTest {
+
+    private static final String QUESTION = "Qu'est-ce que la peinture flamande ?";
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void normalizesCaseAccentsPunctuationElisionsAndStopWords() {
+        assertThat(ChatAnswerCache.normalize(QUESTION)).isEqualTo("peinture flamande");
+        assertThat(ChatAnswerCache.normalize("qu est ce que la Peinture Flamande")).isEqualTo("peinture flamande");
+        assertThat(ChatAnswerCache.normalize("L'évaluation du cours d'Histoire ?")).isEqualTo("evaluation cours histoire");
+        assertThat(ChatAnswerCache.normalize("?!")).isEmpty();
+    }
+
+    @Test
+    void keepsDigitsSingleLettersAndAccentedWords() {
+        assertThat(ChatAnswerCache.normalize("cours niveau 1 ?")).isEqualTo("cours niveau 1");
+        assertThat(ChatAnswerCache.normalize("cours niveau 2 ?")).isEqualTo("cours niveau 2");
+        assertThat(ChatAnswerCache.normalize("Module B, partie 3")).isEqualTo("module b partie 3");
+        assertThat(ChatAnswerCache.normalize("Où est le cours ?")).isEqualTo("ou cours");
+        assertThat(ChatAnswerCache.normalize("Le cours ou le quiz ?")).isEqualTo("cours quiz");
+    }
+
+    @Test
+    void sharesAnEntryBetweenEquivalentQuestionsOnly() {
+        ChatAnswerCache cache = cache(Duration.ofHours(1), 1_000_000);
+        cache.put(1, "Quels cours au niveau 1 ?", answer("Les cours du niveau 1"));
+
+        assertThat(cache.get(1, "quels COURS, au niveau 1")).isNotNull()
+                .satisfies(response -> assertThat(response.getAnswer()).isEqualTo("Les cours du niveau 1"));
+        assertThat(cache.get(1, "Quels cours au niveau 2 ?")).isNull();
+        assertThat(registry.get("chat.answer.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    void catalogVersionChangeInvalidatesEverything() {
+        ChatAnswerCache cache = cache(Duration.ofHours(1), 1_000_000);
+        cache.put(1, QUESTION, answer("Version 1"));
+        assertThat(cache.get(1, QUESTION)).isNotNull();
+
+        assertThat(cache.get(2, QUESTION)).isNull();
+        // Une question partie avant la modification ne lit ni n'écrit plus rien
+        cache.put(1, QUESTION, answer("Version 1, en retard"));
+        assertThat(cache.get(1, QUESTION)).isNull();
+        assertThat(cache.get(2, QUESTION)).isNull();
+        assertThat(bytes()).isZero();
+    }
+
+    @Test
+    void entriesExpireAfterTheirTtl() throws InterruptedException {
+        ChatAnswerCache cache = cache(Duration.ofMillis(100), 1_000_000);
+        cache.put(1, QUESTION, answer("Bientôt périmée"));
+        assertThat(cache.get(1, QUESTION)).isNotNull();
+
+        Thread.sleep(200);
+
+        assertThat(cache.get(1, QUESTION)).isNull();
+    }
+
+    @Test
+    void staysWithinItsByteBound() throws InterruptedException {
+        ChatAnswerCache cache = cache(Duration.ofHours(1), 4_000);
+        String text = "x".repeat(400);
+        for (int i = 0; i < 20; i++) {
+            cache.put(1, "question " + i, answer(text));
+        }
+
+        // Poids et éviction sont appliqués en tâche de fond par Caffeine
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((bytes() == 0 || bytes() > 4_000) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(bytes()).isPositive().isLessThanOrEqualTo(4_000);
+    }
+
+    @Test
+    void neverCachesFallbackAnswers() {
+        ChatAnswerCache cache = cache(Duration.ofHours(1), 1_000_000);
+        cache.put(1, QUESTION, new ChatResponse("Je suis désolé, je ne peux pas accéder à l'IA en ce moment.",
+                null, false, "modèle indisponible"));
+        cache.put(1, "Qui a peint la Joconde ?", new ChatResponse(null, null, true, null));
+
+        assertThat(cache.get(1, QUESTION)).isNull();
+        assertThat(cache.get(1, "Qui a peint la Joconde ?")).isNull();
+        assertThat(bytes()).isZero();
+    }
+
+    private ChatAnswerCache cache(Duration ttl, long maxBytes) {
+        return new ChatAnswerCache(registry, true, ttl, maxBytes);
+    }
+
+    private double bytes() {
+        return registry.get("chat.answer.cache.bytes").gauge().value();
+    }
+
+    private static ChatResponse answer(String text) {
+        return new ChatResponse(text, "contexte", true, null);
+    }
+}
@@ -0,0 +1,67 @@
+package salimlgh.culturedigitalplatform.chat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class ChatIntentClassifierTest {
+
+    // Dictionnaires par défaut de application.properties
+    private static final ChatIntentClassifier CLASSIFIER = new ChatIntentClassifier(
+            List.of("bonjour:1", "salut:1", "hello:1", "bonsoir:1", "coucou:1"),
+            List.of("cours", "disponibles:1", "liste:1", "quels sont:1", "montre moi:1"),
+            List.of("formation", "parcours", "programme"),
+            List.of("quiz", "questionnaire", "evaluation", "test"));
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "liste des formations|FORMATION_LIST",
+            "bonjour, quels sont les quiz|QUIZ",
+            "parcours|FORMATION_LIST",
+            "Quels cours sont disponibles ?|COURSE_LIST",
+            "Montre-moi   la liste|COURSE_LIST",
+            "Bonjour !|GREETING",
+            "Y a-t-il une ÉVALUATION finale ?|QUIZ",
+            "Les Formations du programme|FORMATION_LIST"})
+    void classifiesByTheMostSpecificKeywords(String question, ChatIntent expected) {
+        assertThat(CLASSIFIER.classify(question)).isEqualTo(expected);
+    }
+
+    @Test
+    void matchesKeywordsOnlyAtWordStarts() {
+        assertThat(CLASSIFIER.scores("parcours")).containsOnlyKeys(ChatIntent.FORMATION_LIST);
+        assertThat(CLASSIFIER.scores("concours d'attestation")).isEmpty();
+        assertThat(CLASSIFIER.classify("Qui a peint la Joconde ?")).isNull();
+    }
+
+    @Test
+    void weightsDefaultToTheKeywordLengthAndCountOncePerKeyword() {
+        assertThat(CLASSIFIER.scores("liste des formations, liste des formations"))
+                .isEqualTo(Map.of(ChatIntent.COURSE_LIST, 1, ChatIntent.FORMATION_LIST, 9));
+        assertThat(CLASSIFIER.scores("bonjour, quels sont les quiz"))
+                .isEqualTo(Map.of(ChatIntent.GREETING, 1, ChatIntent.COURSE_LIST, 1, ChatIntent.QUIZ, 4));
+    }
+
+    @Test
+    void parsesExplicitWeights() {
+        ChatIntentClassifier classifier = new ChatIntentClassifier(
+                List.of("bonjour:20"), List.of("cours: 3 "), List.of("formation"), List.of("quiz"));
+
+        assertThat(classifier.scores("bonjour, les cours et les quiz"))
+                .isEqualTo(Map.of(ChatIntent.GREETING, 20, ChatIntent.COURSE_LIST, 3, ChatIntent.QUIZ, 4));
+        assertThat(classifier.classify("bonjour, les cours et les quiz")).isEqualTo(ChatIntent.GREETING);
+    }
+
+    @Test
+    void rejectsAnInvalidWeight() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new ChatIntentClassifier(List.of("bonjour"), List.of("liste:beaucoup"), List.of(), List.of()))
+                .withMessageContaining("liste:beaucoup");
+    }
+}
@@ -0,0 +1,159 @@
+package salimlgh.culturedigitalplatform.chat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** Cloison, délais et disjoncteur du modèle, avec le modèle local et ses latences simulées. */
+class ChatModelGuardTest {
+
+    private static final String PROMPT = "Question de l'utilisateur : un deux trois quatre cinq six sept huit";
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private ChatModelGuard guard;
+
+    @AfterEach
+    void tearDown() {
+        if (guard != null) {
+            guard.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsCallsBeyondTheBulkhead() throws Exception {
+        guard = guard(new FakeChatModelClient(Duration.ofMillis(500), Duration.ZERO), 1, Duration.ofSeconds(5),
+                Duration.ofSeconds(5), 5, Duration.ofSeconds(30));
+
+        CompletableFuture<String> first = guard.call(PROMPT);
+        CompletableFuture<String> second = guard.call(PROMPT);
+
+        assertThat(gauge("chat.model.in_flight")).isEqualTo(1);
+        assertThatThrownBy(second::get).hasCauseInstanceOf(ChatModelUnavailableException.class);
+        assertThat(rejected("bulkhead")).isEqualTo(1);
+        assertThat(first.get(5, TimeUnit.SECONDS)).startsWith("Réponse de test");
+        // Le permis est rendu par le thread du modèle juste après la réponse
+        awaitGauge("chat.model.in_flight", 0);
+    }
+
+    @Test
+    void timesOutACompleteCall() {
+        guard = guard(new FakeChatModelClient(Duration.ofSeconds(5), Duration.ZERO), 2, Duration.ofMillis(100),
+                Duration.ofSeconds(5), 5, Duration.ofSeconds(30));
+
+        assertThatThrownBy(() -> guard.call(PROMPT).get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(registry.counter("chat.model.timeouts").count()).isEqualTo(1);
+    }
+
+    @Test
+    void boundsTheWaitForEachToken() {
+        StepVerifier.withVirtualTime(() -> {
+                    guard = guard(new FakeChatModelClient(Duration.ZERO, Duration.ofMillis(500)), 2,
+                            Duration.ofMillis(200), Duration.ofSeconds(60), 5, Duration.ofSeconds(30));
+                    return guard.stream(PROMPT);
+                })
+                .expectSubscription()
+                .thenAwait(Duration.ofMillis(200))
+                .expectError(TimeoutException.class)
+                .verify(Duration.ofSeconds(5));
+        assertThat(registry.counter("chat.model.timeouts").count()).isEqualTo(1);
+        assertThat(gauge("chat.model.in_flight")).isZero();
+    }
+
+    @Test
+    void boundsTheWholeStreamedAnswer() {
+        // Chaque token arrive à temps (50 ms < 200 ms), mais la réponse entière dépasserait 275 ms
+        StepVerifier.withVirtualTime(() -> {
+                    guard = guard(new FakeChatModelClient(Duration.ZERO, Duration.ofMillis(50)), 2,
+                            Duration.ofMillis(200), Duration.ofMillis(275), 5, Duration.ofSeconds(30));
+                    return guard.stream(PROMPT);
+                })
+                .expectSubscription()
+                .thenAwait(Duration.ofMillis(250))
+                .expectNextCount(5)
+                .thenAwait(Duration.ofMillis(25))
+                .expectError(TimeoutException.class)
+                .verify(Duration.ofSeconds(5));
+        assertThat(registry.counter("chat.model.timeouts").count()).isEqualTo(1);
+        assertThat(gauge("chat.model.in_flight")).isZero();
+    }
+
+    @Test
+    void opensThenTriesOnceThenCloses() throws Exception {
+        AtomicBoolean failing = new AtomicBoolean(true);
+        ChatModelClient model = new ChatModelClient() {
+            @Override
+            public String call(String prompt) {
+                if (failing.get()) {
+                    throw new IllegalStateException("modèle en panne");
+                }
+                return "ok";
+            }
+
+            @Override
+            public Flux<String> stream(String prompt) {
+                return Flux.just(call(prompt));
+            }
+        };
+        guard = guard(model, 2, Duration.ofSeconds(5), Duration.ofSeconds(5), 2, Duration.ofMillis(200));
+
+        assertThatThrownBy(() -> guard.call(PROMPT).get()).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(gauge("chat.model.circuit.open")).isZero();
+        assertThatThrownBy(() -> guard.call(PROMPT).get()).hasCauseInstanceOf(IllegalStateException.class);
+
+        // Ouvert : refusé sans appeler le modèle
+        assertThat(registry.counter("chat.model.circuit.opened").count()).isEqualTo(1);
+        assertThat(gauge("chat.model.circuit.open")).isEqualTo(1);
+        assertThatThrownBy(() -> guard.call(PROMPT).get()).hasCauseInstanceOf(ChatModelUnavailableException.class);
+        assertThat(rejected("circuit_open")).isEqualTo(1);
+
+        // Semi-ouvert : un essai qui échoue rouvre le disjoncteur
+        Thread.sleep(250);
+        assertThatThrownBy(() -> guard.call(PROMPT).get()).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(registry.counter("chat.model.circuit.opened").count()).isEqualTo(2);
+        assertThatThrownBy(() -> guard.call(PROMPT).get()).hasCauseInstanceOf(ChatModelUnavailableException.class);
+
+        // Semi-ouvert : un essai réussi le referme
+        Thread.sleep(250);
+        failing.set(false);
+        assertThat(guard.stream(PROMPT).collectList().block()).containsExactly("ok");
+        assertThat(gauge("chat.model.circuit.open")).isZero();
+        assertThat(guard.call(PROMPT).get()).isEqualTo("ok");
+        assertThat(rejected("circuit_open")).isEqualTo(2);
+    }
+
+    private ChatModelGuard guard(ChatModelClient model, int maxConcurrent, Duration timeout, Duration streamTimeout,
+                                 int failureThreshold, Duration openDuration) {
+        return new ChatModelGuard(model, registry, maxConcurrent, timeout, streamTimeout, failureThreshold, openDuration);
+    }
+
+    private double gauge(String name) {
+        return registry.get(name).gauge().value();
+    }
+
+    private double rejected(String reason) {
+        return registry.get("chat.model.rejected").tag("reason", reason).counter().count();
+    }
+
+    private void awaitGauge(String name, double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (gauge(name) != expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(gauge(name)).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,214 @@
+package salimlgh.culturedigitalplatform.chat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import salimlgh.culturedigitalplatform.dtos.ChatResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** Regroupement des questions identiques, avec le modèle local derrière le garde du modèle. */
+class ChatSingleFlightTest {
+
+    private static final String QUESTION = "Qui a peint la Joconde ?";
+    private static final String KEY = ChatSingleFlight.key(1, QUESTION);
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final ChatSingleFlight singleFlight = new ChatSingleFlight(registry);
+    private final ExecutorService askers = Executors.newFixedThreadPool(8);
+    private ChatModelGuard guard;
+
+    @AfterEach
+    void tearDown() {
+        askers.shutdownNow();
+        if (guard != null) {
+            guard.shutdown();
+        }
+    }
+
+    @Test
+    void keyIgnoresTheWordingButNotTheCatalogVersion() {
+        assertThat(ChatSingleFlight.key(1, "qui a PEINT la Joconde")).isEqualTo(KEY);
+        assertThat(ChatSingleFlight.key(2, QUESTION)).isNotEqualTo(KEY);
+        assertThat(ChatSingleFlight.key(1, "?!")).isNull();
+    }
+
+    @Test
+    void concurrentIdenticalQuestionsCallTheModelOnce() throws Exception {
+        int questions = 8;
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger modelCalls = new AtomicInteger();
+        FakeChatModelClient fake = new FakeChatModelClient(Duration.ZERO, Duration.ZERO);
+        guard = new ChatModelGuard(new ChatModelClient() {
+            @Override
+            public String call(String prompt) {
+                modelCalls.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return fake.call(prompt);
+            }
+
+            @Override
+            public Flux<String> stream(String prompt) {
+                return fake.stream(prompt);
+            }
+        }, registry, 4, Duration.ofSeconds(5), Duration.ofSeconds(5), 5, Duration.ofSeconds(30));
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ChatResponse>> answers = new ArrayList<>();
+        for (int i = 0; i < questions; i++) {
+            answers.add(askers.submit(() -> {
+                start.await();
+                return singleFlight.call(KEY, () -> guard.call(QUESTION)
+                        .thenApply(answer -> new ChatResponse(answer, null, true, null))).get(5, TimeUnit.SECONDS);
+            }));
+        }
+        start.countDown();
+        // Toutes les questions ont rejoint le calcul en cours avant que le modèle ne réponde
+        awaitRequests(questions);
+        release.countDown();
+
+        for (Future<ChatResponse> answer : answers) {
+            assertThat(answer.get(5, TimeUnit.SECONDS).getAnswer()).isEqualTo("Réponse de test à la question : " + QUESTION);
+        }
+        assertThat(modelCalls.get()).isEqualTo(1);
+        assertThat(requests("leader")).isEqualTo(1);
+        assertThat(requests("follower")).isEqualTo(questions - 1);
+        assertThat(registry.get("chat.singleflight.coalescing.ratio").gauge().value())
+                .isEqualTo((double) (questions - 1) / questions);
+    }
+
+    @Test
+    void callKeyIsReleasedOnCompletion() throws Exception {
+        CompletableFuture<ChatResponse> computation = new CompletableFuture<>();
+        CompletableFuture<ChatResponse> leader = singleFlight.call(KEY, () -> computation);
+        CompletableFuture<ChatResponse> follower = singleFlight.call(KEY, () -> {
+            throw new AssertionError("la question suivante ne doit pas relancer le calcul");
+        });
+
+        computation.complete(new ChatResponse("réponse", null, true, null));
+
+        assertThat(leader.get().getAnswer()).isEqualTo("réponse");
+        assertThat(follower.get().getAnswer()).isEqualTo("réponse");
+        singleFlight.call(KEY, () -> CompletableFuture.completedFuture(new ChatResponse("nouvelle", null, true, null)));
+        assertThat(requests("leader")).isEqualTo(2);
+    }
+
+    @Test
+    void callErrorReachesFollowersAndReleasesTheKey() {
+        CompletableFuture<ChatResponse> computation = new CompletableFuture<>();
+        CompletableFuture<ChatResponse> leader = singleFlight.call(KEY, () -> computation);
+        CompletableFuture<ChatResponse> follower = singleFlight.call(KEY, CompletableFuture::new);
+
+        computation.completeExceptionally(new IllegalStateException("modèle en panne"));
+
+        assertThatThrownBy(leader::get).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(follower::get).hasCauseInstanceOf(IllegalStateException.class);
+        // Une exception levée par le calcul lui-même libère aussi la clé
+        assertThatThrownBy(singleFlight.call(KEY, () -> {
+            throw new IllegalStateException("garde fermé");
+        })::get).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(singleFlight.call(KEY, () -> CompletableFuture.completedFuture(new ChatResponse())))
+                .isCompleted();
+        assertThat(requests("leader")).isEqualTo(3);
+        assertThat(requests("follower")).isEqualTo(1);
+    }
+
+    @Test
+    void lateStreamSubscriberReceivesTheTokensAlreadyProduced() {
+        Sinks.Many<String> model = Sinks.many().unicast().onBackpressureBuffer();
+        Flux<String> leader = singleFlight.stream(KEY, model::asFlux);
+        List<String> leaderTokens = new ArrayList<>();
+        leader.subscribe(leaderTokens::add);
+        model.tryEmitNext("Léonard ");
+        model.tryEmitNext("de ");
+
+        Flux<String> follower = singleFlight.stream(KEY, () -> Flux.error(new AssertionError("second appel au modèle")));
+
+        StepVerifier.create(follower)
+                .expectNext("Léonard ", "de ")
+                .then(() -> {
+                    model.tryEmitNext("Vinci");
+                    model.tryEmitComplete();
+                })
+                .expectNext("Vinci")
+                .verifyComplete();
+        assertThat(leaderTokens).containsExactly("Léonard ", "de ", "Vinci");
+        assertThat(requests("leader")).isEqualTo(1);
+        assertThat(requests("follower")).isEqualTo(1);
+
+        // Flux terminé : la clé est libérée, la question suivante relance le modèle
+        StepVerifier.create(singleFlight.stream(KEY, () -> Flux.just("Autre réponse")))
+                .expectNext("Autre réponse")
+                .verifyComplete();
+        assertThat(requests("leader")).isEqualTo(2);
+    }
+
+    @Test
+    void streamErrorReachesEverySubscriberAndReleasesTheKey() {
+        Sinks.Many<String> model = Sinks.many().unicast().onBackpressureBuffer();
+        Flux<String> leader = singleFlight.stream(KEY, model::asFlux);
+        Flux<String> follower = singleFlight.stream(KEY, Flux::empty);
+        model.tryEmitNext("Début ");
+
+        StepVerifier.create(leader)
+                .expectNext("Début ")
+                .then(() -> model.tryEmitError(new IllegalStateException("coupure")))
+                .verifyError(IllegalStateException.class);
+        StepVerifier.create(follower)
+                .expectNext("Début ")
+                .verifyError(IllegalStateException.class);
+
+        StepVerifier.create(singleFlight.stream(KEY, () -> Flux.just("Reprise")))
+                .expectNext("Reprise")
+                .verifyComplete();
+        assertThat(requests("leader")).isEqualTo(2);
+    }
+
+    @Test
+    void sharedStreamRunsToTheEndWhenItsSubscribersLeave() {
+        Sinks.Many<String> model = Sinks.many().unicast().onBackpressureBuffer();
+        Disposable leader = singleFlight.stream(KEY, model::asFlux).subscribe();
+        model.tryEmitNext("Début ");
+        leader.dispose();
+
+        // Le modèle n'est pas annulé : une question suivante reçoit la réponse entière
+        assertThat(model.tryEmitNext("suite")).isEqualTo(Sinks.EmitResult.OK);
+        StepVerifier.create(singleFlight.stream(KEY, Flux::empty))
+                .expectNext("Début ", "suite")
+                .then(model::tryEmitComplete)
+                .verifyComplete();
+    }
+
+    private double requests(String role) {
+        return registry.get("chat.singleflight.requests").tag("role", role).counter().count();
+    }
+
+    private void awaitRequests(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (requests("leader") + requests("follower") < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(requests("leader") + requests("follower")).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,47 @@
+package salimlgh.culturedigitalplatform.chat;
+
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FakeChatModelClientTest {
+
+    private static final String PROMPT = "Contexte : rien\n\nQuestion de l'utilisateur : Qui a peint la Joconde ?";
+
+    @Test
+    void answersTheQuestionAfterTheMarker() {
+        FakeChatModelClient client = new FakeChatModelClient(Duration.ZERO, Duration.ZERO);
+
+        assertThat(client.call(PROMPT)).isEqualTo("Réponse de test à la question : Qui a peint la Joconde ?");
+        assertThat(client.call("Sans marqueur")).isEqualTo("Réponse de test à la question : Sans marqueur");
+    }
+
+    @Test
+    void streamsOneWordPerTokenWithTheSameText() {
+        FakeChatModelClient client = new FakeChatModelClient(Duration.ZERO, Duration.ZERO);
+
+        assertThat(client.stream(PROMPT).collectList().block())
+                .containsExactly("Réponse ", "de ", "test ", "à ", "la ", "question ", ": ", "Qui ", "a ", "peint ",
+                        "la ", "Joconde ", "?")
+                .satisfies(tokens -> assertThat(String.join("", tokens)).isEqualTo(client.call(PROMPT)));
+    }
+
+    @Test
+    void streamWaitsForTheLatencyThenEachTokenDelay() {
+        StepVerifier.withVirtualTime(() -> new FakeChatModelClient(Duration.ofSeconds(2), Duration.ofMillis(100))
+                        .stream("Question de l'utilisateur : un deux"))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(2_099))
+                .thenAwait(Duration.ofMillis(1))
+                .expectNext("Réponse ")
+                .thenAwait(Duration.ofMillis(700))
+                .expectNextCount(7)
+                .expectNoEvent(Duration.ofMillis(99))
+                .thenAwait(Duration.ofMillis(1))
+                .expectNext("deux")
+                .verifyComplete();
+    }
+}
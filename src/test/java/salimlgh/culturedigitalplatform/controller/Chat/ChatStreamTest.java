@@ -0,0 +1,120 @@
+package salimlgh.culturedigitalplatform.controller.Chat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+import salimlgh.culturedigitalplatform.chat.FakeChatModelClient;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/** Séquence des événements de /api/chat/stream avec le modèle local (chat.model=fake). */
+@SpringBootTest
+// Le flux écrit ses en-têtes sur un autre thread : les afficher après perform() les lirait en concurrence
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+@ActiveProfiles("test")
+@WithMockUser
+class ChatStreamTest {
+
+    private record Event(String name, String data) {
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+    @MockitoSpyBean
+    private FakeChatModelClient model;
+
+    @Test
+    void streamsTokensThenDone() throws Exception {
+        List<Event> events = stream("Qui a peint la Joconde ?");
+
+        assertThat(events).hasSizeGreaterThan(2).last().isEqualTo(new Event("done", ""));
+        assertThat(events.subList(0, events.size() - 1)).allSatisfy(event -> assertThat(event.name()).isEqualTo("token"));
+        assertThat(text(events)).isEqualTo("Réponse de test à la question : Qui a peint la Joconde ?");
+    }
+
+    @Test
+    void fallsBackWhenTheModelFailsBeforeItsFirstToken() throws Exception {
+        doReturn(Flux.error(new IllegalStateException("modèle en panne"))).when(model).stream(anyString());
+
+        List<Event> events = stream("Quelle est la plus ancienne mosaïque ?");
+
+        assertThat(events).extracting(Event::name).doesNotContain("error").endsWith("done");
+        assertThat(text(events)).startsWith("Je suis désolé, je ne peux pas accéder à l'IA en ce moment.");
+    }
+
+    @Test
+    void sendsAnErrorEventWhenTheModelFailsAfterItsFirstToken() throws Exception {
+        doReturn(Flux.just("Début ").concatWith(Flux.error(new IllegalStateException("coupure"))))
+                .when(model).stream(anyString());
+
+        List<Event> events = stream("Comment restaurer une fresque ?");
+
+        assertThat(events).containsExactly(new Event("token", "Début "),
+                new Event("error", "Erreur lors du traitement de la requête"));
+    }
+
+    @Test
+    void servesACompletedAnswerFromTheCache() throws Exception {
+        String question = "Pourquoi le gothique a-t-il des arcs brisés ?";
+        String first = text(stream(question));
+        List<Event> second = stream(question);
+
+        verify(model, times(1)).stream(anyString());
+        assertThat(text(second)).isEqualTo(first);
+        assertThat(second).last().isEqualTo(new Event("done", ""));
+    }
+
+    private List<Event> stream(String question) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/chat/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"question\":\"" + question + "\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(10_000);
+        return parse(result.getResponse().getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    // Un événement par bloc ; plusieurs lignes data: se rejoignent par des sauts de ligne
+    private static List<Event> parse(String body) {
+        List<Event> events = new ArrayList<>();
+        for (String block : body.split("\n\n")) {
+            String name = null;
+            List<String> data = new ArrayList<>();
+            for (String line : block.split("\n")) {
+                if (line.startsWith("event:")) {
+                    name = line.substring("event:".length());
+                } else if (line.startsWith("data:")) {
+                    data.add(line.substring("data:".length()));
+                }
+            }
+            if (name != null) {
+                events.add(new Event(name, String.join("\n", data)));
+            }
+        }
+        return events;
+    }
+
+    private static String text(List<Event> events) {
+        return events.stream().filter(event -> event.name().equals("token")).map(Event::data).collect(Collectors.joining());
+    }
+}
@@ -0,0 +1,76 @@
+package salimlgh.culturedigitalplatform.event;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import salimlgh.culturedigitalplatform.entities.CatalogChange;
+import salimlgh.culturedigitalplatform.repository.CatalogChangeRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/** Un trou dans les id (transaction en cours) n'empêche pas de lire au-delà d'un lot. */
+class CatalogChangeLogGapTest {
+
+    private final List<CatalogChange> visible = new ArrayList<>();
+    private final List<Long> published = new ArrayList<>();
+    private CatalogChangeLog changeLog;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        CatalogChangeRepository repository = mock(CatalogChangeRepository.class);
+        when(repository.findByIdGreaterThanOrderByIdAsc(anyLong(), any())).thenAnswer(invocation -> {
+            long from = invocation.getArgument(0);
+            Limit limit = invocation.getArgument(1);
+            return visible.stream().filter(row -> row.getId() > from).limit(limit.max()).toList();
+        });
+        when(repository.findByIdInOrderByIdAsc(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return visible.stream().filter(row -> ids.contains(row.getId())).toList();
+        });
+        ApplicationEventPublisher publisher = event -> published.add(((CatalogChangeEvent) event).getEntityId());
+        changeLog = new CatalogChangeLog(repository, publisher, "local", 2, Duration.ofMinutes(1), Duration.ofDays(1));
+        changeLog.start();
+    }
+
+    @Test
+    void readsPastTheFirstBatchWhileAGapIsOpen() {
+        for (long id = 2; id <= 6; id++) {
+            visible.add(row(id));
+        }
+
+        changeLog.poll();
+        assertThat(published).containsExactly(102L, 103L, 104L, 105L, 106L);
+
+        // La transaction d'id 1 valide enfin
+        visible.add(0, row(1));
+        visible.add(row(7));
+        changeLog.poll();
+        assertThat(published).containsExactly(102L, 103L, 104L, 105L, 106L, 101L, 107L);
+
+        changeLog.poll();
+        assertThat(published).hasSize(7);
+    }
+
+    private static CatalogChange row(long id) {
+        CatalogChange change = new CatalogChange();
+        change.setId(id);
+        change.setEntityType(CatalogChangeEvent.EntityType.FORMATION);
+        change.setEntityId(100 + id);
+        change.setOriginNode("remote");
+        change.setCreatedAt(LocalDateTime.now());
+        return change;
+    }
+}
@@ -0,0 +1,98 @@
+package salimlgh.culturedigitalplatform.event;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import salimlgh.culturedigitalplatform.CultureDigitalPlatformApplication;
+import salimlgh.culturedigitalplatform.catalog.CatalogSnapshotStore;
+import salimlgh.culturedigitalplatform.entities.Formation;
+import salimlgh.culturedigitalplatform.search.CatalogSearchIndex;
+import salimlgh.culturedigitalplatform.search.FormationFacetIndex;
+import salimlgh.culturedigitalplatform.service.FormationService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Deux nœuds sur la même base H2 : une écriture faite sur A parvient par le journal au
+ * snapshot, à l'index de recherche et aux facettes de B.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CatalogChangeLogTest {
+
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    void startNodes() {
+        String url = "jdbc:h2:mem:changelog-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+        nodeA = startNode("node-a", url, "create-drop");
+        nodeB = startNode("node-b", url, "none");
+    }
+
+    @AfterAll
+    void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    @Test
+    void writeOnOneNodeReachesTheOtherNodeCaches() throws InterruptedException {
+        Formation formation = new Formation();
+        formation.setTitle("Vitrail roman");
+        formation.setCategory("Verrerie");
+        formation.setTags(List.of("vitrail"));
+        formation.setPublished(true);
+        Long id = nodeA.getBean(FormationService.class).createFormation(formation).getId();
+
+        CatalogSnapshotStore snapshotB = nodeB.getBean(CatalogSnapshotStore.class);
+        CatalogSearchIndex searchB = nodeB.getBean(CatalogSearchIndex.class);
+        FormationFacetIndex facetsB = nodeB.getBean(FormationFacetIndex.class);
+        await(() -> snapshotB.snapshot().formation(id) != null);
+        await(() -> searchB.searchFormations("vitrail", false, 0, null).getItems().contains(id));
+        await(() -> categoryCounts(facetsB).containsKey("Verrerie"));
+        assertThat(snapshotB.snapshot().version())
+                .isEqualTo(nodeA.getBean(CatalogSnapshotStore.class).snapshot().version());
+
+        nodeA.getBean(FormationService.class).deleteFormation(id);
+
+        await(() -> snapshotB.snapshot().formation(id) == null);
+        await(() -> searchB.searchFormations("vitrail", false, 0, null).getItems().isEmpty());
+        await(() -> !categoryCounts(facetsB).containsKey("Verrerie"));
+    }
+
+    private static Map<String, Integer> categoryCounts(FormationFacetIndex facets) {
+        return facets.query(Set.of(), Set.of(), Set.of(), null).counts().get(FormationFacetIndex.CATEGORY);
+    }
+
+    private static ConfigurableApplicationContext startNode(String nodeId, String url, String ddl) {
+        return new SpringApplicationBuilder(CultureDigitalPlatformApplication.class)
+                .profiles("test")
+                .run("--spring.datasource.url=" + url,
+                        "--spring.jpa.hibernate.ddl-auto=" + ddl,
+                        "--server.port=0",
+                        "--catalog.changelog.node-id=" + nodeId,
+                        "--catalog.changelog.poll-interval-ms=100");
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("délai d'attente dépassé").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package salimlgh.culturedigitalplatform.pagination;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void roundTripsADate() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_000_000);
+
+        KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.encode(createdAt, 42L));
+
+        assertThat(cursor.getCreatedAt()).isEqualTo(createdAt);
+        assertThat(cursor.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void roundTripsANullDate() {
+        KeysetCursor fromLocal = KeysetCursor.decode(KeysetCursor.encode((LocalDateTime) null, 7L));
+        KeysetCursor fromDate = KeysetCursor.decode(KeysetCursor.encode((Date) null, 8L));
+
+        assertThat(fromLocal.getCreatedAt()).isNull();
+        assertThat(fromLocal.getId()).isEqualTo(7L);
+        assertThat(fromDate.getCreatedAt()).isNull();
+        assertThat(fromDate.getId()).isEqualTo(8L);
+    }
+
+    @Test
+    void rejectsGarbage() {
+        assertThatThrownBy(() -> KeysetCursor.decode("pas-un-curseur")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
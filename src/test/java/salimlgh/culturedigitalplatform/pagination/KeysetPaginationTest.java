@@ -0,0 +1,86 @@
+package salimlgh.culturedigitalplatform.pagination;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import salimlgh.culturedigitalplatform.catalog.CatalogSnapshotStore;
+import salimlgh.culturedigitalplatform.entities.Formation;
+import salimlgh.culturedigitalplatform.repository.FormationRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Les lignes sans createdAt sont servies après les autres (NULLS LAST) au lieu de disparaître
+ * après la première page, en SQL comme dans le snapshot du catalogue.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class KeysetPaginationTest {
+
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private FormationRepository formationRepository;
+    @Autowired
+    private CatalogSnapshotStore catalogSnapshotStore;
+
+    @BeforeAll
+    void seed() {
+        for (int i = 0; i < 7; i++) {
+            Formation formation = new Formation();
+            formation.setTitle("Pagination " + i);
+            formation.setPublished(true);
+            // Une formation sur deux sans date, dont deux à égalité de date
+            formation.setCreatedAt(i % 2 == 0 ? null : LocalDateTime.of(2024, 1, i == 5 ? 3 : i, 12, 0));
+            formationRepository.save(formation);
+        }
+        catalogSnapshotStore.rebuild();
+    }
+
+    @Test
+    void sqlPagesReachUndatedRows() throws Exception {
+        List<Long> expected = formationRepository.findAll().stream().map(Formation::getId).toList();
+
+        assertThat(readAllPages("/api/admin/formations")).hasSameSizeAs(expected).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Test
+    void snapshotPagesReachUndatedRows() throws Exception {
+        List<Long> expected = catalogSnapshotStore.snapshot().formations().stream().map(f -> f.id()).toList();
+
+        assertThat(readAllPages("/api/formations")).hasSameSizeAs(expected).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    private List<Long> readAllPages(String url) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            String page = url + "?size=2&fields=id" + (cursor == null ? "" : "&cursor=" + cursor);
+            MvcResult result = mockMvc.perform(get(page)).andExpect(status().isOk()).andReturn();
+            Matcher matcher = ID.matcher(result.getResponse().getContentAsString());
+            while (matcher.find()) {
+                ids.add(Long.parseLong(matcher.group(1)));
+            }
+            cursor = result.getResponse().getHeader(CursorPage.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+        return ids;
+    }
+}
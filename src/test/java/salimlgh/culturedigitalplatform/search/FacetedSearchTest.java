@@ -0,0 +1,61 @@
+package salimlgh.culturedigitalplatform.search;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import salimlgh.culturedigitalplatform.entities.Formation;
+import salimlgh.culturedigitalplatform.pagination.SearchPage;
+import salimlgh.culturedigitalplatform.service.FormationService;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Totaux et compteurs d'une recherche à facettes au-delà de la première page de résultats. */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class FacetedSearchTest {
+
+    private static final int MATCHES = 150;
+
+    @Autowired
+    private FormationService formationService;
+
+    @BeforeAll
+    void seed() {
+        for (int i = 0; i < MATCHES; i++) {
+            Formation formation = new Formation();
+            formation.setTitle("Mosaïque " + i);
+            formation.setCategory(i % 3 == 0 ? "Antiquité" : "Moyen Âge");
+            formation.setTags(List.of("mosaique"));
+            formation.setPublished(true);
+            formationService.createFormation(formation);
+        }
+    }
+
+    @Test
+    void totalsAndCountsCoverEveryMatch() {
+        FacetedResult<Long> result = formationService.facetedSearchPublishedFormationIds("mosaique", false,
+                Set.of(), Set.of(), Set.of());
+
+        assertThat(result.total()).isEqualTo(MATCHES);
+        assertThat(result.facets().get("category"))
+                .containsEntry("Antiquité", MATCHES / 3)
+                .containsEntry("Moyen Âge", MATCHES - MATCHES / 3);
+        assertThat(result.items()).hasSize(SearchPage.MAX_SIZE).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void filtersApplyToEveryMatch() {
+        FacetedResult<Long> result = formationService.facetedSearchPublishedFormationIds("mosaique", false,
+                Set.of(), Set.of("Moyen Âge"), Set.of());
+
+        assertThat(result.total()).isEqualTo(MATCHES - MATCHES / 3);
+        assertThat(result.items()).hasSize(SearchPage.MAX_SIZE);
+    }
+}
@@ -0,0 +1,74 @@
+package salimlgh.culturedigitalplatform.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvertedIndexTest {
+
+    @Test
+    void pagesCoverAllMatchesBeyondTheFirstHundred() {
+        InvertedIndex index = new InvertedIndex();
+        for (long id = 1; id <= 250; id++) {
+            index.put(new InvertedIndex.Document(id).field("cours de patrimoine " + id, 1));
+        }
+        index.put(new InvertedIndex.Document(999).field("musique", 1));
+
+        List<Long> seen = new ArrayList<>();
+        for (int offset = 0; ; offset += 100) {
+            InvertedIndex.Page page = index.search("patrimoine", offset, 100, false);
+            assertThat(page.total()).isEqualTo(250);
+            if (page.hits().isEmpty()) {
+                break;
+            }
+            page.hits().forEach(hit -> seen.add(hit.id()));
+        }
+
+        assertThat(seen).hasSize(250).doesNotHaveDuplicates().doesNotContain(999L);
+    }
+
+    @Test
+    void pageBeyondTheEndIsEmptyButKeepsTheTotal() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(new InvertedIndex.Document(1).field("histoire de l'art", 1));
+
+        InvertedIndex.Page page = index.search("histoire", 10, 10, false);
+
+        assertThat(page.hits()).isEmpty();
+        assertThat(page.total()).isEqualTo(1);
+    }
+
+    @Test
+    void reusedScoreBuffersStartFromZero() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(new InvertedIndex.Document(1).field("histoire de l'art", 1));
+        index.put(new InvertedIndex.Document(2).field("musique baroque", 1));
+
+        for (int round = 0; round < 20; round++) {
+            assertThat(index.search("histoire", 10)).extracting(InvertedIndex.Hit::id).containsExactly(1L);
+            assertThat(index.search("musique", 0, 0, false).total()).isEqualTo(1);
+            assertThat(index.search("baroque", 10)).extracting(InvertedIndex.Hit::id).containsExactly(2L);
+        }
+    }
+
+    @Test
+    void fuzzySearchKeepsTheClosestTerms() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(new InvertedIndex.Document(1).field("patrimoine", 1));
+        // Douze termes à deux éditions : au-delà du nombre de termes proches retenus
+        String[] farther = {"patrimxyne", "patrixoire", "patrimoxxe", "pxtrimoixe", "paxrimoinx", "xatrimoxne",
+                "patximoinx", "patrimxinx", "pxtrxmoine", "patrxmxine", "paxrxmoine", "pxtrimxine"};
+        for (int i = 0; i < farther.length; i++) {
+            index.put(new InvertedIndex.Document(100 + i).field(farther[i], 1));
+        }
+
+        List<InvertedIndex.Hit> hits = index.search("patrimoime", 20, true);
+
+        assertThat(hits).isNotEmpty();
+        assertThat(hits.get(0).id()).isEqualTo(1L);
+        assertThat(hits.size()).isLessThan(1 + farther.length);
+    }
+}
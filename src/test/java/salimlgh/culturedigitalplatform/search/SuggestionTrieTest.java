@@ -0,0 +1,100 @@
+package salimlgh.culturedigitalplatform.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestionTrieTest {
+
+    @Test
+    void suggestsLabelsFromAnyWordStart() {
+        SuggestionTrie trie = new SuggestionTrie();
+        trie.add("Peinture flamande", 3);
+        trie.add("Art moderne", 3);
+
+        assertThat(trie.suggest("flam", 5)).containsExactly("Peinture flamande");
+        assertThat(trie.suggest("Pein", 5)).containsExactly("Peinture flamande");
+        assertThat(trie.suggest("FLÂM", 5)).containsExactly("Peinture flamande");
+        assertThat(trie.suggest("peinture fl", 5)).containsExactly("Peinture flamande");
+        // Seuls les débuts de mots sont indexés
+        assertThat(trie.suggest("mande", 5)).isEmpty();
+        assertThat(trie.suggest("", 5)).isEmpty();
+    }
+
+    @Test
+    void returnsTheHeaviestCompletionsFirst() {
+        SuggestionTrie trie = new SuggestionTrie();
+        // Poids tous distincts, insérés dans le désordre
+        for (int i = 0; i < 500; i++) {
+            trie.add("Cours " + i, i * 37 % 500 + 1);
+        }
+        trie.add("Musique", 1_000);
+
+        List<String> expected = new ArrayList<>();
+        for (int weight = 500; weight > 490; weight--) {
+            for (int i = 0; i < 500; i++) {
+                if (i * 37 % 500 + 1 == weight) {
+                    expected.add("Cours " + i);
+                }
+            }
+        }
+        assertThat(trie.suggest("cours", 10)).containsExactlyElementsOf(expected);
+        assertThat(trie.suggest("cours", 1_000)).hasSize(500).doesNotContain("Musique");
+        assertThat(trie.suggest("cours", 0)).isEmpty();
+    }
+
+    @Test
+    void accumulatesTheWeightOfALabelSharedBySeveralEntities() {
+        SuggestionTrie trie = new SuggestionTrie();
+        trie.add("Histoire de Paris", 3);
+        // Catégorie de trois formations : 3 x 2 passe devant un titre
+        trie.add("Histoire", 2);
+        trie.add("histoire", 2);
+        trie.add("HISTOIRE ", 2);
+
+        assertThat(trie.size()).isEqualTo(2);
+        assertThat(trie.suggest("hist", 2)).containsExactly("Histoire", "Histoire de Paris");
+    }
+
+    @Test
+    void removalLowersThenDropsALabelAndPrunesItsBranches() {
+        SuggestionTrie trie = new SuggestionTrie();
+        trie.add("Peinture italienne", 3);
+        int nodes = trie.nodeCount();
+        trie.add("Peinture flamande", 3);
+        trie.add("Peinture flamande", 2);
+
+        assertThat(trie.suggest("pein", 2)).containsExactly("Peinture flamande", "Peinture italienne");
+
+        // Une formation sur deux retirée : le libellé reste, moins lourd
+        trie.remove("Peinture flamande", 3);
+        assertThat(trie.suggest("pein", 2)).containsExactly("Peinture italienne", "Peinture flamande");
+
+        trie.remove("Peinture flamande", 2);
+        assertThat(trie.suggest("flam", 5)).isEmpty();
+        assertThat(trie.suggest("pein", 5)).containsExactly("Peinture italienne");
+        assertThat(trie.size()).isEqualTo(1);
+        // Les branches propres à "peinture flamande" et "flamande" sont élaguées, le chemin partagé reste
+        assertThat(trie.nodeCount()).isEqualTo(nodes);
+
+        trie.remove("Peinture italienne", 3);
+        assertThat(trie.size()).isZero();
+        assertThat(trie.nodeCount()).isEqualTo(1);
+        assertThat(trie.suggest("p", 5)).isEmpty();
+    }
+
+    @Test
+    void removingAnUnknownLabelChangesNothing() {
+        SuggestionTrie trie = new SuggestionTrie();
+        trie.add("Sculpture", 1);
+        int nodes = trie.nodeCount();
+
+        trie.remove("Sculpteur", 1);
+
+        assertThat(trie.nodeCount()).isEqualTo(nodes);
+        assertThat(trie.suggest("scul", 5)).containsExactly("Sculpture");
+    }
+}
@@ -0,0 +1,97 @@
+package salimlgh.culturedigitalplatform.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramIndexTest {
+
+    private static TrigramIndex vocabulary(String... terms) {
+        TrigramIndex index = new TrigramIndex();
+        for (String term : terms) {
+            index.add(term);
+        }
+        return index;
+    }
+
+    private static List<String> similar(TrigramIndex index, String query) {
+        return index.similar(query).stream().map(TrigramIndex.Match::term).toList();
+    }
+
+    // Termes de 3 à 5 lettres : une édition tolérée
+    @ParameterizedTest(name = "{0} ({1})")
+    @CsvSource({
+            "coirs, substitution",
+            "courts, insertion",
+            "cour, suppression",
+            "corus, transposition",
+            "cuors, transposition",
+            "ocurs, transposition en tête",
+            "coursr, transposition en fin",
+            "bac, transposition sur trois lettres"
+    })
+    void oneEditUpToFiveLetters(String query, String edit) {
+        TrigramIndex index = vocabulary("cours", "abc", "art", "musique");
+        String expected = query.length() <= 3 ? "abc" : "cours";
+
+        assertThat(similar(index, query)).as(edit).contains(expected);
+    }
+
+    // Termes de 6 lettres et plus : deux éditions tolérées
+    @ParameterizedTest(name = "{0} ({1})")
+    @CsvSource({
+            "patrimoime, substitution",
+            "pateimoime, deux substitutions",
+            "patrimoinne, insertion",
+            "paatrimoinne, deux insertions",
+            "patrimone, suppression",
+            "ptrimone, deux suppressions",
+            "patrimoien, transposition",
+            "aptrimoien, deux transpositions",
+            "hsitorie, deux transpositions sur huit lettres",
+            "musqiue, transposition sur six lettres"
+    })
+    void twoEditsFromSixLetters(String query, String edit) {
+        TrigramIndex index = vocabulary("patrimoine", "histoire", "musique", "cours");
+        String expected = switch (query.charAt(0)) {
+            case 'h' -> "histoire";
+            case 'm' -> "musique";
+            default -> "patrimoine";
+        };
+
+        assertThat(similar(index, query)).as(edit).contains(expected);
+    }
+
+    @Test
+    void distanceThresholdsAreEnforced() {
+        TrigramIndex index = vocabulary("cours", "patrimoine", "de");
+
+        assertThat(similar(index, "cuoss")).as("deux éditions sur cinq lettres").doesNotContain("cours");
+        assertThat(similar(index, "ptrimoyen")).as("trois éditions").doesNotContain("patrimoine");
+        assertThat(similar(index, "du")).as("aucune édition sur deux lettres").isEmpty();
+        assertThat(similar(index, "de")).containsExactly("de");
+    }
+
+    @Test
+    void removedTermsLeaveTheIndex() {
+        TrigramIndex index = vocabulary("cours");
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 1_000; i++) {
+                index.add("terme" + round + "x" + i);
+            }
+            for (int i = 0; i < 1_000; i++) {
+                index.remove("terme" + round + "x" + i);
+            }
+        }
+        TrigramIndex fresh = vocabulary("cours");
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.trigramCount()).isEqualTo(fresh.trigramCount());
+        assertThat(similar(index, "terme1x5")).isEmpty();
+        assertThat(similar(index, "corus")).containsExactly("cours");
+    }
+}
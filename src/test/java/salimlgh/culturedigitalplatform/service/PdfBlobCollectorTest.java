@@ -0,0 +1,92 @@
+package salimlgh.culturedigitalplatform.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import salimlgh.culturedigitalplatform.repository.CourseRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PdfBlobCollectorTest {
+
+    private static final Duration GRACE = Duration.ofHours(1);
+
+    @TempDir
+    Path root;
+
+    private LocalFileStorageService storage;
+    private CourseRepository courseRepository;
+    private PdfBlobCollector collector;
+
+    @BeforeEach
+    void setUp() {
+        storage = new LocalFileStorageService(root.toString(), 1_000_000);
+        storage.init();
+        courseRepository = mock(CourseRepository.class);
+        collector = new PdfBlobCollector(storage, courseRepository, GRACE);
+    }
+
+    @Test
+    void deletesOnlyOldUnreferencedBlobs() throws IOException {
+        String orphan = store("orphelin");
+        String referenced = store("référencé");
+        String recent = store("transaction en cours");
+        age(orphan);
+        age(referenced);
+        when(courseRepository.findReferencedPdfBlobRefs(anyCollection())).thenReturn(List.of(referenced));
+
+        assertThat(collector.collect()).isEqualTo(1);
+
+        assertThat(storage.exists(orphan)).isFalse();
+        assertThat(storage.exists(referenced)).isTrue();
+        // Écrit pendant la période de grâce : peut appartenir à une transaction non encore validée
+        assertThat(storage.exists(recent)).isTrue();
+    }
+
+    @Test
+    void reuploadRefreshesTheMark() throws IOException {
+        String ref = store("même contenu");
+        age(ref);
+        when(courseRepository.findReferencedPdfBlobRefs(anyCollection())).thenReturn(List.of());
+
+        assertThat(store("même contenu")).isEqualTo(ref);
+
+        assertThat(collector.collect()).isZero();
+        assertThat(storage.exists(ref)).isTrue();
+    }
+
+    @Test
+    void deletionIsSkippedWhenTheBlobWasReusedAfterListing() throws IOException {
+        String ref = store("envoi concurrent");
+        age(ref);
+        Instant cutoff = Instant.now().minus(GRACE);
+        assertThat(storage.listUnusedSince(cutoff)).containsExactly(ref);
+
+        store("envoi concurrent");
+
+        assertThat(storage.deleteIfUnusedSince(ref, cutoff)).isFalse();
+        assertThat(storage.exists(ref)).isTrue();
+    }
+
+    private String store(String content) throws IOException {
+        return storage.store(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8))).ref();
+    }
+
+    private void age(String ref) throws IOException {
+        Path path = root.resolve(ref.substring(0, 2)).resolve(ref.substring(2, 4)).resolve(ref);
+        Files.setLastModifiedTime(path, FileTime.from(Instant.now().minus(GRACE.multipliedBy(2))));
+    }
+}
@@ -0,0 +1,190 @@
+package salimlgh.culturedigitalplatform.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import salimlgh.culturedigitalplatform.dtos.CoursePdfDTO;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PdfStreamingServiceTest {
+
+    private static final int LENGTH = 300;
+    private static final Instant LAST_MODIFIED = Instant.parse("2024-05-01T10:00:00Z");
+
+    @TempDir
+    Path root;
+
+    private final byte[] content = new byte[LENGTH];
+    private PdfStreamingService service;
+    private CoursePdfDTO pdf;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        for (int i = 0; i < LENGTH; i++) {
+            content[i] = (byte) i;
+        }
+        LocalFileStorageService storage = new LocalFileStorageService(root.toString(), 1_000_000);
+        storage.init();
+        String ref = storage.store(new ByteArrayInputStream(content)).ref();
+        service = new PdfStreamingService(storage);
+        pdf = CoursePdfDTO.builder()
+                .courseId(1L)
+                .blobRef(ref)
+                .size(LENGTH)
+                .contentType("application/pdf")
+                .lastModified(LAST_MODIFIED)
+                .build();
+    }
+
+    @Test
+    void servesTheWholeFileWithoutRange() throws IOException {
+        MockHttpServletResponse response = stream(request(null));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isNull();
+        assertThat(response.getContentLengthLong()).isEqualTo(LENGTH);
+        assertThat(response.getContentAsByteArray()).isEqualTo(content);
+    }
+
+    @Test
+    void servesABoundedRange() throws IOException {
+        assertPartial(stream(request("bytes=0-99")), 0, 99);
+    }
+
+    @Test
+    void servesASuffixRange() throws IOException {
+        assertPartial(stream(request("bytes=-100")), 200, 299);
+    }
+
+    @Test
+    void servesAnOpenRangeToTheEnd() throws IOException {
+        assertPartial(stream(request("bytes=100-")), 100, 299);
+    }
+
+    @Test
+    void clampsARangeEndingPastTheEnd() throws IOException {
+        assertPartial(stream(request("bytes=250-999")), 250, 299);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"bytes=300-", "bytes=300-310", "bytes=500-"})
+    void rejectsARangeStartingAtOrPastTheEnd(String range) throws IOException {
+        MockHttpServletResponse response = stream(request(range));
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */" + LENGTH);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void answersSeveralRangesWithTheWholeFile() throws IOException {
+        MockHttpServletResponse response = stream(request("bytes=0-9,20-29"));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isNull();
+        assertThat(response.getContentAsByteArray()).isEqualTo(content);
+    }
+
+    @Test
+    void ignoresAMalformedRange() throws IOException {
+        MockHttpServletResponse response = stream(request("octets=0-9"));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(content);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"\"ancienne-empreinte\"", "Tue, 30 Apr 2024 10:00:00 GMT", "pas une date"})
+    void answersAStaleIfRangeWithTheWholeFile(String ifRange) throws IOException {
+        MockHttpServletRequest request = request("bytes=0-99");
+        request.addHeader(HttpHeaders.IF_RANGE, ifRange);
+
+        MockHttpServletResponse response = stream(request);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isNull();
+        assertThat(response.getContentAsByteArray()).isEqualTo(content);
+    }
+
+    @Test
+    void weakETagNeverValidatesARange() throws IOException {
+        MockHttpServletRequest request = request("bytes=0-99");
+        request.addHeader(HttpHeaders.IF_RANGE, "W/" + pdf.getETag());
+
+        assertThat(stream(request).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void servesTheRangeWhenIfRangeStillMatches() throws IOException {
+        MockHttpServletRequest byETag = request("bytes=0-99");
+        byETag.addHeader(HttpHeaders.IF_RANGE, pdf.getETag());
+        MockHttpServletRequest byDate = request("bytes=0-99");
+        byDate.addHeader(HttpHeaders.IF_RANGE,
+                DateTimeFormatter.RFC_1123_DATE_TIME.format(LAST_MODIFIED.atZone(ZoneOffset.UTC)));
+
+        assertPartial(stream(byETag), 0, 99);
+        assertPartial(stream(byDate), 0, 99);
+    }
+
+    @Test
+    void handsTheRangeToTomcatSendfileWhenSupported() throws IOException {
+        MockHttpServletRequest request = request("bytes=100-199");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+
+        MockHttpServletResponse response = stream(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentLengthLong()).isEqualTo(100);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(100L);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(200L);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void copiesTheRangeFromAStreamWhenTheBlobIsNotALocalFile() throws IOException {
+        FileStorageService remote = mock(FileStorageService.class);
+        when(remote.loadFile(pdf.getBlobRef())).thenReturn(new ByteArrayResource(content));
+        service = new PdfStreamingService(remote);
+
+        assertPartial(stream(request("bytes=-100")), 200, 299);
+    }
+
+    private void assertPartial(MockHttpServletResponse response, int start, int end) {
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes " + start + "-" + end + "/" + LENGTH);
+        assertThat(response.getContentLengthLong()).isEqualTo(end - start + 1);
+        assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(content, start, end + 1));
+    }
+
+    private static MockHttpServletRequest request(String range) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/courses/1/pdf");
+        if (range != null) {
+            request.addHeader(HttpHeaders.RANGE, range);
+        }
+        return request;
+    }
+
+    private MockHttpServletResponse stream(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        service.stream(pdf, request, response);
+        return response;
+    }
+}
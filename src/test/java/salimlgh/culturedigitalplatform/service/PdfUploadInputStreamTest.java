@@ -0,0 +1,63 @@
+package salimlgh.culturedigitalplatform.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PdfUploadInputStreamTest {
+
+    @Test
+    void readsByteByByte() throws IOException {
+        PdfUploadInputStream in = stream("%PDF-1.7", 100);
+
+        StringBuilder content = new StringBuilder();
+        for (int b; (b = in.read()) >= 0; ) {
+            content.append((char) b);
+        }
+
+        assertThat(content).hasToString("%PDF-1.7");
+        assertThat(in.getCount()).isEqualTo(8);
+    }
+
+    @Test
+    void rejectsWrongSignatureOnSingleByteRead() throws IOException {
+        PdfUploadInputStream in = stream("%PNG-1", 100);
+        in.read();
+        in.read();
+
+        assertThatThrownBy(in::read).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void skipReadsAndCountsTheSkippedBytes() throws IOException {
+        PdfUploadInputStream in = stream("%PDF-" + "x".repeat(20_000), 100_000);
+
+        assertThat(in.skip(10_000)).isEqualTo(10_000);
+        assertThat(in.skip(50_000)).isEqualTo(10_005);
+        assertThat(in.skip(1)).isZero();
+        assertThat(in.getCount()).isEqualTo(20_005);
+    }
+
+    @Test
+    void skipValidatesTheSignature() {
+        PdfUploadInputStream in = stream("<html>" + "x".repeat(100), 100_000);
+
+        assertThatThrownBy(() -> in.skip(50)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void skipEnforcesTheMaximumSize() {
+        PdfUploadInputStream in = stream("%PDF-" + "x".repeat(200), 100);
+
+        assertThatThrownBy(() -> in.skip(1_000)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static PdfUploadInputStream stream(String content, long maxSize) {
+        return new PdfUploadInputStream(new ByteArrayInputStream(content.getBytes(StandardCharsets.US_ASCII)), maxSize);
+    }
+}
@@ -0,0 +1,121 @@
+package salimlgh.culturedigitalplatform.sql;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import salimlgh.culturedigitalplatform.catalog.CatalogSnapshotStore;
+import salimlgh.culturedigitalplatform.entities.Course;
+import salimlgh.culturedigitalplatform.entities.Formation;
+import salimlgh.culturedigitalplatform.entities.Quiz;
+import salimlgh.culturedigitalplatform.repository.CourseRepository;
+import salimlgh.culturedigitalplatform.repository.FormationRepository;
+import salimlgh.culturedigitalplatform.repository.QuizRepository;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Nombre de requêtes SQL des endpoints de liste et de détail, mesuré cache de second
+ * niveau vide : un N+1 (une requête par formation, cours ou quiz) dépasse le budget.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointStatementBudgetTest {
+
+    private static final int FORMATIONS = 5;
+    private static final int COURSES_PER_FORMATION = 3;
+    private static final int QUIZZES_PER_COURSE = 2;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private FormationRepository formationRepository;
+    @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private QuizRepository quizRepository;
+    @Autowired
+    private CatalogSnapshotStore catalogSnapshotStore;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long formationId;
+    private Long courseId;
+
+    @BeforeAll
+    void seed() {
+        for (int f = 0; f < FORMATIONS; f++) {
+            Formation formation = new Formation();
+            formation.setTitle("Formation " + f);
+            formation.setCategory("Histoire");
+            formation.setPublished(true);
+            formation.setTags(List.of("patrimoine", "tag" + f));
+            formation = formationRepository.save(formation);
+            formationId = formation.getId();
+            for (int c = 0; c < COURSES_PER_FORMATION; c++) {
+                Course course = new Course();
+                course.setTitle("Cours " + f + "-" + c);
+                course.setDescription("Description du cours " + c);
+                course.setFormation(formation);
+                course = courseRepository.save(course);
+                courseId = course.getId();
+                for (int q = 0; q < QUIZZES_PER_COURSE; q++) {
+                    Quiz quiz = new Quiz();
+                    quiz.setQuestion("Question " + q);
+                    quiz.setAnswers(List.of("A", "B", "C"));
+                    quiz.setCorrectAnswerIndex(0);
+                    quiz.setCourse(course);
+                    quizRepository.save(quiz);
+                }
+            }
+        }
+        // Données écrites hors services : aucun événement, l'instantané est reconstruit à la main
+        catalogSnapshotStore.rebuild();
+    }
+
+    @BeforeEach
+    void clearSecondLevelCache() {
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void publicListsAndDetailsAreServedFromTheSnapshot() throws Exception {
+        expectAtMost(0, "/api/formations");
+        expectAtMost(0, "/api/formations/" + formationId);
+        expectAtMost(0, "/api/courses");
+        expectAtMost(0, "/api/courses/" + courseId);
+        expectAtMost(0, "/api/courses/formation/" + formationId);
+    }
+
+    @Test
+    void adminFormationListAndDetail() throws Exception {
+        expectAtMost(2, "/api/admin/formations");
+        expectAtMost(3, "/api/admin/formations?include=courses.quizzes");
+        expectAtMost(2, "/api/admin/formations?size=2");
+        expectAtMost(1, "/api/admin/formations/" + formationId);
+        expectAtMost(2, "/api/admin/formations/" + formationId + "?include=courses.quizzes");
+    }
+
+    @Test
+    void adminCourseListAndDetail() throws Exception {
+        expectAtMost(1, "/api/admin/courses");
+        expectAtMost(2, "/api/admin/courses?include=quizzes");
+        expectAtMost(2, "/api/admin/courses/" + courseId);
+        expectAtMost(2, "/api/admin/courses/" + courseId + "?include=quizzes");
+    }
+
+    private void expectAtMost(int maxStatements, String url) throws Exception {
+        StatementBudget.within(maxStatements, () -> mockMvc.perform(get(url)).andExpect(status().isOk()));
+    }
+}
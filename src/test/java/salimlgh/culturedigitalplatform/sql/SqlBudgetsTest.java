@@ -0,0 +1,31 @@
+package salimlgh.culturedigitalplatform.sql;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SqlBudgetsTest {
+
+    @Test
+    void methodSpecificBudgetWinsOverAnyMethod() {
+        SqlBudgets budgets = SqlBudgets.parse("GET /api/formations/{id}=3, /api/formations/{id}=6,post /api/formations=4");
+
+        assertThat(budgets.budgetFor("GET", "/api/formations/{id}")).isEqualTo(3);
+        assertThat(budgets.budgetFor("PUT", "/api/formations/{id}")).isEqualTo(6);
+        assertThat(budgets.budgetFor("POST", "/api/formations")).isEqualTo(4);
+        assertThat(budgets.budgetFor("GET", "/api/formations")).isNull();
+    }
+
+    @Test
+    void emptyConfigurationHasNoBudget() {
+        assertThat(SqlBudgets.parse("").budgetFor("GET", "/api/courses")).isNull();
+    }
+
+    @Test
+    void malformedEntriesAreRejected() {
+        assertThatThrownBy(() -> SqlBudgets.parse("/api/courses")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SqlBudgets.parse("/api/courses=two")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SqlBudgets.parse("GET HEAD /api/courses=2")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,32 @@
+package salimlgh.culturedigitalplatform.sql;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Budget de requêtes SQL pour les tests : {@link #within(int, Callable)} exécute un bloc
+ * et échoue s'il émet plus de requêtes que prévu, pour qu'un N+1 casse le build.
+ */
+public final class StatementBudget {
+
+    private StatementBudget() {
+    }
+
+    /**
+     * Exécute le bloc et vérifie qu'il émet au plus {@code maxStatements} requêtes.
+     *
+     * @throws AssertionError si le budget est dépassé, avec la forme la plus répétée
+     */
+    public static <T> T within(int maxStatements, Callable<T> block) throws Exception {
+        SqlRequestStats stats = SqlRequestStats.open();
+        T result;
+        try {
+            result = block.call();
+        } finally {
+            stats.close();
+        }
+        if (stats.getStatements() > maxStatements) {
+            throw new AssertionError(SqlBudgets.describe(maxStatements, stats));
+        }
+        return result;
+    }
+}